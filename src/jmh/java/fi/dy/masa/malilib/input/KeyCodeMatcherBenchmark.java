@@ -0,0 +1,185 @@
+package fi.dy.masa.malilib.input;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Compares the pre-compiled {@link KeyCodeMatcher} against the original keybind matching,
+ * which compared the {@code ImmutableList<Integer>} key codes element by element against
+ * the {@code List<Integer>} of the pressed keys. That code is copied here from the old
+ * KeyBindImpl.updateIsPressed(), from before the pressed keys were changed to primitive ints.
+ * Each invocation checks all the keybinds
+ * against the same set of pressed keys, like what happens on each key press and release.
+ * The keybinds are randomly generated combinations of one to three keys and mouse buttons,
+ * with random "allow extra keys" and "order sensitive" settings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyCodeMatcherBenchmark
+{
+    // Left control, left shift, C, V, F3, mouse buttons 0 and 1
+    protected static final int[] COMMON_KEYS = { 29, 42, 46, 47, 61, -100, -99 };
+
+    @Param({"50", "500", "5000"})
+    public int bindingCount;
+
+    protected final List<ImmutableList<Integer>> keyCodeLists = new ArrayList<>();
+    protected KeyCodeMatcher[] matchers;
+    protected boolean[] allowExtraKeys;
+    protected boolean[] orderSensitive;
+    protected final List<Integer> pressedKeys = new ArrayList<>();
+    protected int[] pressedKeysArray;
+    protected final long[] pressedKeysMask = new long[KeyCodeMatcher.MASK_LONGS];
+
+    @Setup
+    public void setup()
+    {
+        Random rand = new Random(12345L);
+
+        this.keyCodeLists.clear();
+        this.pressedKeys.clear();
+        this.matchers = new KeyCodeMatcher[this.bindingCount];
+        this.allowExtraKeys = new boolean[this.bindingCount];
+        this.orderSensitive = new boolean[this.bindingCount];
+
+        for (int i = 0; i < this.bindingCount; ++i)
+        {
+            List<Integer> keys = new ArrayList<>();
+            int keyCount = 1 + rand.nextInt(3);
+
+            while (keys.size() < keyCount)
+            {
+                // Mostly the common keys, so that there are partial and full matches
+                int keyCode = rand.nextInt(4) == 0 ? 2 + rand.nextInt(200) : COMMON_KEYS[rand.nextInt(COMMON_KEYS.length)];
+
+                if (keys.contains(keyCode) == false)
+                {
+                    keys.add(keyCode);
+                }
+            }
+
+            ImmutableList<Integer> keyCodes = ImmutableList.copyOf(keys);
+            this.keyCodeLists.add(keyCodes);
+            this.matchers[i] = KeyCodeMatcher.of(keyCodes);
+            this.allowExtraKeys[i] = rand.nextBoolean();
+            this.orderSensitive[i] = rand.nextBoolean();
+        }
+
+        // Left control + C
+        this.pressedKeys.add(29);
+        this.pressedKeys.add(46);
+        this.pressedKeysArray = new int[] { 29, 46 };
+
+        for (int keyCode : this.pressedKeysArray)
+        {
+            KeyCodeMatcher.setBit(this.pressedKeysMask, keyCode);
+        }
+
+        for (int i = 0; i < this.bindingCount; ++i)
+        {
+            if (this.matcherMatches(i) != this.listMatches(i))
+            {
+                throw new IllegalStateException("The matcher and the list based matching give different results " +
+                                                "for the keys " + this.keyCodeLists.get(i) +
+                                                ", allowExtraKeys: " + this.allowExtraKeys[i] +
+                                                ", orderSensitive: " + this.orderSensitive[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public int matcher()
+    {
+        int matches = 0;
+
+        for (int i = 0; i < this.bindingCount; ++i)
+        {
+            if (this.matcherMatches(i))
+            {
+                ++matches;
+            }
+        }
+
+        return matches;
+    }
+
+    @Benchmark
+    public int lists()
+    {
+        int matches = 0;
+
+        for (int i = 0; i < this.bindingCount; ++i)
+        {
+            if (this.listMatches(i))
+            {
+                ++matches;
+            }
+        }
+
+        return matches;
+    }
+
+    protected boolean matcherMatches(int index)
+    {
+        return this.matchers[index].matches(this.pressedKeysArray, this.pressedKeysMask,
+                                            this.allowExtraKeys[index], this.orderSensitive[index]);
+    }
+
+    /**
+     * The old matching code from KeyBindImpl.updateIsPressed().
+     * The empty keybinds were skipped before reaching this code.
+     */
+    protected boolean listMatches(int index)
+    {
+        final List<Integer> keyCodes = this.keyCodeLists.get(index);
+        final boolean allowExtraKeys = this.allowExtraKeys[index];
+        final boolean allowOutOfOrder = this.orderSensitive[index] == false;
+        final int sizePressed = this.pressedKeys.size();
+        final int sizeRequired = keyCodes.size();
+        boolean pressed = false;
+
+        if (sizeRequired > 0 && sizePressed >= sizeRequired && (allowExtraKeys || sizePressed == sizeRequired))
+        {
+            int keyCodeIndex = 0;
+            pressed = this.pressedKeys.containsAll(keyCodes);
+
+            for (Integer keyCodeObj : this.pressedKeys)
+            {
+                if (keyCodes.get(keyCodeIndex).equals(keyCodeObj))
+                {
+                    // Fully matched keybind
+                    if (++keyCodeIndex >= sizeRequired)
+                    {
+                        break;
+                    }
+                }
+                else if ((allowOutOfOrder == false && (keyCodeIndex > 0 || sizePressed == sizeRequired)) ||
+                         (keyCodes.contains(keyCodeObj) == false && allowExtraKeys == false))
+                {
+                    pressed = false;
+                    break;
+                }
+            }
+        }
+
+        return pressed;
+    }
+}
@@ -0,0 +1,82 @@
+package fi.dy.masa.malilib.render.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A StyledText builder that doesn't create the glyph segments, which would need the TextRenderer
+ * and thus a running game client. Instead it either records the committed segments and line breaks,
+ * so that the output of two parsers can be compared, or just counts the committed characters.
+ */
+public class RecordingStyledTextBuilder extends StyledText.Builder
+{
+    public static final String LINE_BREAK = "<line_break>";
+
+    protected final List<Object> entries = new ArrayList<>();
+    protected final boolean record;
+    protected int characterCount;
+
+    public RecordingStyledTextBuilder(boolean record)
+    {
+        super();
+
+        this.record = record;
+    }
+
+    public RecordingStyledTextBuilder(TextStyle startingStyle, boolean record)
+    {
+        super(startingStyle);
+
+        this.record = record;
+    }
+
+    /**
+     * @return the committed segments as [style, display string, original string] triples,
+     *         and the {@link #LINE_BREAK} markers between the lines
+     */
+    public List<Object> getEntries()
+    {
+        return this.entries;
+    }
+
+    public int getCharacterCount()
+    {
+        return this.characterCount;
+    }
+
+    @Override
+    protected void commitCurrentSegmentUsingStyle(TextStyle style)
+    {
+        if (this.displayStringForCurrentSegment.length() > 0)
+        {
+            if (this.record)
+            {
+                this.entries.add(style);
+                this.entries.add(this.displayStringForCurrentSegment.toString());
+                this.entries.add(this.originalTextStringForCurrentSegment.toString());
+            }
+
+            this.characterCount += this.displayStringForCurrentSegment.length();
+            this.displayStringForCurrentSegment.setLength(0);
+            this.originalTextStringForCurrentSegment.setLength(0);
+        }
+    }
+
+    @Override
+    protected void commitCurrentLine()
+    {
+        this.commitCurrentSegment();
+
+        if (this.record)
+        {
+            this.entries.add(LINE_BREAK);
+        }
+    }
+
+    @Override
+    public StyledText build()
+    {
+        this.commitCurrentLine();
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package fi.dy.masa.malilib.render.text;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A set of strings resembling the info overlay and tooltip lines, used by the parser benchmark
+ * and the parser equivalence check. The vanilla color codes (section sign + 0-9 or a-f) are not
+ * used here, because they look up the colors from the TextRenderer, which needs a running game client.
+ * The color tags go through the same style change path in the parser.
+ */
+public class StyledTextCorpus
+{
+    public static final ImmutableList<String> OVERLAY_LINES = ImmutableList.of(
+            "x: 1024.5, y: 64.0, z: -2048.3",
+            "<c=#FFAA00>Facing:</c> north (Towards negative Z) [-180.0 / 12.5]",
+            "<c=#55FF55>Light:</c> 15 (sky: 15, block: 0)",
+            "Biome: <c=#FF55FF>Plains</c>",
+            "<c=#AAAAAA>Chunk:</c> 64 4 -128 in r.2.-4.mca",
+            "Entities: <c=#FFFF55>42</c> / <c=#FF5555>15</c>",
+            "FPS: <c=#55FF55>60</c> (60 chunk updates)",
+            "§lToolSwitch:§r ON",
+            "<b>Placement restriction</b>: <c=#FF5555>OFF</c>",
+            "Time: 1:23:45 - day 12",
+            "Looking at: minecraft:stone[variant=andesite]",
+            "<c=#FFFFFF>Speed:</c> <c=#55FFFF>5.612</c> m/s",
+            "Memory: 45% 920/2048MB",
+            "Server TPS: <c=#55FF55>20.0</c> MSPT: <c=#FFAA00>12.3</c>",
+            "<c=#AAAAAA>Loaded chunks:</c> 441 (cached: 12)",
+            "<sh>Shadowed text</sh> and <u>underlined</u> text"
+    );
+
+    public static final ImmutableList<String> TOOLTIP_LINES = ImmutableList.of(
+            "<c=#AAAAAA>Enables the tool switching</c>\\nwhen breaking blocks",
+            "The maximum time in microseconds per client tick\\nthat the scheduled tasks of mods are allowed to run for.",
+            "§oHold shift for more info§r",
+            "<c=#FFAA00>Hotkey:</c> <c=#FFFF55>LEFT_CONTROL + C</c>\\n<c=#AAAAAA>Context:</c> INGAME\\n<c=#AAAAAA>Activate on:</c> PRESS",
+            "Provide a new name for the directory:\\n  <c=ee2>%s</c>",
+            "<c=#FF5555><b>Warning:</b></c> this will <u>overwrite</u> the existing file!",
+            "Default: <c=#55FF55>true</c>\\nCurrent: <c=#FF5555>false</c>",
+            "§lBold§r, <i>italic</i>, <st>struck</st> and <rnd>random</rnd> text<rst>",
+            "Escaped \\<b> tags and a \\\\n line break are shown as-is",
+            "A plain tooltip line without any style codes at all, which is the most common case",
+            "<csh=#40000000>Custom shadow color</csh> <c=#80FFFFFF>semi-transparent</c>",
+            "Line one\nLine two\nLine three"
+    );
+
+    public static final ImmutableList<String> ALL_LINES = ImmutableList.<String>builder()
+            .addAll(OVERLAY_LINES).addAll(TOOLTIP_LINES).build();
+}
@@ -0,0 +1,77 @@
+package fi.dy.masa.malilib.render.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.google.common.collect.ImmutableList;
+import fi.dy.masa.malilib.util.StringReader;
+
+/**
+ * Compares the single pass styled text parser against the old token based parser,
+ * over the overlay and tooltip lines of {@link StyledTextCorpus}.
+ * Each invocation parses the whole corpus. The builder only counts the characters,
+ * so this measures the parsing and the style changes, but not the glyph segment creation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StyledTextParserBenchmark
+{
+    @Param({"overlay", "tooltip"})
+    public String corpus;
+
+    protected ImmutableList<String> lines;
+
+    @Setup
+    public void setup()
+    {
+        this.lines = this.corpus.equals("overlay") ? StyledTextCorpus.OVERLAY_LINES : StyledTextCorpus.TOOLTIP_LINES;
+    }
+
+    @Benchmark
+    public int singlePass()
+    {
+        int count = 0;
+
+        for (String str : this.lines)
+        {
+            RecordingStyledTextBuilder builder = new RecordingStyledTextBuilder(false);
+            StyledTextParser.parseString(str, builder);
+            count += builder.getCharacterCount();
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public int tokens()
+    {
+        int count = 0;
+
+        for (String str : this.lines)
+        {
+            RecordingStyledTextBuilder builder = new RecordingStyledTextBuilder(false);
+            List<StyledTextParser.Token> tokens = new ArrayList<>();
+
+            StyledTextParser.readTokens(new StringReader(str), tokens);
+            StyledTextParser.parseTokensToStyledText(tokens, builder);
+            count += builder.getCharacterCount();
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,107 @@
+package fi.dy.masa.malilib.render.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import fi.dy.masa.malilib.util.StringReader;
+import fi.dy.masa.malilib.util.data.Color4f;
+
+/**
+ * Checks that the single pass {@link StyledTextParser#parseString(String, StyledText.Builder)}
+ * produces exactly the same segments and line breaks as the old token based parser
+ * ({@link StyledTextParser#readTokens(StringReader, List)} + {@link StyledTextParser#parseTokensToStyledText(List, StyledText.Builder)}),
+ * for the benchmark corpus and for randomly generated strings, with and without a starting style.
+ * <br>
+ * Run with {@code gradlew checkStyledTextParser}, optionally with {@code -PcheckCount=<count>}
+ * to set the number of random strings. Exits with a non-zero status if any differences are found.
+ */
+public class StyledTextParserEquivalenceCheck
+{
+    // The string fragments that the random strings are built from. The section sign is only used
+    // with the formatting codes, see StyledTextCorpus for why the vanilla color codes are not included.
+    protected static final String[] FRAGMENTS = {
+            "a", "b", "c", "n", "r", "s", "t", "x", " ", "0", "7", "f", "F", "#", "=", ">", "<", "/", "!", "^",
+            "\\", "\\n", "\n", "<b>", "</b>", "<i>", "<!i>", "<u>", "<^u>", "<st>", "</st>", "<sh>", "</sh>",
+            "<rnd>", "</rnd>", "<rst>", "</rst>", "<c=", "<c=#", "<csh=", "</c>", "</csh>", "<c=#FFAA00>",
+            "<c=ee2>", "<c=#80FFFFFF>", "<csh=#4000>", "<c=#12345>", "§l", "§o", "§r", "§k", "§m", "§n", "§L", "§R"
+    };
+
+    public static void main(String[] args)
+    {
+        int randomCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        TextStyle startingStyle = TextStyle.builder().withBold(true).withColor(Color4f.fromColor(0xFF55FF55)).build();
+        List<String> strings = new ArrayList<>(StyledTextCorpus.ALL_LINES);
+        Random rand = new Random(8675309L);
+        int failures = 0;
+
+        for (int i = 0; i < randomCount; ++i)
+        {
+            strings.add(createRandomString(rand, 1 + rand.nextInt(24)));
+        }
+
+        for (String str : strings)
+        {
+            failures += check(str, null) ? 0 : 1;
+            failures += check(str, startingStyle) ? 0 : 1;
+        }
+
+        System.out.printf("Checked %d strings, %d differences found%n", strings.size(), failures);
+
+        if (failures > 0)
+        {
+            System.exit(1);
+        }
+    }
+
+    protected static boolean check(String str, TextStyle startingStyle)
+    {
+        List<Object> expected = parseWithTokens(str, startingStyle);
+        List<Object> actual = parseSinglePass(str, startingStyle);
+
+        if (Objects.equals(expected, actual) == false)
+        {
+            System.out.printf("Difference for '%s' (starting style: %s):%n    tokens:      %s%n    single pass: %s%n",
+                              str, startingStyle, expected, actual);
+            return false;
+        }
+
+        return true;
+    }
+
+    protected static List<Object> parseWithTokens(String str, TextStyle startingStyle)
+    {
+        RecordingStyledTextBuilder builder = createBuilder(startingStyle);
+        List<StyledTextParser.Token> tokens = new ArrayList<>();
+
+        StyledTextParser.readTokens(new StringReader(str), tokens);
+        StyledTextParser.parseTokensToStyledText(tokens, builder);
+
+        return builder.getEntries();
+    }
+
+    protected static List<Object> parseSinglePass(String str, TextStyle startingStyle)
+    {
+        RecordingStyledTextBuilder builder = createBuilder(startingStyle);
+        StyledTextParser.parseString(str, builder);
+        return builder.getEntries();
+    }
+
+    protected static RecordingStyledTextBuilder createBuilder(TextStyle startingStyle)
+    {
+        return startingStyle != null ? new RecordingStyledTextBuilder(startingStyle, true) :
+                                       new RecordingStyledTextBuilder(true);
+    }
+
+    protected static String createRandomString(Random rand, int fragmentCount)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < fragmentCount; ++i)
+        {
+            sb.append(FRAGMENTS[rand.nextInt(FRAGMENTS.length)]);
+        }
+
+        return sb.toString();
+    }
+}
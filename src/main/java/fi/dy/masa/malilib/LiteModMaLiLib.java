@@ -9,6 +9,7 @@ import com.mumfrey.liteloader.core.LiteLoader;
 import com.mumfrey.liteloader.modconfig.ConfigPanel;
 import net.minecraft.client.Minecraft;
 import fi.dy.masa.malilib.config.ConfigManagerImpl;
+import fi.dy.masa.malilib.config.util.ValueChangeBatcher;
 import fi.dy.masa.malilib.event.dispatch.InitializationDispatcherImpl;
 import fi.dy.masa.malilib.registry.Registry;
 
@@ -57,6 +58,8 @@ public class LiteModMaLiLib implements Configurable, LiteMod, InitCompleteListen
     @Override
     public void onShutDown()
     {
+        ValueChangeBatcher.INSTANCE.flushAll();
         ((ConfigManagerImpl) Registry.CONFIG_MANAGER).saveIfDirty();
+        ((ConfigManagerImpl) Registry.CONFIG_MANAGER).waitForPendingSaves();
     }
 }
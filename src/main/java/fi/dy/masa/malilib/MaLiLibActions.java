@@ -13,6 +13,7 @@ import fi.dy.masa.malilib.gui.config.MessageRedirectListScreen;
 import fi.dy.masa.malilib.input.callback.AdjustableValueHotkeyCallback;
 import fi.dy.masa.malilib.listener.EventListener;
 import fi.dy.masa.malilib.overlay.message.MessageUtils;
+import fi.dy.masa.malilib.overlay.widget.EventHandlerTimingsWidget;
 
 public class MaLiLibActions
 {
@@ -32,6 +33,7 @@ public class MaLiLibActions
         register("openPreviousActionWidgetScreen", ActionWidgetScreen::openPreviousActionWidgetScreen);
         register("runCommand", ActionUtils::runVanillaCommand);
         register("switchConfigProfile", ConfigUtils::switchConfigProfile);
+        register("toggleEventHandlerTimingsWidget", EventHandlerTimingsWidget::toggleEventHandlerTimingsWidget);
     }
 
     private static NamedAction register(String name, EventListener action)
@@ -49,6 +49,7 @@ public class MaLiLibConfigs
         public static final BooleanConfig REMEMBER_CONFIG_TAB_SCROLL_POSITIONS  = new BooleanConfig("rememberConfigTabScrollPositions", true);
         public static final BooleanConfig SERVER_MESSAGES                       = new BooleanConfig("serverMessages", true);
         public static final BooleanConfig SORT_EXTENSION_MOD_OPTIONS            = new BooleanConfig("sortExtensionModOptions", false);
+        public static final IntegerConfig TASK_SCHEDULER_TICK_BUDGET            = new IntegerConfig("taskSchedulerTickBudget", 5000, 0, 50000);
 
         public static final ImmutableList<ConfigOption<?>> OPTIONS = ImmutableList.of(
                 ACTION_BAR_MESSAGE_LIMIT,
@@ -73,7 +74,8 @@ public class MaLiLibConfigs
                 PRESSED_KEYS_TOAST,
                 REMEMBER_CONFIG_TAB_SCROLL_POSITIONS,
                 SERVER_MESSAGES,
-                SORT_EXTENSION_MOD_OPTIONS
+                SORT_EXTENSION_MOD_OPTIONS,
+                TASK_SCHEDULER_TICK_BUDGET
         );
     }
 
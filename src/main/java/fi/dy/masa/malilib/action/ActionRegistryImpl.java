@@ -16,6 +16,7 @@ import fi.dy.masa.malilib.MaLiLib;
 import fi.dy.masa.malilib.MaLiLibConfigs;
 import fi.dy.masa.malilib.MaLiLibReference;
 import fi.dy.masa.malilib.config.util.ConfigUtils;
+import fi.dy.masa.malilib.gui.action.ActionSearchIndex;
 import fi.dy.masa.malilib.input.ActionResult;
 import fi.dy.masa.malilib.overlay.message.MessageDispatcher;
 import fi.dy.masa.malilib.util.JsonUtils;
@@ -49,6 +50,7 @@ public class ActionRegistryImpl implements ActionRegistry
         this.allActionsImmutable = null;
         this.aliasesImmutable = null;
         this.macrosImmutable = null;
+        ActionSearchIndex.INSTANCE.invalidate();
     }
 
     @Override
@@ -198,6 +200,9 @@ public class ActionRegistryImpl implements ActionRegistry
             this.allActionsImmutable = null;
             this.macrosImmutable = null;
             this.dirty = true;
+
+            // Drop the search index of the removed macro's action list
+            ActionSearchIndex.INSTANCE.invalidate();
         }
     }
 
@@ -350,9 +355,17 @@ public class ActionRegistryImpl implements ActionRegistry
     }
 
     public void loadFromFile()
+    {
+        this.prepareLoadFromFile().run();
+    }
+
+    /**
+     * Reads the file on the calling thread, and returns a task that applies the data
+     */
+    public Runnable prepareLoadFromFile()
     {
         File dir = ConfigUtils.getActiveConfigDirectory();
-        JsonUtils.loadFromFile(dir, MaLiLibReference.MOD_ID + "_actions.json", this::fromJson);
+        return JsonUtils.prepareLoadFromFile(dir, MaLiLibReference.MOD_ID + "_actions.json", this::fromJson);
     }
 
     public static <T extends NamedAction> ImmutableList<T> getActionsSortedByName(Collection<T> actions)
@@ -16,6 +16,7 @@ public abstract class BaseModConfig implements ModConfig
     protected int backupCount = MaLiLibConfigs.Generic.CONFIG_BACKUP_COUNT.getIntegerValue();
     protected int savedConfigVersion;
     protected boolean antiDuplicate = MaLiLibConfigs.Generic.CONFIG_BACKUP_ANTI_DUPLICATE.getBooleanValue();
+    protected boolean dirty = true;
 
     public BaseModConfig(ModInfo modInfo, String configFileName, int currentConfigVersion,
                          List<ConfigOptionCategory> configOptionCategories)
@@ -50,6 +51,25 @@ public abstract class BaseModConfig implements ModConfig
         return this.currentConfigVersion;
     }
 
+    @Override
+    public void markDirty()
+    {
+        this.dirty = true;
+    }
+
+    @Override
+    public boolean isMarkedDirty()
+    {
+        return this.dirty;
+    }
+
+    @Override
+    public void clearDirtyMarks()
+    {
+        ModConfig.super.clearDirtyMarks();
+        this.dirty = false;
+    }
+
     protected File getConfigBackupDirectory(File configDirectory)
     {
         return new File(configDirectory, this.backupDirectoryName);
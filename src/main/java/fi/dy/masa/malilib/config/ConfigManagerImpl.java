@@ -7,6 +7,11 @@ import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 import fi.dy.masa.malilib.MaLiLib;
+import fi.dy.masa.malilib.config.category.ConfigOptionCategory;
+import fi.dy.masa.malilib.config.option.ConfigOption;
+import fi.dy.masa.malilib.config.util.ConfigOverrideUtils;
+import fi.dy.masa.malilib.config.util.ConfigSaveQueue;
+import fi.dy.masa.malilib.config.util.ParallelConfigLoader;
 import fi.dy.masa.malilib.util.data.ModInfo;
 
 public class ConfigManagerImpl implements ConfigManager
@@ -28,9 +33,23 @@ public class ConfigManagerImpl implements ConfigManager
             return;
         }
 
-        handler.getConfigOptionCategories().forEach((category) -> category.getConfigOptions().forEach((config) -> config.setModInfo(modInfo)));
+        for (ConfigOptionCategory category : handler.getConfigOptionCategories())
+        {
+            // Propagate the value changes up to the category and the mod, for the dirty checks
+            Runnable dirtyListener = () -> {
+                category.markDirty();
+                handler.markDirty();
+            };
+
+            for (ConfigOption<?> config : category.getConfigOptions())
+            {
+                config.setModInfo(modInfo);
+                config.setDirtyListener(dirtyListener);
+            }
+        }
 
         this.configHandlers.put(modInfo, handler);
+        ConfigOverrideUtils.invalidateToggleConfigIndex();
     }
 
     @Override
@@ -70,9 +89,25 @@ public class ConfigManagerImpl implements ConfigManager
      */
     public void loadAllConfigs()
     {
+        ParallelConfigLoader loader = new ParallelConfigLoader();
+        this.addLoadTasks(loader, null);
+        loader.applyAll();
+    }
+
+    /**
+     * NOT PUBLIC API - DO NOT CALL
+     * Adds the read tasks of all the mod configs, except the given excluded config, to the given loader
+     */
+    public void addLoadTasks(ParallelConfigLoader loader, @Nullable ModConfig excludedConfig)
+    {
+        this.waitForPendingSaves();
+
         for (ModConfig handler : this.configHandlers.values())
         {
-            handler.loadFromFile();
+            if (handler != excludedConfig)
+            {
+                loader.add(handler::prepareLoadFromFile);
+            }
         }
     }
 
@@ -81,6 +116,8 @@ public class ConfigManagerImpl implements ConfigManager
      */
     public void saveAllConfigs()
     {
+        this.waitForPendingSaves();
+
         for (ModConfig handler : this.configHandlers.values())
         {
             handler.saveToFile();
@@ -96,9 +133,18 @@ public class ConfigManagerImpl implements ConfigManager
 
         for (ModConfig handler : this.configHandlers.values())
         {
-            savedSomething |= handler.saveIfDirty();
+            savedSomething |= handler.saveIfDirtyAsync();
         }
 
         return savedSomething;
     }
+
+    /**
+     * NOT PUBLIC API - DO NOT CALL
+     * Blocks until all the queued asynchronous config saves have been written to disk
+     */
+    public void waitForPendingSaves()
+    {
+        ConfigSaveQueue.INSTANCE.waitForPendingTasks();
+    }
 }
@@ -3,15 +3,23 @@ package fi.dy.masa.malilib.config;
 import java.io.File;
 import java.util.List;
 import javax.annotation.Nullable;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import fi.dy.masa.malilib.config.category.ConfigOptionCategory;
+import fi.dy.masa.malilib.config.serialization.ConfigSerializationPlan;
+import fi.dy.masa.malilib.config.util.BinaryConfigCache;
+import fi.dy.masa.malilib.config.util.ConfigSaveQueue;
+import fi.dy.masa.malilib.config.util.ConfigSnapshotCache;
 import fi.dy.masa.malilib.config.util.JsonConfigUtils;
+import fi.dy.masa.malilib.config.util.StreamingJsonConfigLoader;
 import fi.dy.masa.malilib.util.BackupUtils;
+import fi.dy.masa.malilib.util.JsonUtils;
 import fi.dy.masa.malilib.util.data.ModInfo;
 
 public class JsonModConfig extends BaseModConfig
 {
     @Nullable protected ConfigDataUpdater configDataUpdater;
+    @Nullable protected ConfigSerializationPlan serializationPlan;
 
     public JsonModConfig(ModInfo modInfo, int configVersion, List<ConfigOptionCategory> configOptionCategories)
     {
@@ -48,10 +56,106 @@ public class JsonModConfig extends BaseModConfig
         }
     }
 
+    /**
+     * @return true if the config data of the given version can be loaded as-is by the streaming loader.
+     *         Older config data is loaded via the JSON tree instead, if there is a config data updater,
+     *         so that the updater can modify the data before loading.
+     */
+    protected boolean canStreamLoadConfigVersion(int configVersion)
+    {
+        return this.configDataUpdater == null || configVersion == this.getConfigVersion();
+    }
+
+    /**
+     * @return the serialization plan for the current config categories.
+     *         The plan is re-created if the categories or the registered serializers have changed.
+     */
+    protected ConfigSerializationPlan getSerializationPlan()
+    {
+        List<ConfigOptionCategory> categories = this.getConfigOptionCategories();
+        ConfigSerializationPlan plan = this.serializationPlan;
+
+        if (plan == null || plan.isValidFor(categories) == false)
+        {
+            plan = ConfigSerializationPlan.create(categories);
+            this.serializationPlan = plan;
+        }
+
+        return plan;
+    }
+
     @Override
     public void loadFromFile(File configFile)
     {
-        JsonConfigUtils.loadFromFile(configFile, this.getConfigOptionCategories(), this::updateConfigDataBeforeLoading);
+        this.prepareLoadFromFile(configFile).run();
+    }
+
+    @Override
+    public Runnable prepareLoadFromFile(File configFile)
+    {
+        List<ConfigOptionCategory> categories = this.getConfigOptionCategories();
+        ConfigSnapshotCache.Snapshot snapshot = ConfigSnapshotCache.INSTANCE.getValidSnapshot(configFile);
+
+        // The file has not changed since it was last loaded or saved (for example when switching
+        // back and forth between config profiles), so only apply the values that differ
+        if (snapshot != null)
+        {
+            return () -> {
+                this.savedConfigVersion = snapshot.configVersion;
+                JsonConfigUtils.applySnapshotDiff(snapshot.data, categories);
+            };
+        }
+
+        final long lastModified = configFile.lastModified();
+        final long size = configFile.length();
+
+        // If the binary cache still matches the JSON file, then the JSON text doesn't need to be parsed
+        StreamingJsonConfigLoader.LoadedConfigData cachedData = BinaryConfigCache.INSTANCE.read(configFile, categories,
+                                                                                               this::canStreamLoadConfigVersion);
+        final boolean writeBinaryCache = cachedData == null;
+        final StreamingJsonConfigLoader.LoadedConfigData data = cachedData != null ? cachedData :
+                                                                StreamingJsonConfigLoader.readFile(configFile, categories,
+                                                                                                   this::canStreamLoadConfigVersion);
+
+        if (data != null)
+        {
+            return () -> {
+                this.savedConfigVersion = data.getConfigVersion();
+                data.apply();
+                this.cacheSnapshot(configFile, lastModified, size, writeBinaryCache);
+            };
+        }
+
+        JsonElement element = JsonUtils.parseJsonFile(configFile);
+
+        return () -> {
+            JsonConfigUtils.loadFromJson(element, categories, this::updateConfigDataBeforeLoading);
+            this.cacheSnapshot(configFile, lastModified, size, true);
+        };
+    }
+
+    /**
+     * Caches the loaded config values for the profile switches (only once a profile
+     * has actually been switched), and optionally also writes the binary cache of the file,
+     * so that the next load can use it even if the configs don't get saved in between.
+     */
+    protected void cacheSnapshot(File configFile, long lastModified, long size, boolean writeBinaryCache)
+    {
+        // If the data was updated from an older version, then the values would not match the file contents
+        writeBinaryCache &= BinaryConfigCache.INSTANCE.isEnabled() && this.savedConfigVersion == this.getConfigVersion();
+
+        if (ConfigSnapshotCache.INSTANCE.isCaching() == false && writeBinaryCache == false)
+        {
+            return;
+        }
+
+        JsonObject data = JsonConfigUtils.createSnapshot(this.getSerializationPlan(), this.getConfigVersion());
+        ConfigSnapshotCache.INSTANCE.putSnapshot(configFile, lastModified, size, this.savedConfigVersion, data);
+
+        if (writeBinaryCache)
+        {
+            BinaryConfigCache.INSTANCE.scheduleWrite(configFile, data, lastModified);
+        }
     }
 
     @Override
@@ -60,6 +164,10 @@ public class JsonModConfig extends BaseModConfig
         File backupDirectory = this.getConfigBackupDirectory(configDirectory);
         int currentConfigVersion = this.getConfigVersion();
 
+        // Drop or wait for a queued asynchronous save of the same file,
+        // so that it can't create backups or overwrite the file after this save
+        ConfigSaveQueue.INSTANCE.cancelPendingTask(configFile);
+
         if (this.savedConfigVersion != currentConfigVersion)
         {
             BackupUtils.createBackupFileForVersion(configFile, backupDirectory, this.savedConfigVersion);
@@ -70,7 +178,7 @@ public class JsonModConfig extends BaseModConfig
             BackupUtils.createRollingBackup(configFile, backupDirectory, ".bak_", this.backupCount, this.antiDuplicate);
         }
 
-        boolean success = JsonConfigUtils.saveToFile(configFile, this.getConfigOptionCategories(), currentConfigVersion);
+        boolean success = JsonConfigUtils.saveToFile(configFile, this.getSerializationPlan(), currentConfigVersion);
 
         if (success)
         {
@@ -80,6 +188,35 @@ public class JsonModConfig extends BaseModConfig
         return success;
     }
 
+    @Override
+    public boolean saveToFileAsync(File configDirectory, File configFile)
+    {
+        final File backupDirectory = this.getConfigBackupDirectory(configDirectory);
+        final int currentConfigVersion = this.getConfigVersion();
+        final int savedConfigVersion = this.savedConfigVersion;
+        final int backupCount = this.backupCount;
+        final boolean antiDuplicate = this.antiDuplicate;
+
+        Runnable backupTask = () -> {
+            if (savedConfigVersion != currentConfigVersion)
+            {
+                BackupUtils.createBackupFileForVersion(configFile, backupDirectory, savedConfigVersion);
+            }
+
+            if (backupCount > 0)
+            {
+                BackupUtils.createRollingBackup(configFile, backupDirectory, ".bak_", backupCount, antiDuplicate);
+            }
+        };
+
+        // The version is updated right away, so that the version backup doesn't get created again
+        // by a following save, which might get coalesced with this one on the writer thread
+        this.savedConfigVersion = currentConfigVersion;
+
+        return JsonConfigUtils.saveToFileAsync(configFile, this.getSerializationPlan(),
+                                               currentConfigVersion, backupTask);
+    }
+
     public interface ConfigDataUpdater
     {
         /**
@@ -52,6 +52,20 @@ public interface ModConfig
      */
     boolean saveToFile(File configDirectory, File configFile);
 
+    /**
+     * Saves all the configs to the provided config file, possibly asynchronously.
+     * The config values are snapshotted on the calling thread, but the actual
+     * file writing can happen later on a background thread.
+     * The default implementation just saves synchronously.
+     * @param configDirectory the directory where the configs are being saved to
+     * @param configFile the file to save the configs to
+     * @return true on success, false on failure
+     */
+    default boolean saveToFileAsync(File configDirectory, File configFile)
+    {
+        return this.saveToFile(configDirectory, configFile);
+    }
+
     /**
      * Returns the directory where the configs should be saved
      */
@@ -67,14 +81,53 @@ public interface ModConfig
         return dir;
     }
 
+    /**
+     * Marks this mod as having (potentially) changed configs since the last save.
+     * This is called by the dirty listeners of the config options.
+     */
+    default void markDirty()
+    {
+    }
+
+    /**
+     * Returns true if some config in this mod has notified about a change
+     * since the last call to {@link #clearDirtyMarks()}.
+     * The default implementation doesn't track the changes and always returns true.
+     */
+    default boolean isMarkedDirty()
+    {
+        return true;
+    }
+
+    /**
+     * Clears the dirty marks of this mod and all of its categories, after the configs have been saved
+     */
+    default void clearDirtyMarks()
+    {
+        for (ConfigOptionCategory category : this.getConfigOptionCategories())
+        {
+            category.clearDirtyMark();
+        }
+    }
+
     /**
      * Returns true if at least some of the config values have changed since last saving to disk.
+     * In the categories that have not been notified about any changes via the dirty listeners,
+     * only the configs that don't have dirty notifications (for example the hotkeys) get checked.
+     * If nothing is dirty, then the dirty marks are cleared, so that the next check can skip
+     * the notifying configs again.
      */
     default boolean areConfigsDirty()
     {
+        final boolean modMarked = this.isMarkedDirty();
+
         for (ConfigOptionCategory category : this.getConfigOptionCategories())
         {
-            for (ConfigOption<?> config : category.getConfigOptions())
+            final boolean categoryMarked = modMarked && category.isMarkedDirty();
+            List<? extends ConfigOption<?>> configs = categoryMarked ? category.getConfigOptions() :
+                                                      category.getConfigsWithoutDirtyNotifications();
+
+            for (ConfigOption<?> config : configs)
             {
                 if (config.isDirty())
                 {
@@ -83,6 +136,9 @@ public interface ModConfig
             }
         }
 
+        // For example the changes were reverted back to the saved values
+        this.clearDirtyMarks();
+
         return false;
     }
 
@@ -92,7 +148,7 @@ public interface ModConfig
      */
     default boolean onConfigsPotentiallyChanged()
     {
-        return this.saveIfDirty();
+        return this.saveIfDirtyAsync();
     }
 
     /**
@@ -105,11 +161,50 @@ public interface ModConfig
         if (configFile.exists() && configFile.isFile() && configFile.canRead())
         {
             this.loadFromFile(configFile);
+            // The loaded values are now the saved values
+            this.clearDirtyMarks();
         }
 
         this.onPostLoad();
     }
 
+    /**
+     * Reads the configs from the provided config file, but does not apply the values yet.
+     * This is called from a background thread during the parallel config loading,
+     * so it must not modify the config options. The returned task is then run on the main thread,
+     * and it should apply the values that were read.
+     * The default implementation does all the work in the returned task.
+     * @param configFile the file to load the configs from
+     * @return the task that applies the read values to the configs
+     */
+    default Runnable prepareLoadFromFile(File configFile)
+    {
+        return () -> this.loadFromFile(configFile);
+    }
+
+    /**
+     * The equivalent of {@link #loadFromFile()}, but split into the read phase
+     * that is done when this method is called (possibly on a background thread),
+     * and the apply phase that is done by the returned task, on the main thread.
+     */
+    default Runnable prepareLoadFromFile()
+    {
+        File configFile = new File(this.getConfigDirectory(), this.getConfigFileName());
+
+        if (configFile.exists() && configFile.isFile() && configFile.canRead())
+        {
+            Runnable task = this.prepareLoadFromFile(configFile);
+
+            return () -> {
+                task.run();
+                this.clearDirtyMarks();
+                this.onPostLoad();
+            };
+        }
+
+        return this::onPostLoad;
+    }
+
     /**
      * Called after the {@link #loadFromFile(File)} method has loaded the configs, to allow
      * mods to do some custom setup with the new config options.
@@ -132,7 +227,36 @@ public interface ModConfig
 
         if (dir.exists() && dir.isDirectory())
         {
-            return this.saveToFile(dir, new File(dir, this.getConfigFileName()));
+            if (this.saveToFile(dir, new File(dir, this.getConfigFileName())))
+            {
+                this.clearDirtyMarks();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Unconditionally saves all the configs to a file, possibly asynchronously
+     * via {@link #saveToFileAsync(File, File)}
+     */
+    default boolean saveToFileAsync()
+    {
+        File dir = this.getConfigDirectory();
+
+        if (dir.exists() == false && dir.mkdirs() == false)
+        {
+            MaLiLib.LOGGER.error("Failed to create config directory '{}'", dir.getName());
+        }
+
+        if (dir.exists() && dir.isDirectory())
+        {
+            if (this.saveToFileAsync(dir, new File(dir, this.getConfigFileName())))
+            {
+                this.clearDirtyMarks();
+                return true;
+            }
         }
 
         return false;
@@ -150,4 +274,18 @@ public interface ModConfig
 
         return false;
     }
+
+    /**
+     * Save the configs only if at least some of them have been modified since last saving.
+     * The file writing may happen later on a background thread.
+     */
+    default boolean saveIfDirtyAsync()
+    {
+        if (this.areConfigsDirty())
+        {
+            return this.saveToFileAsync();
+        }
+
+        return false;
+    }
 }
@@ -1,5 +1,6 @@
 package fi.dy.masa.malilib.config.category;
 
+import java.util.ArrayList;
 import java.util.List;
 import fi.dy.masa.malilib.config.option.ConfigOption;
 
@@ -8,6 +9,9 @@ public class BaseConfigOptionCategory implements ConfigOptionCategory
     protected final String name;
     protected final boolean saveToFile;
     protected final List<? extends ConfigOption<?>> configs;
+    protected boolean dirty = true;
+    protected int notifyingCheckedSize = -1;
+    protected List<ConfigOption<?>> configsWithoutDirtyNotifications = new ArrayList<>();
 
     public BaseConfigOptionCategory(String name, boolean saveToFile, List<? extends ConfigOption<?>> configs)
     {
@@ -34,6 +38,47 @@ public class BaseConfigOptionCategory implements ConfigOptionCategory
         return this.configs;
     }
 
+    @Override
+    public void markDirty()
+    {
+        this.dirty = true;
+    }
+
+    @Override
+    public boolean isMarkedDirty()
+    {
+        return this.dirty;
+    }
+
+    @Override
+    public void clearDirtyMark()
+    {
+        this.dirty = false;
+    }
+
+    @Override
+    public List<? extends ConfigOption<?>> getConfigsWithoutDirtyNotifications()
+    {
+        // The list is normally not modified after creation, but re-check if the size changes
+        if (this.notifyingCheckedSize != this.configs.size())
+        {
+            List<ConfigOption<?>> list = new ArrayList<>();
+
+            for (ConfigOption<?> config : this.configs)
+            {
+                if (config.hasDirtyNotifications() == false)
+                {
+                    list.add(config);
+                }
+            }
+
+            this.configsWithoutDirtyNotifications = list;
+            this.notifyingCheckedSize = this.configs.size();
+        }
+
+        return this.configsWithoutDirtyNotifications;
+    }
+
     /**
      * Creates a normal config category that is shown on the config screen
      * and saved to a config file normally.
@@ -20,4 +20,40 @@ public interface ConfigOptionCategory extends NameIdentifiable
      * @return
      */
     List<? extends ConfigOption<?>> getConfigOptions();
+
+    /**
+     * Marks this category as having (potentially) changed configs since the last save.
+     * This is called by the dirty listeners of the config options in this category.
+     */
+    default void markDirty()
+    {
+    }
+
+    /**
+     * Returns true if some config in this category has notified about a change
+     * since the last call to {@link #clearDirtyMark()}.
+     * The default implementation doesn't track the changes and always returns true.
+     */
+    default boolean isMarkedDirty()
+    {
+        return true;
+    }
+
+    /**
+     * Clears the dirty mark, after the configs have been saved
+     */
+    default void clearDirtyMark()
+    {
+    }
+
+    /**
+     * Returns the config options in this category that don't notify about their changes
+     * via their dirty listeners, see {@link ConfigOption#hasDirtyNotifications()}.
+     * If the category is not marked dirty, then the dirty checks only need to check these configs.
+     * The default implementation returns all the config options.
+     */
+    default List<? extends ConfigOption<?>> getConfigsWithoutDirtyNotifications()
+    {
+        return this.getConfigOptions();
+    }
 }
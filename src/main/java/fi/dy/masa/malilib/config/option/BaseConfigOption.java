@@ -5,6 +5,7 @@ import java.util.List;
 import javax.annotation.Nullable;
 import fi.dy.masa.malilib.config.ValueChangeCallback;
 import fi.dy.masa.malilib.config.ValueLoadCallback;
+import fi.dy.masa.malilib.config.util.ValueChangeBatcher;
 import fi.dy.masa.malilib.listener.EventListener;
 import fi.dy.masa.malilib.util.StringUtils;
 import fi.dy.masa.malilib.util.data.ModInfo;
@@ -15,8 +16,10 @@ public abstract class BaseConfigOption<T> extends BaseConfig implements ConfigOp
     protected final List<EventListener> valueChangeListeners = new ArrayList<>(0);
     protected String prettyNameTranslationKey;
     protected boolean locked;
+    protected boolean batchedValueChangeNotifications;
     @Nullable protected ValueChangeCallback<T> valueChangeCallback;
     @Nullable protected ValueLoadCallback<T> valueLoadCallback;
+    @Nullable protected Runnable dirtyListener;
     @Nullable protected String lockMessage;
     @Nullable protected String overrideMessage;
 
@@ -134,7 +137,71 @@ public abstract class BaseConfigOption<T> extends BaseConfig implements ConfigOp
         this.valueChangeListeners.add(listener);
     }
 
+    @Override
+    public void setDirtyListener(@Nullable Runnable listener)
+    {
+        this.dirtyListener = listener;
+    }
+
+    /**
+     * Notifies the dirty listener, if any, that the value of this config may have changed
+     */
+    protected void markDirty()
+    {
+        if (this.dirtyListener != null)
+        {
+            this.dirtyListener.run();
+        }
+    }
+
+    /**
+     * If enabled, then the value change callback and the value change listeners are not called
+     * right away on each value change, but instead the changes are collected by the {@link ValueChangeBatcher}
+     * and delivered once per client tick, with the old value from before the first change
+     * and the latest new value. This is useful for configs whose callbacks do expensive things,
+     * and which may get changed many times in a row, for example via the scroll wheel.
+     */
+    public void setBatchedValueChangeNotifications(boolean batched)
+    {
+        if (batched == false && this.batchedValueChangeNotifications)
+        {
+            ValueChangeBatcher.INSTANCE.flush(this);
+        }
+
+        this.batchedValueChangeNotifications = batched;
+    }
+
+    /**
+     * Immediately delivers a possible pending batched value change notification of this config
+     */
+    public void flushPendingValueChange()
+    {
+        if (this.batchedValueChangeNotifications)
+        {
+            ValueChangeBatcher.INSTANCE.flush(this);
+        }
+    }
+
     public void onValueChanged(T newValue, T oldValue)
+    {
+        this.markDirty();
+
+        if (this.batchedValueChangeNotifications)
+        {
+            ValueChangeBatcher.INSTANCE.addChange(this, newValue, oldValue);
+        }
+        else
+        {
+            this.dispatchValueChange(newValue, oldValue);
+        }
+    }
+
+    /**
+     * Calls the value change callback and the value change listeners.
+     * This is called directly from {@link #onValueChanged(Object, Object)}, or when
+     * the batched value changes get delivered by the {@link ValueChangeBatcher}.
+     */
+    public void dispatchValueChange(T newValue, T oldValue)
     {
         if (this.valueChangeCallback != null)
         {
@@ -150,6 +217,9 @@ public abstract class BaseConfigOption<T> extends BaseConfig implements ConfigOp
     @Override
     public void onValueLoaded(T newValue)
     {
+        // Deliver a pending change first, as it would have been delivered before the load in the non-batched mode
+        this.flushPendingValueChange();
+
         if (this.valueLoadCallback != null)
         {
             this.valueLoadCallback.onValueLoaded(newValue);
@@ -1,7 +1,29 @@
 package fi.dy.masa.malilib.config.option;
 
+import com.google.common.collect.ImmutableSet;
+import fi.dy.masa.malilib.config.option.list.BlackWhiteListConfig;
+import fi.dy.masa.malilib.config.option.list.BlockListConfig;
+import fi.dy.masa.malilib.config.option.list.EquipmentSlotListConfig;
+import fi.dy.masa.malilib.config.option.list.IdentifierListConfig;
+import fi.dy.masa.malilib.config.option.list.ItemListConfig;
+import fi.dy.masa.malilib.config.option.list.StatusEffectListConfig;
+import fi.dy.masa.malilib.config.option.list.StringListConfig;
+import fi.dy.masa.malilib.config.option.list.ValueListConfig;
+
 public abstract class BaseGenericConfig<T> extends BaseConfigOption<T>
 {
+    /**
+     * The built-in config types that only change their value via {@link #setValue(Object)}
+     * or {@link #onValueChanged(Object, Object)}, and thus reliably notify about all changes.
+     * Only the exact classes are included, as sub-classes might write to {@link #value} directly.
+     */
+    protected static final ImmutableSet<Class<?>> DIRTY_NOTIFYING_CLASSES = ImmutableSet.of(
+            BooleanConfig.class, ColorConfig.class, DirectoryConfig.class, DoubleConfig.class,
+            FileConfig.class, IntegerConfig.class, OptionListConfig.class, StringConfig.class,
+            BlackWhiteListConfig.class, BlockListConfig.class, EquipmentSlotListConfig.class,
+            IdentifierListConfig.class, ItemListConfig.class, StatusEffectListConfig.class,
+            StringListConfig.class, ValueListConfig.class);
+
     protected final T defaultValue;
     protected T value;
     protected T lastSavedValue;
@@ -54,6 +76,8 @@ public abstract class BaseGenericConfig<T> extends BaseConfigOption<T>
         if (this.isLocked() == false && oldValue.equals(newValue) == false)
         {
             this.value = newValue;
+            // The stored value may change even if the effective value does not, due to an override
+            this.markDirty();
 
             // Re-fetch the current value, to take into account a possible value override
             newValue = this.getValue();
@@ -69,6 +93,17 @@ public abstract class BaseGenericConfig<T> extends BaseConfigOption<T>
         return false;
     }
 
+    /**
+     * The dirty notifications are opt-in. Sub-classes that only change the value via
+     * {@link #setValue(Object)} or {@link #onValueChanged(Object, Object)}, or that call
+     * {@link #markDirty()} themselves, can override this to return true.
+     */
+    @Override
+    public boolean hasDirtyNotifications()
+    {
+        return DIRTY_NOTIFYING_CLASSES.contains(this.getClass());
+    }
+
     @Override
     public boolean isModified()
     {
@@ -41,6 +41,28 @@ public interface ConfigOption<T> extends ConfigInfo
      */
     void cacheSavedValue();
 
+    /**
+     * Sets a listener that gets called when the value of this config changes.
+     * This is used to propagate the dirty state up to the config category and the mod config,
+     * so that the dirty checks can skip the categories and mods that have not had any changes.
+     * This is automatically called in {@link fi.dy.masa.malilib.config.ConfigManager#registerConfigHandler(fi.dy.masa.malilib.config.ModConfig)}
+     * @param listener the listener to call on value changes, or null to remove the listener
+     */
+    default void setDirtyListener(@Nullable Runnable listener)
+    {
+    }
+
+    /**
+     * Returns true if this config calls the dirty listener on every change that can make it dirty.
+     * Configs that return false will always get their {@link #isDirty()} method called
+     * in the dirty checks, even if no changes have been notified.
+     * @return true if this config reliably notifies about all changes via the dirty listener
+     */
+    default boolean hasDirtyNotifications()
+    {
+        return false;
+    }
+
     /**
      * Returns the value of this config.
      * Note that for primitive config types you should generally prefer the
@@ -0,0 +1,163 @@
+package fi.dy.masa.malilib.config.serialization;
+
+import java.util.List;
+import com.google.gson.JsonObject;
+import fi.dy.masa.malilib.MaLiLib;
+import fi.dy.masa.malilib.config.category.ConfigOptionCategory;
+import fi.dy.masa.malilib.config.option.ConfigOption;
+import fi.dy.masa.malilib.registry.Registry;
+import fi.dy.masa.malilib.util.JsonUtils;
+
+/**
+ * A pre-resolved serialization plan for a list of config categories.
+ * The categories that are saved to file, their option arrays and the resolved
+ * serializers for each option are collected once, so that the repeated saves
+ * don't need to do any serializer lookups or list iteration setup per option.
+ * Use {@link #isValidFor(List)} to check if the plan needs to be re-created,
+ * because the categories or the registered serializers have changed.
+ */
+public class ConfigSerializationPlan
+{
+    protected final List<ConfigOptionCategory> categories;
+    protected final CategoryPlan[] categoryPlans;
+    protected final int[] optionCounts;
+    protected final int registryGeneration;
+
+    protected ConfigSerializationPlan(List<ConfigOptionCategory> categories)
+    {
+        final int size = categories.size();
+        int savedCount = 0;
+
+        this.categories = categories;
+        this.optionCounts = new int[size];
+        this.registryGeneration = Registry.JSON_CONFIG_SERIALIZER.getGeneration();
+
+        for (int i = 0; i < size; ++i)
+        {
+            ConfigOptionCategory category = categories.get(i);
+            this.optionCounts[i] = category.getConfigOptions().size();
+
+            if (category.shouldSaveToFile())
+            {
+                ++savedCount;
+            }
+        }
+
+        this.categoryPlans = new CategoryPlan[savedCount];
+        int index = 0;
+
+        for (ConfigOptionCategory category : categories)
+        {
+            if (category.shouldSaveToFile())
+            {
+                this.categoryPlans[index++] = new CategoryPlan(category);
+            }
+        }
+    }
+
+    /**
+     * @return true if this plan is still valid for the given categories, meaning that
+     *         the same categories still have the same number of options,
+     *         and no new serializers have been registered since this plan was created
+     */
+    public boolean isValidFor(List<ConfigOptionCategory> categories)
+    {
+        final int size = categories.size();
+
+        if (categories != this.categories ||
+            size != this.optionCounts.length ||
+            this.registryGeneration != Registry.JSON_CONFIG_SERIALIZER.getGeneration())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < size; ++i)
+        {
+            if (categories.get(i).getConfigOptions().size() != this.optionCounts[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Serializes all the configs that are saved to file into the given root object
+     * @param markSaved if true, then the current values are cached as the last saved values
+     * @return true if all the configs were successfully serialized
+     */
+    public boolean writeConfigs(JsonObject root, boolean markSaved)
+    {
+        boolean success = true;
+
+        for (CategoryPlan plan : this.categoryPlans)
+        {
+            success &= plan.writeConfigs(root, markSaved);
+        }
+
+        return success;
+    }
+
+    public static ConfigSerializationPlan create(List<ConfigOptionCategory> categories)
+    {
+        return new ConfigSerializationPlan(categories);
+    }
+
+    protected static class CategoryPlan
+    {
+        protected final String categoryName;
+        protected final ConfigOption<?>[] options;
+        protected final String[] names;
+        protected final JsonConfigSerializerRegistry.JsonConfigSerializer<?>[] serializers;
+
+        protected CategoryPlan(ConfigOptionCategory category)
+        {
+            List<? extends ConfigOption<?>> options = category.getConfigOptions();
+            final int size = options.size();
+
+            this.categoryName = category.getName();
+            this.options = options.toArray(new ConfigOption<?>[0]);
+            this.names = new String[size];
+            this.serializers = new JsonConfigSerializerRegistry.JsonConfigSerializer<?>[size];
+
+            for (int i = 0; i < size; ++i)
+            {
+                ConfigOption<?> config = this.options[i];
+                this.names[i] = config.getName();
+                this.serializers[i] = Registry.JSON_CONFIG_SERIALIZER.getSerializer(config);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected boolean writeConfigs(JsonObject root, boolean markSaved)
+        {
+            JsonObject obj = JsonUtils.getNestedObject(root, this.categoryName, true);
+            final int size = this.options.length;
+            boolean success = true;
+
+            for (int i = 0; i < size; ++i)
+            {
+                ConfigOption<?> config = this.options[i];
+                JsonConfigSerializerRegistry.JsonConfigSerializer serializer = this.serializers[i];
+
+                if (serializer != null)
+                {
+                    obj.add(this.names[i], serializer.serializeConfigValue(config));
+                }
+                else
+                {
+                    MaLiLib.LOGGER.warn("Failed to get a config serializer for '{}'.'{}'", this.categoryName, this.names[i]);
+                    success = false;
+                }
+
+                if (markSaved)
+                {
+                    config.cacheSavedValue();
+                }
+            }
+
+            return success;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package fi.dy.masa.malilib.config.serialization;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.Optional;
 import javax.annotation.Nullable;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
 import fi.dy.masa.malilib.config.option.ConfigInfo;
 import fi.dy.masa.malilib.config.option.BooleanConfig;
 import fi.dy.masa.malilib.config.option.ColorConfig;
@@ -22,6 +25,13 @@ public class JsonConfigSerializerRegistry
 {
     private final HashMap<Class<? extends ConfigInfo>, JsonConfigSerializer<?>> serializers = new HashMap<>();
     private final HashMap<Class<? extends ConfigInfo>, JsonConfigDeSerializer<?>> deSerializers = new HashMap<>();
+    private final HashMap<Class<? extends ConfigInfo>, JsonConfigStreamDeSerializer<?, ?>> streamDeSerializers = new HashMap<>();
+    // The resolved (including the super class walk) serializers per config class.
+    // These get re-created whenever new serializers are registered.
+    private volatile ClassValue<Optional<JsonConfigSerializer<?>>> resolvedSerializers = this.createResolvedCache(this.serializers);
+    private volatile ClassValue<Optional<JsonConfigDeSerializer<?>>> resolvedDeSerializers = this.createResolvedCache(this.deSerializers);
+    private volatile ClassValue<Optional<JsonConfigStreamDeSerializer<?, ?>>> resolvedStreamDeSerializers = this.createResolvedStreamCache();
+    private volatile int generation;
 
     public JsonConfigSerializerRegistry()
     {
@@ -36,58 +46,122 @@ public class JsonConfigSerializerRegistry
     {
         this.serializers.put(type, serializer);
         this.deSerializers.put(type, deSerializer);
+        // A streaming de-serializer for the old de-serializer would not match the new one
+        this.streamDeSerializers.remove(type);
+
+        this.resolvedSerializers = this.createResolvedCache(this.serializers);
+        this.resolvedDeSerializers = this.createResolvedCache(this.deSerializers);
+        this.resolvedStreamDeSerializers = this.createResolvedStreamCache();
+        ++this.generation;
     }
 
-    @SuppressWarnings("unchecked")
-    @Nullable
-    public <C extends ConfigInfo> JsonConfigSerializer<C> getSerializer(ConfigInfo config)
+    /**
+     * Registers an optional streaming de-serializer, which reads the config value directly
+     * from a JsonReader without building a JsonElement tree. This is meant for config types
+     * that may have large values, such as lists. The normal de-serializer must have already been
+     * registered for the same type, and registering new serializers for the type removes
+     * the streaming de-serializer. The streaming de-serializer is not used for sub-classes
+     * that have their own normal de-serializer registered.
+     */
+    public <C extends ConfigInfo, V>
+    void registerStreamDeSerializer(Class<C> type, JsonConfigValueReader<C, V> reader, JsonConfigValueApplier<C, V> applier)
     {
-        JsonConfigSerializer<C> serializer = (JsonConfigSerializer<C>) this.serializers.get(config.getClass());
-
-        if (serializer == null)
+        if (this.deSerializers.containsKey(type) == false)
         {
-            Class<?> clazz = config.getClass().getSuperclass();
-
-            while (clazz != null && ConfigInfo.class.isAssignableFrom(clazz))
-            {
-                serializer = (JsonConfigSerializer<C>) this.serializers.get(clazz);
+            throw new IllegalArgumentException("No de-serializer registered for " + type.getName());
+        }
 
-                if (serializer != null)
-                {
-                    return serializer;
-                }
+        this.streamDeSerializers.put(type, new JsonConfigStreamDeSerializer<>(reader, applier));
+        this.resolvedStreamDeSerializers = this.createResolvedStreamCache();
+        ++this.generation;
+    }
 
-                clazz = clazz.getSuperclass();
-            }
-        }
+    /**
+     * @return a counter that gets incremented whenever new serializers are registered.
+     *         This can be used to invalidate any cached serializers.
+     */
+    public int getGeneration()
+    {
+        return this.generation;
+    }
 
-        return serializer;
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public <C extends ConfigInfo> JsonConfigSerializer<C> getSerializer(ConfigInfo config)
+    {
+        return (JsonConfigSerializer<C>) this.resolvedSerializers.get(config.getClass()).orElse(null);
     }
 
     @SuppressWarnings("unchecked")
     @Nullable
     public <C extends ConfigInfo> JsonConfigDeSerializer<C> getDeSerializer(ConfigInfo config)
     {
-        JsonConfigDeSerializer<C> deSerializer = (JsonConfigDeSerializer<C>) this.deSerializers.get(config.getClass());
+        return (JsonConfigDeSerializer<C>) this.resolvedDeSerializers.get(config.getClass()).orElse(null);
+    }
 
-        if (deSerializer == null)
+    /**
+     * @return the streaming de-serializer for the given config, or null if there isn't one,
+     *         in which case the value needs to be read as a JsonElement for {@link #getDeSerializer(ConfigInfo)}
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public <C extends ConfigInfo> JsonConfigStreamDeSerializer<C, Object> getStreamDeSerializer(ConfigInfo config)
+    {
+        return (JsonConfigStreamDeSerializer<C, Object>) this.resolvedStreamDeSerializers.get(config.getClass()).orElse(null);
+    }
+
+    private ClassValue<Optional<JsonConfigStreamDeSerializer<?, ?>>> createResolvedStreamCache()
+    {
+        return new ClassValue<Optional<JsonConfigStreamDeSerializer<?, ?>>>()
         {
-            Class<?> clazz = config.getClass().getSuperclass();
+            @Override
+            protected Optional<JsonConfigStreamDeSerializer<?, ?>> computeValue(Class<?> type)
+            {
+                // Only use the streaming de-serializer of the class that the normal de-serializer comes from
+                Class<?> owner = resolveOwner(JsonConfigSerializerRegistry.this.deSerializers, type);
+                return Optional.ofNullable(owner != null ? JsonConfigSerializerRegistry.this.streamDeSerializers.get(owner) : null);
+            }
+        };
+    }
 
-            while (clazz != null && ConfigInfo.class.isAssignableFrom(clazz))
+    private <T> ClassValue<Optional<T>> createResolvedCache(final HashMap<Class<? extends ConfigInfo>, T> map)
+    {
+        return new ClassValue<Optional<T>>()
+        {
+            @Override
+            protected Optional<T> computeValue(Class<?> type)
             {
-                deSerializer = (JsonConfigDeSerializer<C>) this.deSerializers.get(clazz);
+                return Optional.ofNullable(resolve(map, type));
+            }
+        };
+    }
 
-                if (deSerializer != null)
-                {
-                    return deSerializer;
-                }
+    @Nullable
+    private static <T> T resolve(HashMap<Class<? extends ConfigInfo>, T> map, Class<?> type)
+    {
+        Class<?> owner = resolveOwner(map, type);
+        return owner != null ? map.get(owner) : null;
+    }
 
-                clazz = clazz.getSuperclass();
+    /**
+     * @return the closest class in the hierarchy of the given type that has a value in the map
+     */
+    @Nullable
+    private static Class<?> resolveOwner(HashMap<Class<? extends ConfigInfo>, ?> map, Class<?> type)
+    {
+        Class<?> clazz = type;
+
+        while (clazz != null && ConfigInfo.class.isAssignableFrom(clazz))
+        {
+            if (map.containsKey(clazz))
+            {
+                return clazz;
             }
+
+            clazz = clazz.getSuperclass();
         }
 
-        return deSerializer;
+        return null;
     }
 
     protected void registerDefaultSerializers()
@@ -105,6 +179,9 @@ public class JsonConfigSerializerRegistry
         this.registerSerializers(HotkeyedBooleanConfig.class,   JsonConfigSerializers::saveHotkeydBooleanConfig,    JsonConfigSerializers::loadHotkeydBooleanConfig);
         this.registerSerializers(OptionListConfig.class,        JsonConfigSerializers::saveOptionListConfig,        JsonConfigSerializers::loadOptionListConfig);
         this.registerSerializers(ValueListConfig.class,         JsonConfigSerializers::saveValueListConfig,         JsonConfigSerializers::loadValueListConfig);
+
+        this.registerStreamDeSerializer(BlackWhiteListConfig.class, JsonConfigSerializers::readBlackWhiteListConfig,    JsonConfigSerializers::applyBlackWhiteListConfig);
+        this.registerStreamDeSerializer(ValueListConfig.class,      JsonConfigSerializers::readValueListConfig,         JsonConfigSerializers::applyValueListConfig);
     }
 
     public interface JsonConfigSerializer<C extends ConfigInfo>
@@ -116,4 +193,54 @@ public class JsonConfigSerializerRegistry
     {
         void deSerializeConfigValue(C config, JsonElement data, String configName);
     }
+
+    public interface JsonConfigValueReader<C extends ConfigInfo, V>
+    {
+        /**
+         * Reads the config value directly from the reader. This may be called on a background thread,
+         * so this must not modify the config.
+         * @return the read value, or null if the value is not of the expected type. In that case
+         *         the value must not have been consumed from the reader, and it will be read
+         *         as a JsonElement and passed to the normal de-serializer instead.
+         */
+        @Nullable
+        V readConfigValue(C config, JsonReader reader) throws IOException;
+    }
+
+    public interface JsonConfigValueApplier<C extends ConfigInfo, V>
+    {
+        /**
+         * Applies a value read by a {@link JsonConfigValueReader} to the config.
+         * This is called on the main thread.
+         */
+        void applyConfigValue(C config, V value, String configName);
+    }
+
+    /**
+     * A de-serializer that reads the config value directly from a JsonReader,
+     * and applies the read value to the config later on the main thread.
+     * @param <V> the type of the intermediate value that was read from the file
+     */
+    public static class JsonConfigStreamDeSerializer<C extends ConfigInfo, V>
+    {
+        protected final JsonConfigValueReader<C, V> reader;
+        protected final JsonConfigValueApplier<C, V> applier;
+
+        public JsonConfigStreamDeSerializer(JsonConfigValueReader<C, V> reader, JsonConfigValueApplier<C, V> applier)
+        {
+            this.reader = reader;
+            this.applier = applier;
+        }
+
+        @Nullable
+        public V readConfigValue(C config, JsonReader reader) throws IOException
+        {
+            return this.reader.readConfigValue(config, reader);
+        }
+
+        public void applyConfigValue(C config, V value, String configName)
+        {
+            this.applier.applyConfigValue(config, value, configName);
+        }
+    }
 }
@@ -1,13 +1,18 @@
 package fi.dy.masa.malilib.config.serialization;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import fi.dy.masa.malilib.MaLiLib;
 import fi.dy.masa.malilib.config.option.HotkeyedBooleanConfig;
 import fi.dy.masa.malilib.config.option.OptionListConfig;
@@ -117,15 +122,7 @@ public class JsonConfigSerializers
         {
             if (element.isJsonArray())
             {
-                ImmutableList.Builder<T> builder = ImmutableList.builder();
-                List<String> strings = JsonUtils.arrayAsStringList(element.getAsJsonArray());
-
-                for (T value : ValueListConfig.getStringListAsValues(strings, config.getFromStringConverter()))
-                {
-                    builder.add(value);
-                }
-
-                config.loadValueFromConfig(builder.build());
+                loadValueListStrings(config, JsonUtils.arrayAsStringList(element.getAsJsonArray()));
             }
             else
             {
@@ -142,6 +139,51 @@ public class JsonConfigSerializers
         }
     }
 
+    /**
+     * Reads the value of a ValueListConfig directly from the reader, without building a JsonArray
+     * @return the read strings, or null if the value is not an array
+     */
+    @Nullable
+    public static <T> StringArrayValue readValueListConfig(ValueListConfig<T> config, JsonReader reader) throws IOException
+    {
+        return reader.peek() == JsonToken.BEGIN_ARRAY ? readStringArray(reader) : null;
+    }
+
+    public static <T> void applyValueListConfig(ValueListConfig<T> config, StringArrayValue value, String configName)
+    {
+        if (value.strings != null)
+        {
+            try
+            {
+                loadValueListStrings(config, value.strings);
+                return;
+            }
+            catch (Exception e)
+            {
+                MaLiLib.LOGGER.warn("Failed to set config value for '{}' from the JSON array", configName, e);
+            }
+        }
+        else
+        {
+            MaLiLib.LOGGER.warn("Failed to set config value for '{}' - the JSON array contains non-primitive values", configName);
+        }
+
+        // Make sure to clear the old value in any case
+        config.loadValueFromConfig(ImmutableList.of());
+    }
+
+    protected static <T> void loadValueListStrings(ValueListConfig<T> config, List<String> strings)
+    {
+        ImmutableList.Builder<T> builder = ImmutableList.builder();
+
+        for (T value : ValueListConfig.getStringListAsValues(strings, config.getFromStringConverter()))
+        {
+            builder.add(value);
+        }
+
+        config.loadValueFromConfig(builder.build());
+    }
+
     public static <T> JsonElement saveBlackWhiteListConfig(BlackWhiteListConfig<T> config)
     {
         JsonObject obj = new JsonObject();
@@ -166,18 +208,10 @@ public class JsonConfigSerializers
                     JsonUtils.hasArray(obj, "blacklist") &&
                     JsonUtils.hasArray(obj, "whitelist"))
                 {
-                    UsageRestriction.ListType type = BaseOptionListConfigValue.findValueByName(JsonUtils.getString(obj, "type"), UsageRestriction.ListType.VALUES);
                     List<String> blackListStr = JsonUtils.arrayAsStringList(obj.getAsJsonArray("blacklist"));
                     List<String> whiteListStr = JsonUtils.arrayAsStringList(obj.getAsJsonArray("whitelist"));
 
-                    BlackWhiteList<T> list = config.getValue();
-                    ValueListConfig<T> blackList = list.getBlackList().copy();
-                    ValueListConfig<T> whiteList = list.getWhiteList().copy();
-
-                    blackList.setValues(ValueListConfig.getStringListAsValues(blackListStr, list.getFromStringConverter()));
-                    whiteList.setValues(ValueListConfig.getStringListAsValues(whiteListStr, list.getFromStringConverter()));
-
-                    config.loadValueFromConfig(new BlackWhiteList<>(type, blackList, whiteList, list.getToStringConverter(), list.getFromStringConverter()));
+                    loadBlackWhiteListStrings(config, JsonUtils.getString(obj, "type"), blackListStr, whiteListStr);
                 }
             }
             else
@@ -190,4 +224,150 @@ public class JsonConfigSerializers
             MaLiLib.LOGGER.warn("Failed to set config value for '{}' from the JSON element '{}'", configName, element, e);
         }
     }
+
+    /**
+     * Reads the value of a BlackWhiteListConfig directly from the reader, without building a JsonObject
+     * @return the read values, or null if the value is not an object
+     */
+    @Nullable
+    public static <T> BlackWhiteListValue readBlackWhiteListConfig(BlackWhiteListConfig<T> config, JsonReader reader) throws IOException
+    {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT)
+        {
+            return null;
+        }
+
+        BlackWhiteListValue value = new BlackWhiteListValue();
+
+        reader.beginObject();
+
+        while (reader.hasNext())
+        {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+
+            boolean isArray = token == JsonToken.BEGIN_ARRAY;
+
+            // An entry of the wrong type clears any earlier entry with the same name,
+            // the same way as a later duplicate key replaces the earlier value in a JsonObject
+            if (name.equals("type"))
+            {
+                value.type = isPrimitive(token) ? readPrimitiveAsString(reader) : null;
+            }
+            else if (name.equals("blacklist"))
+            {
+                value.blackList = isArray ? readStringArray(reader) : null;
+            }
+            else if (name.equals("whitelist"))
+            {
+                value.whiteList = isArray ? readStringArray(reader) : null;
+            }
+
+            // Skip the unknown entries, and the entries of the wrong type that were not read above
+            if (reader.peek() == token)
+            {
+                reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+
+        return value;
+    }
+
+    public static <T> void applyBlackWhiteListConfig(BlackWhiteListConfig<T> config, BlackWhiteListValue value, String configName)
+    {
+        // Same as with the JsonObject, the value is only loaded if all the entries exist
+        if (value.type == null || value.blackList == null || value.whiteList == null)
+        {
+            return;
+        }
+
+        if (value.blackList.strings == null || value.whiteList.strings == null)
+        {
+            MaLiLib.LOGGER.warn("Failed to set config value for '{}' - the JSON arrays contain non-primitive values", configName);
+            return;
+        }
+
+        try
+        {
+            loadBlackWhiteListStrings(config, value.type, value.blackList.strings, value.whiteList.strings);
+        }
+        catch (Exception e)
+        {
+            MaLiLib.LOGGER.warn("Failed to set config value for '{}'", configName, e);
+        }
+    }
+
+    protected static <T> void loadBlackWhiteListStrings(BlackWhiteListConfig<T> config, String typeName,
+                                                        List<String> blackListStr, List<String> whiteListStr)
+    {
+        UsageRestriction.ListType type = BaseOptionListConfigValue.findValueByName(typeName, UsageRestriction.ListType.VALUES);
+        BlackWhiteList<T> list = config.getValue();
+        ValueListConfig<T> blackList = list.getBlackList().copy();
+        ValueListConfig<T> whiteList = list.getWhiteList().copy();
+
+        blackList.setValues(ValueListConfig.getStringListAsValues(blackListStr, list.getFromStringConverter()));
+        whiteList.setValues(ValueListConfig.getStringListAsValues(whiteListStr, list.getFromStringConverter()));
+
+        config.loadValueFromConfig(new BlackWhiteList<>(type, blackList, whiteList, list.getToStringConverter(), list.getFromStringConverter()));
+    }
+
+    /**
+     * Reads a JSON array of primitive values as strings, the same way as {@link JsonUtils#arrayAsStringList(JsonArray)}.
+     * The reader must be at the start of an array. The whole array is always consumed.
+     */
+    public static StringArrayValue readStringArray(JsonReader reader) throws IOException
+    {
+        List<String> strings = new ArrayList<>();
+        boolean valid = true;
+
+        reader.beginArray();
+
+        while (reader.hasNext())
+        {
+            if (isPrimitive(reader.peek()))
+            {
+                strings.add(readPrimitiveAsString(reader));
+            }
+            else
+            {
+                reader.skipValue();
+                valid = false;
+            }
+        }
+
+        reader.endArray();
+
+        return new StringArrayValue(valid ? strings : null);
+    }
+
+    protected static boolean isPrimitive(JsonToken token)
+    {
+        return token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN;
+    }
+
+    protected static String readPrimitiveAsString(JsonReader reader) throws IOException
+    {
+        // Numbers are returned as their original text, the same as JsonPrimitive#getAsString() does
+        return reader.peek() == JsonToken.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+    }
+
+    public static class StringArrayValue
+    {
+        /** The strings of the array, or null if the array contained non-primitive values */
+        @Nullable public final List<String> strings;
+
+        public StringArrayValue(@Nullable List<String> strings)
+        {
+            this.strings = strings;
+        }
+    }
+
+    public static class BlackWhiteListValue
+    {
+        @Nullable public String type;
+        @Nullable public StringArrayValue blackList;
+        @Nullable public StringArrayValue whiteList;
+    }
 }
@@ -0,0 +1,661 @@
+package fi.dy.masa.malilib.config.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+import javax.annotation.Nullable;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import fi.dy.masa.malilib.MaLiLib;
+import fi.dy.masa.malilib.config.category.ConfigOptionCategory;
+
+/**
+ * Keeps a compact binary copy of the JSON config files in a sub-directory next to the config files.
+ * The binary copy is written after each successful save, and it's used on load instead of
+ * parsing the pretty-printed JSON text, if the size and the last modified time
+ * of the JSON file still match the values recorded in the binary file.
+ * The JSON file is not hashed, as that would require reading the entire file on each load.
+ * The JSON file is always the source of truth, so any outside edits to it just make
+ * the loading fall back to the JSON file.
+ * <br>
+ * The binary format is a header followed by the same data tree that is saved in the JSON file,
+ * as typed records. The lengths and integers are encoded as variable length integers,
+ * so for example long block or item lists mostly take just one byte per entry plus the string bytes.
+ * The records are read through a {@link JsonReader} implementation by the same
+ * {@link StreamingJsonConfigLoader} code that reads the JSON files, so the values get
+ * decoded directly into the config options without building a tree of the entire file.
+ */
+public class BinaryConfigCache
+{
+    public static final BinaryConfigCache INSTANCE = new BinaryConfigCache();
+
+    protected static final int MAGIC = 0x4D4C4243; // "MLBC"
+    protected static final int FORMAT_VERSION = 2;
+
+    protected static final int TYPE_NULL = 0;
+    protected static final int TYPE_TRUE = 1;
+    protected static final int TYPE_FALSE = 2;
+    protected static final int TYPE_INT = 3;
+    protected static final int TYPE_LONG = 4;
+    protected static final int TYPE_FLOAT = 5;
+    protected static final int TYPE_DOUBLE = 6;
+    protected static final int TYPE_NUMBER_STRING = 7;
+    protected static final int TYPE_STRING = 8;
+    protected static final int TYPE_ARRAY = 9;
+    protected static final int TYPE_OBJECT = 10;
+
+    protected String cacheDirectoryName = "config_cache";
+    protected volatile boolean enabled = true;
+
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public File getCacheFile(File configFile)
+    {
+        File dir = new File(configFile.getAbsoluteFile().getParentFile(), this.cacheDirectoryName);
+        return new File(dir, configFile.getName() + ".bin");
+    }
+
+    /**
+     * Reads the config values from the binary cache of the given JSON config file.
+     * This can be called from a background thread, the same as {@link StreamingJsonConfigLoader#readFile(File, List, IntPredicate)}.
+     * @param configVersionHandler called with the config version read from the cache.
+     *                             If it returns false, then the reading is aborted.
+     * @return the read data, which can then be applied on the main thread, or null
+     *         if there is no valid cache for the current contents of the JSON file
+     */
+    @Nullable
+    public StreamingJsonConfigLoader.LoadedConfigData read(File configFile, List<ConfigOptionCategory> categories,
+                                                           IntPredicate configVersionHandler)
+    {
+        if (this.enabled == false)
+        {
+            return null;
+        }
+
+        File cacheFile = this.getCacheFile(configFile);
+
+        if (cacheFile.isFile() == false)
+        {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile))))
+        {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != FORMAT_VERSION)
+            {
+                return null;
+            }
+
+            long size = in.readLong();
+            long lastModified = in.readLong();
+
+            if (size != configFile.length() || lastModified != configFile.lastModified())
+            {
+                return null;
+            }
+
+            return StreamingJsonConfigLoader.readData(new BinaryJsonReader(in), categories, configVersionHandler);
+        }
+        catch (Exception e)
+        {
+            MaLiLib.LOGGER.warn("Failed to read the binary config cache file '{}'", cacheFile.getAbsolutePath(), e);
+        }
+
+        this.invalidate(configFile);
+
+        return null;
+    }
+
+    /**
+     * Queues the given data to be written as the binary cache of the given JSON config file.
+     * The write happens on the config writer thread of {@link ConfigSaveQueue}.
+     * The data must not be modified after this call.
+     * @param root the same data that was written to the JSON file
+     * @param expectedLastModified the last modified time of the JSON file when it was written or read,
+     *                             or -1 to not check it. The cache is not written if the JSON file
+     *                             has been modified since, as then the data would not match the file.
+     */
+    public void scheduleWrite(File configFile, JsonObject root, long expectedLastModified)
+    {
+        if (this.enabled)
+        {
+            ConfigSaveQueue.INSTANCE.submit(this.getCacheFile(configFile), () -> this.write(configFile, root, expectedLastModified));
+        }
+    }
+
+    protected void write(File configFile, JsonObject root, long expectedLastModified)
+    {
+        File cacheFile = this.getCacheFile(configFile);
+        File dir = cacheFile.getParentFile();
+        File fileTmp = new File(dir, cacheFile.getName() + "." + UUID.randomUUID() + ".tmp");
+
+        try
+        {
+            long lastModified = configFile.lastModified();
+
+            if (configFile.isFile() == false ||
+                (expectedLastModified != -1L && lastModified != expectedLastModified))
+            {
+                return;
+            }
+
+            if (dir.isDirectory() == false && dir.mkdirs() == false)
+            {
+                MaLiLib.LOGGER.warn("Failed to create the config cache directory '{}'", dir.getAbsolutePath());
+                return;
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(configFile.length());
+            out.writeLong(lastModified);
+            writeElement(out, root);
+            out.flush();
+
+            Files.write(fileTmp.toPath(), bytes.toByteArray());
+
+            try
+            {
+                Files.move(fileTmp.toPath(), cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(fileTmp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (Exception e)
+        {
+            MaLiLib.LOGGER.warn("Failed to write the binary config cache file '{}'", cacheFile.getAbsolutePath(), e);
+
+            if (fileTmp.exists() && fileTmp.delete() == false)
+            {
+                MaLiLib.LOGGER.warn("Failed to delete the temporary file '{}'", fileTmp.getAbsolutePath());
+            }
+        }
+    }
+
+    public void invalidate(File configFile)
+    {
+        File cacheFile = this.getCacheFile(configFile);
+
+        if (cacheFile.exists() && cacheFile.delete() == false)
+        {
+            MaLiLib.LOGGER.warn("Failed to delete the binary config cache file '{}'", cacheFile.getAbsolutePath());
+        }
+    }
+
+    protected static void writeElement(DataOutputStream out, JsonElement element) throws IOException
+    {
+        if (element.isJsonObject())
+        {
+            JsonObject obj = element.getAsJsonObject();
+
+            out.writeByte(TYPE_OBJECT);
+            writeVarInt(out, obj.entrySet().size());
+
+            for (Map.Entry<String, JsonElement> entry : obj.entrySet())
+            {
+                writeString(out, entry.getKey());
+                writeElement(out, entry.getValue());
+            }
+        }
+        else if (element.isJsonArray())
+        {
+            JsonArray arr = element.getAsJsonArray();
+
+            out.writeByte(TYPE_ARRAY);
+            writeVarInt(out, arr.size());
+
+            for (JsonElement el : arr)
+            {
+                writeElement(out, el);
+            }
+        }
+        else if (element.isJsonPrimitive())
+        {
+            writePrimitive(out, element.getAsJsonPrimitive());
+        }
+        else
+        {
+            out.writeByte(TYPE_NULL);
+        }
+    }
+
+    protected static void writePrimitive(DataOutputStream out, JsonPrimitive primitive) throws IOException
+    {
+        if (primitive.isBoolean())
+        {
+            out.writeByte(primitive.getAsBoolean() ? TYPE_TRUE : TYPE_FALSE);
+        }
+        else if (primitive.isString())
+        {
+            out.writeByte(TYPE_STRING);
+            writeString(out, primitive.getAsString());
+        }
+        else
+        {
+            Number number = primitive.getAsNumber();
+
+            if (number instanceof Integer || number instanceof Short || number instanceof Byte)
+            {
+                out.writeByte(TYPE_INT);
+                writeVarLong(out, zigZag(number.intValue()));
+            }
+            else if (number instanceof Long)
+            {
+                out.writeByte(TYPE_LONG);
+                writeVarLong(out, zigZag(number.longValue()));
+            }
+            else if (number instanceof Float)
+            {
+                out.writeByte(TYPE_FLOAT);
+                out.writeFloat(number.floatValue());
+            }
+            else if (number instanceof Double)
+            {
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble(number.doubleValue());
+            }
+            else
+            {
+                // BigDecimal, BigInteger, or a lazily parsed number read from a file
+                out.writeByte(TYPE_NUMBER_STRING);
+                writeString(out, number.toString());
+            }
+        }
+    }
+
+    protected static void writeString(DataOutputStream out, String str) throws IOException
+    {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    protected static String readString(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected static void writeVarInt(DataOutputStream out, int value) throws IOException
+    {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    protected static int readVarInt(DataInputStream in) throws IOException
+    {
+        long value = readVarLong(in);
+
+        if (value < 0 || value > Integer.MAX_VALUE)
+        {
+            throw new IOException("Invalid length " + value);
+        }
+
+        return (int) value;
+    }
+
+    protected static void writeVarLong(DataOutputStream out, long value) throws IOException
+    {
+        while ((value & ~0x7FL) != 0L)
+        {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.writeByte((int) value);
+    }
+
+    protected static long readVarLong(DataInputStream in) throws IOException
+    {
+        long value = 0L;
+
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+
+        throw new IOException("VarLong is too long");
+    }
+
+    protected static long zigZag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    protected static long unZigZag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    /**
+     * Reads the binary records as if they were JSON tokens.
+     * Only the methods that exist in all the used Gson versions are implemented.
+     */
+    protected static class BinaryJsonReader extends JsonReader
+    {
+        protected final DataInputStream in;
+        // The number of entries left in each of the currently open objects and arrays
+        protected int[] remaining = new int[16];
+        protected boolean[] isObject = new boolean[16];
+        protected int depth;
+        // Whether the name of the next entry in the innermost object has been read already
+        protected boolean nameRead;
+        protected boolean valueRead;
+        protected int peekedType = -1;
+
+        protected BinaryJsonReader(DataInputStream in)
+        {
+            super(new StringReader(""));
+
+            this.in = in;
+        }
+
+        @Override
+        public JsonToken peek() throws IOException
+        {
+            if (this.depth == 0)
+            {
+                return this.valueRead ? JsonToken.END_DOCUMENT : this.getValueToken();
+            }
+
+            if (this.remaining[this.depth - 1] == 0)
+            {
+                return this.isObject[this.depth - 1] ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+            }
+
+            if (this.isObject[this.depth - 1] && this.nameRead == false)
+            {
+                return JsonToken.NAME;
+            }
+
+            return this.getValueToken();
+        }
+
+        protected JsonToken getValueToken() throws IOException
+        {
+            if (this.peekedType == -1)
+            {
+                this.peekedType = this.in.readUnsignedByte();
+            }
+
+            switch (this.peekedType)
+            {
+                case TYPE_NULL:             return JsonToken.NULL;
+                case TYPE_TRUE:
+                case TYPE_FALSE:            return JsonToken.BOOLEAN;
+                case TYPE_INT:
+                case TYPE_LONG:
+                case TYPE_FLOAT:
+                case TYPE_DOUBLE:
+                case TYPE_NUMBER_STRING:    return JsonToken.NUMBER;
+                case TYPE_STRING:           return JsonToken.STRING;
+                case TYPE_ARRAY:            return JsonToken.BEGIN_ARRAY;
+                case TYPE_OBJECT:           return JsonToken.BEGIN_OBJECT;
+                default:
+                    throw new IOException("Invalid record type " + this.peekedType);
+            }
+        }
+
+        /**
+         * Consumes the type of the next value, which must be of the given token type
+         * @return the record type of the value
+         */
+        protected int consumeValue(JsonToken expected) throws IOException
+        {
+            JsonToken token = this.peek();
+
+            if (token != expected)
+            {
+                throw new IllegalStateException("Expected " + expected + " but was " + token);
+            }
+
+            int type = this.peekedType;
+            this.peekedType = -1;
+            this.nameRead = false;
+
+            if (this.depth > 0)
+            {
+                --this.remaining[this.depth - 1];
+            }
+            else
+            {
+                this.valueRead = true;
+            }
+
+            return type;
+        }
+
+        protected void push(boolean isObject) throws IOException
+        {
+            if (this.depth == this.remaining.length)
+            {
+                this.remaining = Arrays.copyOf(this.remaining, this.depth * 2);
+                this.isObject = Arrays.copyOf(this.isObject, this.depth * 2);
+            }
+
+            this.remaining[this.depth] = readVarInt(this.in);
+            this.isObject[this.depth] = isObject;
+            ++this.depth;
+        }
+
+        protected void pop(JsonToken expected) throws IOException
+        {
+            JsonToken token = this.peek();
+
+            if (token != expected)
+            {
+                throw new IllegalStateException("Expected " + expected + " but was " + token);
+            }
+
+            --this.depth;
+            this.nameRead = false;
+        }
+
+        @Override
+        public void beginArray() throws IOException
+        {
+            this.consumeValue(JsonToken.BEGIN_ARRAY);
+            this.push(false);
+        }
+
+        @Override
+        public void endArray() throws IOException
+        {
+            this.pop(JsonToken.END_ARRAY);
+        }
+
+        @Override
+        public void beginObject() throws IOException
+        {
+            this.consumeValue(JsonToken.BEGIN_OBJECT);
+            this.push(true);
+        }
+
+        @Override
+        public void endObject() throws IOException
+        {
+            this.pop(JsonToken.END_OBJECT);
+        }
+
+        @Override
+        public boolean hasNext() throws IOException
+        {
+            JsonToken token = this.peek();
+            return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+        }
+
+        @Override
+        public String nextName() throws IOException
+        {
+            JsonToken token = this.peek();
+
+            if (token != JsonToken.NAME)
+            {
+                throw new IllegalStateException("Expected a name but was " + token);
+            }
+
+            this.nameRead = true;
+
+            return readString(this.in);
+        }
+
+        @Override
+        public String nextString() throws IOException
+        {
+            JsonToken token = this.peek();
+
+            if (token == JsonToken.STRING)
+            {
+                this.consumeValue(JsonToken.STRING);
+                return readString(this.in);
+            }
+
+            // Same as the JsonReader, numbers can also be read as strings
+            switch (this.consumeValue(JsonToken.NUMBER))
+            {
+                case TYPE_INT:
+                case TYPE_LONG:     return Long.toString(unZigZag(readVarLong(this.in)));
+                case TYPE_FLOAT:    return Float.toString(this.in.readFloat());
+                case TYPE_DOUBLE:   return Double.toString(this.in.readDouble());
+                default:            return readString(this.in);
+            }
+        }
+
+        @Override
+        public boolean nextBoolean() throws IOException
+        {
+            return this.consumeValue(JsonToken.BOOLEAN) == TYPE_TRUE;
+        }
+
+        @Override
+        public void nextNull() throws IOException
+        {
+            this.consumeValue(JsonToken.NULL);
+        }
+
+        @Override
+        public double nextDouble() throws IOException
+        {
+            return Double.parseDouble(this.nextString());
+        }
+
+        @Override
+        public long nextLong() throws IOException
+        {
+            if (this.peek() == JsonToken.NUMBER && (this.peekedType == TYPE_INT || this.peekedType == TYPE_LONG))
+            {
+                this.consumeValue(JsonToken.NUMBER);
+                return unZigZag(readVarLong(this.in));
+            }
+
+            return Long.parseLong(this.nextString());
+        }
+
+        @Override
+        public int nextInt() throws IOException
+        {
+            long value = this.nextLong();
+
+            if ((int) value != value)
+            {
+                throw new NumberFormatException("Expected an int but was " + value);
+            }
+
+            return (int) value;
+        }
+
+        @Override
+        public void skipValue() throws IOException
+        {
+            switch (this.peek())
+            {
+                case NAME:
+                    this.nextName();
+                    break;
+
+                case BEGIN_ARRAY:
+                    this.beginArray();
+
+                    while (this.hasNext())
+                    {
+                        this.skipValue();
+                    }
+
+                    this.endArray();
+                    break;
+
+                case BEGIN_OBJECT:
+                    this.beginObject();
+
+                    while (this.hasNext())
+                    {
+                        this.nextName();
+                        this.skipValue();
+                    }
+
+                    this.endObject();
+                    break;
+
+                case STRING:
+                case NUMBER:
+                    this.nextString();
+                    break;
+
+                case BOOLEAN:
+                    this.nextBoolean();
+                    break;
+
+                case NULL:
+                    this.nextNull();
+                    break;
+
+                default:
+                    throw new IllegalStateException("Can't skip " + this.peek());
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            super.close();
+            this.in.close();
+        }
+    }
+}
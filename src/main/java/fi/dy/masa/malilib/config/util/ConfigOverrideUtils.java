@@ -1,8 +1,13 @@
 package fi.dy.masa.malilib.config.util;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
@@ -28,6 +33,8 @@ import fi.dy.masa.malilib.util.JsonUtils;
 
 public class ConfigOverrideUtils
 {
+    @Nullable protected static ToggleConfigIndex toggleConfigIndex;
+
     public static ActionResult resetConfigOverrides()
     {
         return resetConfigOverrides(new ActionContext());
@@ -35,10 +42,19 @@ public class ConfigOverrideUtils
 
     public static ActionResult resetConfigOverrides(ActionContext ctx)
     {
-        getAllToggleConfigs().values().forEach(BooleanConfig::disableOverride);
+        getToggleConfigIndex().getAllConfigs().forEach(BooleanConfig::disableOverride);
         return ActionResult.SUCCESS;
     }
 
+    /**
+     * Invalidates the cached index of the toggle configs, so that it gets re-built on next use.
+     * This is called automatically when a new mod config handler is registered.
+     */
+    public static void invalidateToggleConfigIndex()
+    {
+        toggleConfigIndex = null;
+    }
+
     public static void applyConfigOverrides()
     {
         Minecraft mc = Minecraft.getMinecraft();
@@ -78,7 +94,7 @@ public class ConfigOverrideUtils
             }
             else
             {
-                getAllToggleConfigs().values().forEach((cfg) -> {
+                getToggleConfigIndex().getAllConfigs().forEach((cfg) -> {
                     cfg.setOverrideMessage("malilib.hover_info.config_override_fallback");
                     cfg.enableOverrideWithValue(false);
                 });
@@ -86,33 +102,18 @@ public class ConfigOverrideUtils
         }
     }
 
-    protected static ArrayListMultimap<String, BooleanConfig> getAllToggleConfigs()
+    protected static ToggleConfigIndex getToggleConfigIndex()
     {
-        ArrayListMultimap<String, BooleanConfig> configs = ArrayListMultimap.create();
         List<ModConfig> modConfigs = ((ConfigManagerImpl) Registry.CONFIG_MANAGER).getAllModConfigs();
+        ToggleConfigIndex index = toggleConfigIndex;
 
-        for (ModConfig modConfig : modConfigs)
+        if (index == null || index.modConfigCount != modConfigs.size())
         {
-            for (ConfigOptionCategory category : modConfig.getConfigOptionCategories())
-            {
-                for (ConfigInfo config : category.getConfigOptions())
-                {
-                    ConfigSearchInfo<ConfigInfo> info = Registry.CONFIG_WIDGET.getSearchInfo(config);
-
-                    if (info != null)
-                    {
-                        BooleanConfig booleanConfig = info.getBooleanConfig(config);
-
-                        if (booleanConfig != null)
-                        {
-                            configs.put(booleanConfig.getModInfo().getModId(), booleanConfig);
-                        }
-                    }
-                }
-            }
+            index = new ToggleConfigIndex(modConfigs);
+            toggleConfigIndex = index;
         }
 
-        return configs;
+        return index;
     }
 
     public static void applyConfigOverrides(JsonObject root)
@@ -122,11 +123,14 @@ public class ConfigOverrideUtils
             return;
         }
 
-        ArrayListMultimap<String, BooleanConfig> configs = getAllToggleConfigs();
+        ToggleConfigIndex index = getToggleConfigIndex();
+        Map<String, Predicate<String>> patternCache = new HashMap<>();
+        List<OverrideRule> rules = new ArrayList<>();
 
         JsonArray arrModFeatures = root.get("mod_features").getAsJsonArray();
         final int size = arrModFeatures.size();
 
+        // First compile all the rules, so that each regex only gets compiled once
         for (int i = 0; i < size; ++i)
         {
             JsonElement el = arrModFeatures.get(i);
@@ -137,11 +141,11 @@ public class ConfigOverrideUtils
             }
 
             JsonObject obj = el.getAsJsonObject();
-            Predicate<String> modFilter = getModFilterOrDefault(obj, (name) -> true);
-            Predicate<String> featureFilter = getFeatureFilterOrDefault(obj, (name) -> true);
+            Predicate<String> modFilter = getModFilterOrDefault(obj, null, patternCache);
+            FeatureMatcher featureMatcher = getFeatureMatcherOrDefault(obj, FeatureMatcher.ALL, patternCache);
             String message = JsonUtils.getStringOrDefault(obj, "message", null);
 
-            applyOverridesFrom(obj, configs, modFilter, featureFilter, message);
+            rules.add(new OverrideRule(obj, modFilter, featureMatcher, message));
 
             if (JsonUtils.hasArray(obj, "overrides"))
             {
@@ -163,18 +167,37 @@ public class ConfigOverrideUtils
                     }
 
                     JsonObject overrideObj = overrideEl.getAsJsonObject();
-                    Predicate<String> overrideModFilter = getModFilterOrDefault(overrideObj, modFilter);
-                    Predicate<String> overrideFeatureFilter = getFeatureFilterOrDefault(overrideObj, featureFilter);
+                    Predicate<String> overrideModFilter = getModFilterOrDefault(overrideObj, modFilter, patternCache);
+                    FeatureMatcher overrideFeatureMatcher = getFeatureMatcherOrDefault(overrideObj, featureMatcher, patternCache);
                     String overrideMessage = JsonUtils.getStringOrDefault(overrideObj, "message", message);
 
-                    applyOverridesFrom(overrideObj, configs, overrideModFilter, overrideFeatureFilter, overrideMessage);
+                    rules.add(new OverrideRule(overrideObj, overrideModFilter, overrideFeatureMatcher, overrideMessage));
+                }
+            }
+        }
+
+        // Then resolve the final state for each affected config, with the later rules
+        // taking precedence, and finally apply that state once per config
+        Map<BooleanConfig, OverrideState> states = new LinkedHashMap<>();
+
+        for (OverrideRule rule : rules)
+        {
+            for (String modId : index.getModIds())
+            {
+                if (rule.modFilter == null || rule.modFilter.test(modId))
+                {
+                    index.forEachMatchingConfig(modId, rule.featureMatcher, (cfg) -> {
+                        states.computeIfAbsent(cfg, (c) -> new OverrideState()).update(rule);
+                    });
                 }
             }
         }
 
+        states.forEach(ConfigOverrideUtils::applyOverrideState);
+
         int overrideCount = 0;
 
-        for (BooleanConfig config : configs.values())
+        for (BooleanConfig config : index.getAllConfigs())
         {
             if (config.hasOverride())
             {
@@ -193,125 +216,226 @@ public class ConfigOverrideUtils
         }
     }
 
-    protected static void applyOverridesFrom(JsonObject obj,
-                                             ArrayListMultimap<String, BooleanConfig> configs,
-                                             Predicate<String> modFilter,
-                                             Predicate<String> configFilter,
-                                             @Nullable String message)
+    protected static void applyOverrideState(BooleanConfig cfg, OverrideState state)
     {
-        String policy = JsonUtils.getStringOrDefault(obj, "policy", null);
-        boolean enableOverride = "deny".equals(policy);
-        boolean overrideValue = JsonUtils.getBooleanOrDefault(obj, "inverse", false);
+        if (state.message != null)
+        {
+            cfg.setOverrideMessage(state.message);
+        }
 
-        for (String modId : configs.keySet())
+        if (state.enableOverride)
         {
-            if (modFilter.test(modId) == false)
+            if (MaLiLibConfigs.Debug.DEBUG_MESSAGES.getBooleanValue())
             {
-                continue;
+                MaLiLib.LOGGER.info("Overriding status of '{}' to '{}'", cfg.getName(), state.overrideValue);
             }
 
-            for (BooleanConfig cfg : configs.get(modId))
+            cfg.enableOverrideWithValue(state.overrideValue);
+        }
+        else
+        {
+            if (MaLiLibConfigs.Debug.DEBUG_MESSAGES.getBooleanValue())
             {
-                if (configFilter.test(cfg.getName()) == false)
-                {
-                    continue;
-                }
-
-                if (message != null)
-                {
-                    cfg.setOverrideMessage(message);
-                }
-
-                if (enableOverride)
-                {
-                    if (MaLiLibConfigs.Debug.DEBUG_MESSAGES.getBooleanValue())
-                    {
-                        MaLiLib.LOGGER.info("Overriding status of '{}' to '{}'", cfg.getName(), overrideValue);
-                    }
+                MaLiLib.LOGGER.info("Disabling override for '{}'", cfg.getName());
+            }
 
-                    cfg.enableOverrideWithValue(overrideValue);
-                }
-                else
-                {
-                    if (MaLiLibConfigs.Debug.DEBUG_MESSAGES.getBooleanValue())
-                    {
-                        MaLiLib.LOGGER.info("Disabling override for '{}'", cfg.getName());
-                    }
+            cfg.disableOverride();
+        }
+    }
 
-                    cfg.disableOverride();
-                }
-            }
+    @Nullable
+    protected static Predicate<String> getModFilterOrDefault(JsonObject obj,
+                                                             @Nullable Predicate<String> defaultFilter,
+                                                             Map<String, Predicate<String>> patternCache)
+    {
+        if (JsonUtils.hasString(obj, "mod"))
+        {
+            return getPatternMatcher(JsonUtils.getString(obj, "mod"), "mod name", patternCache);
         }
+
+        return defaultFilter;
     }
 
-    protected static Predicate<String> getModFilterOrDefault(JsonObject obj, Predicate<String> defaultFilter)
+    protected static FeatureMatcher getFeatureMatcherOrDefault(JsonObject obj,
+                                                               FeatureMatcher defaultMatcher,
+                                                               Map<String, Predicate<String>> patternCache)
     {
-        Predicate<String> filter = getModFilter(obj);
-        return filter != null ? filter : defaultFilter;
+        if (JsonUtils.hasString(obj, "feature_filter"))
+        {
+            String filterStr = JsonUtils.getString(obj, "feature_filter");
+            return new FeatureMatcher(null, getPatternMatcher(filterStr, "mod feature", patternCache));
+        }
+        else if (JsonUtils.hasArray(obj, "features"))
+        {
+            final String prefix = JsonUtils.getStringOrDefault(obj, "name_prefix", "");
+            final String suffix = JsonUtils.getStringOrDefault(obj, "name_suffix", "");
+            final Set<String> names = new HashSet<>();
+            JsonArray arr = obj.get("features").getAsJsonArray();
+            final int size = arr.size();
+            for (int i = 0; i < size; ++i) { names.add(prefix + arr.get(i).getAsString() + suffix); }
+
+            return new FeatureMatcher(names, null);
+        }
+
+        return defaultMatcher;
     }
 
-    @Nullable
-    protected static Predicate<String> getModFilter(JsonObject obj)
+    protected static Predicate<String> getPatternMatcher(String filterStr, String filterType,
+                                                         Map<String, Predicate<String>> patternCache)
     {
-        Predicate<String> modFilter = null;
+        Predicate<String> filter = patternCache.get(filterStr);
 
-        if (JsonUtils.hasString(obj, "mod"))
+        if (filter == null)
         {
-            String filterStr = JsonUtils.getString(obj, "mod");
-
             try
             {
                 Pattern pattern = Pattern.compile(filterStr);
-                modFilter = (name) -> pattern.matcher(name).matches();
+                filter = (name) -> pattern.matcher(name).matches();
             }
             catch (Exception e)
             {
-                MaLiLib.LOGGER.error("Failed to compile mod name filter regex '{}'", filterStr);
-                modFilter = (name) -> false;
+                MaLiLib.LOGGER.error("Failed to compile {} filter regex '{}'", filterType, filterStr);
+                filter = (name) -> false;
             }
+
+            patternCache.put(filterStr, filter);
         }
 
-        return modFilter;
+        return filter;
     }
 
-    protected static Predicate<String> getFeatureFilterOrDefault(JsonObject obj, Predicate<String> defaultFilter)
+    /**
+     * An index of all the boolean toggle configs of all the registered mods,
+     * by their mod ID and by their config name.
+     */
+    protected static class ToggleConfigIndex
     {
-        Predicate<String> filter = getFeatureFilter(obj);
-        return filter != null ? filter : defaultFilter;
-    }
+        protected final Map<String, List<BooleanConfig>> configsByMod = new LinkedHashMap<>();
+        protected final Map<String, ArrayListMultimap<String, BooleanConfig>> configsByModAndName = new HashMap<>();
+        protected final List<BooleanConfig> allConfigs = new ArrayList<>();
+        protected final int modConfigCount;
 
-    @Nullable
-    protected static Predicate<String> getFeatureFilter(JsonObject obj)
-    {
-        Predicate<String> featureFilter = null;
+        protected ToggleConfigIndex(List<ModConfig> modConfigs)
+        {
+            this.modConfigCount = modConfigs.size();
 
-        if (JsonUtils.hasString(obj, "feature_filter"))
+            for (ModConfig modConfig : modConfigs)
+            {
+                for (ConfigOptionCategory category : modConfig.getConfigOptionCategories())
+                {
+                    for (ConfigInfo config : category.getConfigOptions())
+                    {
+                        ConfigSearchInfo<ConfigInfo> info = Registry.CONFIG_WIDGET.getSearchInfo(config);
+
+                        if (info != null)
+                        {
+                            BooleanConfig booleanConfig = info.getBooleanConfig(config);
+
+                            if (booleanConfig != null)
+                            {
+                                String modId = booleanConfig.getModInfo().getModId();
+                                this.configsByMod.computeIfAbsent(modId, (k) -> new ArrayList<>()).add(booleanConfig);
+                                this.configsByModAndName.computeIfAbsent(modId, (k) -> ArrayListMultimap.create())
+                                        .put(booleanConfig.getName(), booleanConfig);
+                                this.allConfigs.add(booleanConfig);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        public Set<String> getModIds()
         {
-            String filterStr = JsonUtils.getString(obj, "feature_filter");
+            return this.configsByMod.keySet();
+        }
 
-            try
+        public List<BooleanConfig> getAllConfigs()
+        {
+            return this.allConfigs;
+        }
+
+        public void forEachMatchingConfig(String modId, FeatureMatcher matcher, Consumer<BooleanConfig> consumer)
+        {
+            // With a list of feature names, the configs can be directly looked up by their name
+            if (matcher.names != null)
             {
-                Pattern pattern = Pattern.compile(filterStr);
-                featureFilter = (name) -> pattern.matcher(name).matches();
+                ArrayListMultimap<String, BooleanConfig> byName = this.configsByModAndName.get(modId);
+
+                if (byName != null)
+                {
+                    for (String name : matcher.names)
+                    {
+                        byName.get(name).forEach(consumer);
+                    }
+                }
+
+                return;
             }
-            catch (Exception e)
+
+            List<BooleanConfig> configs = this.configsByMod.get(modId);
+
+            if (configs != null)
             {
-                MaLiLib.LOGGER.error("Failed to compile mod feature filter regex '{}'", filterStr);
-                featureFilter = (name) -> false;
+                for (BooleanConfig cfg : configs)
+                {
+                    if (matcher.predicate == null || matcher.predicate.test(cfg.getName()))
+                    {
+                        consumer.accept(cfg);
+                    }
+                }
             }
         }
-        else if (JsonUtils.hasArray(obj, "features"))
+    }
+
+    protected static class FeatureMatcher
+    {
+        public static final FeatureMatcher ALL = new FeatureMatcher(null, null);
+
+        @Nullable protected final Set<String> names;
+        @Nullable protected final Predicate<String> predicate;
+
+        protected FeatureMatcher(@Nullable Set<String> names, @Nullable Predicate<String> predicate)
         {
-            final String prefix = JsonUtils.getStringOrDefault(obj, "name_prefix", "");
-            final String suffix = JsonUtils.getStringOrDefault(obj, "name_suffix", "");
-            final Set<String> names = new HashSet<>();
-            JsonArray arr = obj.get("features").getAsJsonArray();
-            final int size = arr.size();
-            for (int i = 0; i < size; ++i) { names.add(prefix + arr.get(i).getAsString() + suffix); }
+            this.names = names;
+            this.predicate = predicate;
+        }
+    }
 
-            featureFilter = names::contains;
+    protected static class OverrideRule
+    {
+        @Nullable protected final Predicate<String> modFilter;
+        protected final FeatureMatcher featureMatcher;
+        @Nullable protected final String message;
+        protected final boolean enableOverride;
+        protected final boolean overrideValue;
+
+        protected OverrideRule(JsonObject obj, @Nullable Predicate<String> modFilter,
+                               FeatureMatcher featureMatcher, @Nullable String message)
+        {
+            this.modFilter = modFilter;
+            this.featureMatcher = featureMatcher;
+            this.message = message;
+            this.enableOverride = "deny".equals(JsonUtils.getStringOrDefault(obj, "policy", null));
+            this.overrideValue = JsonUtils.getBooleanOrDefault(obj, "inverse", false);
         }
+    }
+
+    protected static class OverrideState
+    {
+        @Nullable protected String message;
+        protected boolean enableOverride;
+        protected boolean overrideValue;
+
+        protected void update(OverrideRule rule)
+        {
+            if (rule.message != null)
+            {
+                this.message = rule.message;
+            }
 
-        return featureFilter;
+            this.enableOverride = rule.enableOverride;
+            this.overrideValue = rule.overrideValue;
+        }
     }
 }
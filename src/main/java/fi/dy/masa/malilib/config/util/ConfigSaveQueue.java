@@ -0,0 +1,142 @@
+package fi.dy.masa.malilib.config.util;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import fi.dy.masa.malilib.MaLiLib;
+
+/**
+ * A single background writer thread for saving config files.
+ * The config values are expected to be snapshotted on the main thread,
+ * and the serialization, backups and the file writing then happen on the writer thread.
+ * Repeated save requests for the same file are coalesced, so that if a newer
+ * snapshot is submitted before the previous one has been written, then only
+ * the newest snapshot gets written.
+ * Any synchronous writes of the same files should call {@link #cancelPendingTask(File)} first,
+ * so that an older queued snapshot doesn't overwrite the newer data.
+ */
+public class ConfigSaveQueue
+{
+    public static final ConfigSaveQueue INSTANCE = new ConfigSaveQueue();
+
+    protected final ExecutorService executor = Executors.newSingleThreadExecutor((r) -> {
+        Thread thread = new Thread(r, "MaLiLib Config Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    protected final Map<File, Runnable> pendingTasks = new ConcurrentHashMap<>();
+    protected final Map<File, Future<?>> futures = new ConcurrentHashMap<>();
+
+    /**
+     * Queues the given write task for the given file.
+     * If there is already a task queued for the same file that has not started running yet,
+     * then that task is replaced by this new task.
+     */
+    public void submit(File file, Runnable writeTask)
+    {
+        if (this.pendingTasks.put(file, writeTask) == null)
+        {
+            Future<?> future = this.executor.submit(() -> this.runPendingTask(file));
+            this.futures.put(file, future);
+        }
+    }
+
+    /**
+     * Drops the queued write task for the given file, if it has not started running yet,
+     * or otherwise waits for the currently running write of that file to finish.
+     * This must be called before writing the same file synchronously,
+     * so that an older queued write can't overwrite the newer data afterwards.
+     */
+    public void cancelPendingTask(File file)
+    {
+        Future<?> future = this.futures.remove(file);
+
+        if (this.pendingTasks.remove(file) != null)
+        {
+            // The task had not started yet, so it won't write anything anymore
+            if (future != null)
+            {
+                future.cancel(false);
+            }
+        }
+        else if (future != null)
+        {
+            this.waitFor(future, file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * @return true if there are write tasks waiting to be run
+     */
+    public boolean hasPendingTasks()
+    {
+        return this.pendingTasks.isEmpty() == false;
+    }
+
+    /**
+     * Blocks until all the currently queued write tasks have finished.
+     * This should be called before reading any config files that may have been queued for
+     * saving, and before the game shuts down.
+     */
+    public void waitForPendingTasks()
+    {
+        if (this.hasPendingTasks() || this.futures.isEmpty() == false)
+        {
+            // The executor runs the tasks in order, so once this no-op task
+            // has run, all the previously queued tasks have also finished
+            if (this.waitFor(this.executor.submit(() -> {}), "all pending config files"))
+            {
+                this.futures.clear();
+            }
+        }
+    }
+
+    /**
+     * @return false if the wait timed out
+     */
+    protected boolean waitFor(Future<?> future, String name)
+    {
+        try
+        {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        catch (CancellationException ignore)
+        {
+        }
+        catch (TimeoutException e)
+        {
+            MaLiLib.LOGGER.error("Timed out after 30 seconds while waiting for '{}' to be saved, " +
+                                 "the config files may not have been saved!", name);
+            return false;
+        }
+        catch (Exception e)
+        {
+            MaLiLib.LOGGER.warn("Exception while waiting for '{}' to be saved", name, e);
+        }
+
+        return true;
+    }
+
+    protected void runPendingTask(File file)
+    {
+        Runnable task = this.pendingTasks.remove(file);
+
+        if (task != null)
+        {
+            try
+            {
+                task.run();
+            }
+            catch (Exception e)
+            {
+                MaLiLib.LOGGER.warn("Exception while saving the config file '{}'", file.getAbsolutePath(), e);
+            }
+        }
+    }
+}
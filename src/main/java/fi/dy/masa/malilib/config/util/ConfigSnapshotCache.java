@@ -0,0 +1,152 @@
+package fi.dy.masa.malilib.config.util;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import com.google.gson.JsonObject;
+
+/**
+ * Keeps in-memory snapshots of the config values of the config files that have been
+ * loaded or saved, so that switching back and forth between config profiles does not
+ * need to re-read and re-parse the files. The snapshots are validated against the
+ * last modified time and the size of the file, so that any outside changes to the files
+ * invalidate the snapshots. The file contents are not hashed, as that would require
+ * reading the entire file again, which is what this cache is trying to avoid.
+ * The snapshots are only taken after the config profile has been switched at least once,
+ * so that the normal startup and world loads don't pay for them, and at most
+ * {@link #MAX_SNAPSHOTS} of the most recently used snapshots are kept.
+ */
+public class ConfigSnapshotCache
+{
+    public static final ConfigSnapshotCache INSTANCE = new ConfigSnapshotCache();
+    public static final int MAX_SNAPSHOTS = 64;
+
+    protected final Map<File, Snapshot> snapshots = Collections.synchronizedMap(new SnapshotMap());
+    protected volatile boolean enabled = true;
+    protected volatile boolean active;
+
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+
+    /**
+     * @return true if new snapshots are currently being stored, ie. if the cache is enabled
+     *         and the config profile has been switched at least once
+     */
+    public boolean isCaching()
+    {
+        return this.enabled && this.active;
+    }
+
+    /**
+     * Starts storing the snapshots. This is called when the config profile gets switched.
+     * NOT PUBLIC API - DO NOT CALL
+     */
+    public void activate()
+    {
+        this.active = true;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+
+        if (enabled == false)
+        {
+            this.clear();
+        }
+    }
+
+    /**
+     * @return the snapshot for the given file, if there is one and the file has not changed since
+     */
+    @Nullable
+    public Snapshot getValidSnapshot(File file)
+    {
+        if (this.enabled == false)
+        {
+            return null;
+        }
+
+        file = file.getAbsoluteFile();
+        Snapshot snapshot = this.snapshots.get(file);
+
+        if (snapshot != null)
+        {
+            if (snapshot.lastModified == file.lastModified() && snapshot.size == file.length())
+            {
+                return snapshot;
+            }
+
+            this.snapshots.remove(file, snapshot);
+        }
+
+        return null;
+    }
+
+    /**
+     * Stores a snapshot for the given file. The snapshot data must not be modified after this.
+     * @param lastModified the last modified time of the file, when the snapshot's data was read from it
+     * @param size the size of the file, when the snapshot's data was read from it
+     * @param configVersion the config version that was read from the file
+     * @param data the config values, in the same format as they are saved to the file
+     */
+    public void putSnapshot(File file, long lastModified, long size, int configVersion, JsonObject data)
+    {
+        if (this.isCaching() && lastModified != 0L)
+        {
+            this.snapshots.put(file.getAbsoluteFile(), new Snapshot(lastModified, size, configVersion, data));
+        }
+    }
+
+    /**
+     * Stores a snapshot for the given file, which was just written with the given data
+     */
+    public void putSnapshotForWrittenFile(File file, int configVersion, JsonObject data)
+    {
+        this.putSnapshot(file, file.lastModified(), file.length(), configVersion, data);
+    }
+
+    public void invalidate(File file)
+    {
+        this.snapshots.remove(file.getAbsoluteFile());
+    }
+
+    public void clear()
+    {
+        this.snapshots.clear();
+    }
+
+    protected static class SnapshotMap extends LinkedHashMap<File, Snapshot>
+    {
+        protected SnapshotMap()
+        {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, Snapshot> eldest)
+        {
+            return this.size() > MAX_SNAPSHOTS;
+        }
+    }
+
+    public static class Snapshot
+    {
+        public final long lastModified;
+        public final long size;
+        public final int configVersion;
+        public final JsonObject data;
+
+        public Snapshot(long lastModified, long size, int configVersion, JsonObject data)
+        {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.configVersion = configVersion;
+            this.data = data;
+        }
+    }
+}
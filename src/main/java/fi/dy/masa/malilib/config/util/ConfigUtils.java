@@ -10,10 +10,12 @@ import java.util.Map;
 import org.apache.commons.lang3.StringUtils;
 import net.minecraft.util.text.TextFormatting;
 import fi.dy.masa.malilib.MaLiLibConfigs;
+import fi.dy.masa.malilib.MaLiLibReference;
 import fi.dy.masa.malilib.action.ActionContext;
 import fi.dy.masa.malilib.action.ActionExecutionWidgetManager;
 import fi.dy.masa.malilib.action.ActionRegistryImpl;
 import fi.dy.masa.malilib.config.ConfigManagerImpl;
+import fi.dy.masa.malilib.config.ModConfig;
 import fi.dy.masa.malilib.config.option.ConfigInfo;
 import fi.dy.masa.malilib.gui.config.ConfigTab;
 import fi.dy.masa.malilib.input.ActionResult;
@@ -91,12 +93,28 @@ public class ConfigUtils
      */
     public static void loadAllConfigsFromFile()
     {
-        Registry.ICON.loadFromFile();
-        ((ConfigManagerImpl) Registry.CONFIG_MANAGER).loadAllConfigs();
-        ((ActionRegistryImpl) Registry.ACTION_REGISTRY).loadFromFile();
-        CustomHotkeyManager.INSTANCE.loadFromFile();
-        Registry.INFO_WIDGET_MANAGER.loadFromFile();
-        Registry.MESSAGE_REDIRECT_MANAGER.loadFromFile();
+        ConfigManagerImpl configManager = (ConfigManagerImpl) Registry.CONFIG_MANAGER;
+        ModConfig malilibConfig = configManager.getConfigHandler(MaLiLibReference.MOD_INFO);
+
+        configManager.waitForPendingSaves();
+
+        // The MaLiLib configs contain the active config profile, which determines
+        // the directory that all the other files are read from, so they need to be loaded first
+        if (malilibConfig != null)
+        {
+            malilibConfig.loadFromFile();
+        }
+
+        // The files are read and parsed in parallel, and then applied in this order on this thread
+        ParallelConfigLoader loader = new ParallelConfigLoader();
+        loader.add(Registry.ICON::prepareLoadFromFile);
+        configManager.addLoadTasks(loader, malilibConfig);
+        loader.add(((ActionRegistryImpl) Registry.ACTION_REGISTRY)::prepareLoadFromFile);
+        loader.add(CustomHotkeyManager.INSTANCE::prepareLoadFromFile);
+        loader.add(Registry.INFO_WIDGET_MANAGER::prepareLoadFromFile);
+        loader.add(Registry.MESSAGE_REDIRECT_MANAGER::prepareLoadFromFile);
+        loader.applyAll();
+
         Registry.HOTKEY_MANAGER.updateUsedKeys();
     }
 
@@ -148,6 +166,8 @@ public class ConfigUtils
 
         if (current.equals(profile) == false)
         {
+            // Only start keeping the config snapshots once they are actually useful
+            ConfigSnapshotCache.INSTANCE.activate();
             saveAllConfigsToFileIfDirty();
             MaLiLibConfigs.Internal.ACTIVE_CONFIG_PROFILE.setValue(profile);
             copyConfigsIfProfileNotExist(profile);
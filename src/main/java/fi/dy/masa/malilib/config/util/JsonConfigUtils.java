@@ -3,6 +3,7 @@ package fi.dy.masa.malilib.config.util;
 import java.io.File;
 import java.util.List;
 import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
@@ -10,6 +11,7 @@ import fi.dy.masa.malilib.MaLiLib;
 import fi.dy.masa.malilib.config.category.ConfigOptionCategory;
 import fi.dy.masa.malilib.config.option.ConfigInfo;
 import fi.dy.masa.malilib.config.option.ConfigOption;
+import fi.dy.masa.malilib.config.serialization.ConfigSerializationPlan;
 import fi.dy.masa.malilib.config.serialization.JsonConfigSerializerRegistry;
 import fi.dy.masa.malilib.overlay.message.MessageDispatcher;
 import fi.dy.masa.malilib.registry.Registry;
@@ -20,8 +22,16 @@ public class JsonConfigUtils
     public static void loadFromFile(File configFile, List<ConfigOptionCategory> categories,
                                     BiConsumer<Integer, JsonObject> configVersionUpgrader)
     {
-        JsonElement element = JsonUtils.parseJsonFile(configFile);
+        loadFromJson(JsonUtils.parseJsonFile(configFile), categories, configVersionUpgrader);
+    }
 
+    /**
+     * Loads the configs from the given JSON data, that was previously read from the config file.
+     * If the data is null or not a JSON object, then all the configs are reset to their default values.
+     */
+    public static void loadFromJson(@Nullable JsonElement element, List<ConfigOptionCategory> categories,
+                                    BiConsumer<Integer, JsonObject> configVersionUpgrader)
+    {
         if (element != null && element.isJsonObject())
         {
             JsonObject root = element.getAsJsonObject();
@@ -68,29 +78,40 @@ public class JsonConfigUtils
     }
 
     public static <T, C extends ConfigOption<T>> void tryLoadConfig(JsonObject obj, C config, String categoryName)
+    {
+        JsonElement data = obj.get(config.getName());
+
+        if (data == null)
+        {
+            for (String oldName : config.getOldNames())
+            {
+                data = obj.get(oldName);
+
+                if (data != null)
+                {
+                    break;
+                }
+            }
+        }
+
+        loadConfigValue(data, config, categoryName);
+    }
+
+    /**
+     * Loads the given value to the config, or resets the config to its default value
+     * if the value is null (ie. it did not exist in the config file) or if there is no de-serializer for it.
+     */
+    public static <T, C extends ConfigOption<T>> void loadConfigValue(@Nullable JsonElement data, C config, String categoryName)
     {
         JsonConfigSerializerRegistry.JsonConfigDeSerializer<C> deSerializer = Registry.JSON_CONFIG_SERIALIZER.getDeSerializer(config);
 
         if (deSerializer != null)
         {
-            String name = config.getName();
-
-            if (obj.has(name))
+            if (data != null)
             {
-                deSerializer.deSerializeConfigValue(config, obj.get(name), name);
+                deSerializer.deSerializeConfigValue(config, data, config.getName());
                 return;
             }
-            else
-            {
-                for (String oldName : config.getOldNames())
-                {
-                    if (obj.has(oldName))
-                    {
-                        deSerializer.deSerializeConfigValue(config, obj.get(name), name);
-                        return;
-                    }
-                }
-            }
         }
         else
         {
@@ -108,24 +129,136 @@ public class JsonConfigUtils
 
     public static boolean saveToFile(File configFile, List<ConfigOptionCategory> categories, int configVersion)
     {
+        return saveToFile(configFile, ConfigSerializationPlan.create(categories), configVersion);
+    }
+
+    public static boolean saveToFile(File configFile, ConfigSerializationPlan plan, int configVersion)
+    {
+        // Don't let an older queued asynchronous save overwrite this data afterwards
+        ConfigSaveQueue.INSTANCE.cancelPendingTask(configFile);
+
         JsonObject root = new JsonObject();
         root.add("config_version", new JsonPrimitive(configVersion));
-        boolean success = true;
 
-        for (ConfigOptionCategory category : categories)
+        boolean success = plan.writeConfigs(root, true);
+
+        if (success == false)
         {
-            if (category.shouldSaveToFile())
-            {
-                success &= writeConfigs(root, category);
-            }
+            MessageDispatcher.error().console().translate("malilib.message.error.failed_to_save_all_configs");
+        }
+
+        if (JsonUtils.writeJsonToFileAtomically(root, configFile))
+        {
+            ConfigSnapshotCache.INSTANCE.putSnapshotForWrittenFile(configFile, configVersion, root);
+            BinaryConfigCache.INSTANCE.scheduleWrite(configFile, root, configFile.lastModified());
+            return success;
         }
 
+        return false;
+    }
+
+    /**
+     * Snapshots the config values into a JSON tree on the calling (main) thread,
+     * and then queues the JSON tree to be written to the file on the background
+     * writer thread of {@link ConfigSaveQueue}.
+     * @param preWriteTask an optional task to run on the writer thread before the file
+     *                     gets written, for example for creating the backups of the old file
+     * @return true if all the configs were successfully serialized
+     */
+    public static boolean saveToFileAsync(File configFile, List<ConfigOptionCategory> categories,
+                                          int configVersion, @Nullable Runnable preWriteTask)
+    {
+        return saveToFileAsync(configFile, ConfigSerializationPlan.create(categories), configVersion, preWriteTask);
+    }
+
+    public static boolean saveToFileAsync(File configFile, ConfigSerializationPlan plan,
+                                          int configVersion, @Nullable Runnable preWriteTask)
+    {
+        JsonObject root = new JsonObject();
+        root.add("config_version", new JsonPrimitive(configVersion));
+
+        boolean success = plan.writeConfigs(root, true);
+
         if (success == false)
         {
             MessageDispatcher.error().console().translate("malilib.message.error.failed_to_save_all_configs");
         }
 
-        return JsonUtils.writeJsonToFile(root, configFile) && success;
+        ConfigSaveQueue.INSTANCE.submit(configFile, () -> {
+            if (preWriteTask != null)
+            {
+                preWriteTask.run();
+            }
+
+            // This runs on the writer thread, so the data can also be synced to the disk before the move
+            if (JsonUtils.writeJsonToFileStreaming(JsonUtils.GSON, root, configFile, true))
+            {
+                ConfigSnapshotCache.INSTANCE.putSnapshotForWrittenFile(configFile, configVersion, root);
+                BinaryConfigCache.INSTANCE.scheduleWrite(configFile, root, configFile.lastModified());
+            }
+            else
+            {
+                MaLiLib.LOGGER.warn("Failed to save the configs to '{}'", configFile.getAbsolutePath());
+            }
+        });
+
+        return success;
+    }
+
+    /**
+     * Creates a snapshot of the current config values, in the same format as they are saved to file.
+     * Unlike the save methods, this does not mark the configs as saved.
+     */
+    public static JsonObject createSnapshot(List<ConfigOptionCategory> categories, int configVersion)
+    {
+        return createSnapshot(ConfigSerializationPlan.create(categories), configVersion);
+    }
+
+    public static JsonObject createSnapshot(ConfigSerializationPlan plan, int configVersion)
+    {
+        JsonObject root = new JsonObject();
+        root.add("config_version", new JsonPrimitive(configVersion));
+
+        plan.writeConfigs(root, false);
+
+        return root;
+    }
+
+    /**
+     * Loads the configs from the given snapshot data, but only touches the configs whose current
+     * value differs from the value in the snapshot. Thus the value load callbacks only get called
+     * for the configs that actually change.
+     */
+    public static void applySnapshotDiff(JsonObject root, List<ConfigOptionCategory> categories)
+    {
+        for (ConfigOptionCategory category : categories)
+        {
+            String categoryName = category.getName();
+            JsonObject obj = JsonUtils.getNestedObject(root, categoryName, false);
+
+            for (ConfigOption<?> config : category.getConfigOptions())
+            {
+                JsonElement data = obj != null ? obj.get(config.getName()) : null;
+
+                if (data == null)
+                {
+                    if (config.isModified())
+                    {
+                        loadConfigValue(null, config, categoryName);
+                    }
+                }
+                else if (isSameValue(data, config) == false)
+                {
+                    loadConfigValue(data, config, categoryName);
+                }
+            }
+        }
+    }
+
+    protected static <C extends ConfigInfo> boolean isSameValue(JsonElement data, C config)
+    {
+        JsonConfigSerializerRegistry.JsonConfigSerializer<C> serializer = Registry.JSON_CONFIG_SERIALIZER.getSerializer(config);
+        return serializer != null && data.equals(serializer.serializeConfigValue(config));
     }
 
     public static boolean writeConfigs(JsonObject root, ConfigOptionCategory category)
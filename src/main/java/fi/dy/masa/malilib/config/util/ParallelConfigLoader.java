@@ -0,0 +1,90 @@
+package fi.dy.masa.malilib.config.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import fi.dy.masa.malilib.MaLiLib;
+
+/**
+ * Loads config files in two phases. The read tasks (file I/O and parsing) are run
+ * concurrently on a small bounded thread pool, and each of them returns an apply task.
+ * The apply tasks are then run on the calling (main) thread by {@link #applyAll()},
+ * in the same order that the read tasks were added in, so any dependencies
+ * between the different systems are respected.
+ */
+public class ParallelConfigLoader
+{
+    protected static final int THREAD_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    protected static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    protected static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREAD_COUNT, (r) -> {
+        Thread thread = new Thread(r, "MaLiLib Config Loader " + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    protected final List<Future<Runnable>> futures = new ArrayList<>();
+    protected final List<Callable<Runnable>> readTasks = new ArrayList<>();
+
+    /**
+     * Adds and starts a read task. The read task must not modify any shared state,
+     * it should only read and parse the data, and return a task that applies the data.
+     */
+    public ParallelConfigLoader add(Callable<Runnable> readTask)
+    {
+        this.readTasks.add(readTask);
+        this.futures.add(EXECUTOR.submit(readTask));
+        return this;
+    }
+
+    /**
+     * Waits for all the read tasks to finish, and runs their apply tasks on the calling thread,
+     * in the order the read tasks were added in. If a read task failed, then it gets re-run
+     * on the calling thread as a fallback, so that the failure gets handled the same way
+     * as it would have been without the parallel loading.
+     */
+    public void applyAll()
+    {
+        final int size = this.futures.size();
+
+        for (int i = 0; i < size; ++i)
+        {
+            Runnable applyTask;
+
+            try
+            {
+                applyTask = this.futures.get(i).get();
+            }
+            catch (InterruptedException | ExecutionException e)
+            {
+                MaLiLib.LOGGER.warn("Exception while reading configs in parallel, retrying on the main thread", e);
+                applyTask = this.runReadTaskNow(this.readTasks.get(i));
+            }
+
+            if (applyTask != null)
+            {
+                applyTask.run();
+            }
+        }
+
+        this.futures.clear();
+        this.readTasks.clear();
+    }
+
+    protected Runnable runReadTaskNow(Callable<Runnable> readTask)
+    {
+        try
+        {
+            return readTask.call();
+        }
+        catch (Exception e)
+        {
+            MaLiLib.LOGGER.warn("Exception while reading configs", e);
+            return null;
+        }
+    }
+}
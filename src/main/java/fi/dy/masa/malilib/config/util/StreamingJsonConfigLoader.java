@@ -0,0 +1,318 @@
+package fi.dy.masa.malilib.config.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import javax.annotation.Nullable;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import fi.dy.masa.malilib.MaLiLib;
+import fi.dy.masa.malilib.config.category.ConfigOptionCategory;
+import fi.dy.masa.malilib.config.option.ConfigOption;
+import fi.dy.masa.malilib.config.serialization.JsonConfigSerializerRegistry.JsonConfigStreamDeSerializer;
+import fi.dy.masa.malilib.registry.Registry;
+
+/**
+ * A config loader that reads the config file using a streaming JsonReader,
+ * instead of first parsing the entire file into a JsonElement tree.
+ * Each category's options are looked up by a name map that also contains
+ * the old names of the options. The options that have a streaming de-serializer registered
+ * in the {@link fi.dy.masa.malilib.config.serialization.JsonConfigSerializerRegistry}
+ * (such as the list configs) read their values directly from the JsonReader.
+ * Only the values of the other options get parsed into (small) JsonElements,
+ * which are then passed to the normal de-serializers.
+ * The values of unknown keys (for example removed options) are just skipped over.
+ */
+public class StreamingJsonConfigLoader
+{
+    /**
+     * Tries to load the configs from the given file.
+     * @param configVersionHandler called with the config version read from the file.
+     *                             If it returns false, then the loading is aborted, for example
+     *                             because the config data needs to be updated using the JSON tree first.
+     * @return true if the configs were loaded, false if the caller should fall back to
+     *         the JSON tree based {@link JsonConfigUtils#loadFromFile(File, List, java.util.function.BiConsumer)}
+     */
+    public static boolean loadFromFile(File configFile, List<ConfigOptionCategory> categories,
+                                       IntPredicate configVersionHandler)
+    {
+        LoadedConfigData data = readFile(configFile, categories, configVersionHandler);
+
+        if (data != null)
+        {
+            data.apply();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Reads the config values from the given file, but does not apply them to the configs yet.
+     * This can be called from a background thread, as long as the config options
+     * and categories themselves are not being modified at the same time.
+     * @param configVersionHandler called with the config version read from the file.
+     *                             If it returns false, then the reading is aborted.
+     * @return the read data, which can then be applied on the main thread,
+     *         or null if the caller should fall back to the JSON tree based loading
+     */
+    @Nullable
+    public static LoadedConfigData readFile(File configFile, List<ConfigOptionCategory> categories,
+                                            IntPredicate configVersionHandler)
+    {
+        try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(new FileInputStream(configFile), StandardCharsets.UTF_8))))
+        {
+            // Same as the JsonParser used by the tree based loader
+            reader.setLenient(true);
+
+            return readData(reader, categories, configVersionHandler);
+        }
+        catch (Exception e)
+        {
+            MaLiLib.LOGGER.warn("Failed to stream-load the config file '{}', falling back to the normal loader",
+                                configFile.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the config values from the given reader, which can be either reading
+     * the JSON text or some other representation of the same data, see {@link BinaryConfigCache}.
+     * @param configVersionHandler called with the config version read from the data.
+     *                             If it returns false, then the reading is aborted.
+     * @return the read data, or null if the caller should fall back to the JSON tree based loading
+     */
+    @Nullable
+    public static LoadedConfigData readData(JsonReader reader, List<ConfigOptionCategory> categories,
+                                            IntPredicate configVersionHandler) throws IOException
+    {
+        Map<String, CategoryReader> categoryReaders = new LinkedHashMap<>();
+        int configVersion = 0;
+
+        for (ConfigOptionCategory category : categories)
+        {
+            // Duplicate category names are handled by the tree based loader
+            if (categoryReaders.put(category.getName(), new CategoryReader(category)) != null)
+            {
+                return null;
+            }
+        }
+
+        if (reader.peek() != JsonToken.BEGIN_OBJECT)
+        {
+            return null;
+        }
+
+        JsonParser parser = new JsonParser();
+        boolean versionChecked = false;
+
+        reader.beginObject();
+
+        while (reader.hasNext())
+        {
+            String key = reader.nextName();
+
+            if (versionChecked == false)
+            {
+                // The version is normally the first entry in the file. If it isn't, then the
+                // actual version is not known here, so leave those files to the tree based loader.
+                if (key.equals("config_version") == false || reader.peek() != JsonToken.NUMBER)
+                {
+                    return null;
+                }
+
+                configVersion = reader.nextInt();
+
+                if (configVersionHandler.test(configVersion) == false)
+                {
+                    return null;
+                }
+
+                versionChecked = true;
+                continue;
+            }
+
+            CategoryReader categoryReader = categoryReaders.get(key);
+
+            if (categoryReader != null && reader.peek() == JsonToken.BEGIN_OBJECT)
+            {
+                categoryReader.read(reader, parser);
+            }
+            else
+            {
+                reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+
+        return new LoadedConfigData(configVersion, categoryReaders.values());
+    }
+
+    public static class LoadedConfigData
+    {
+        protected final int configVersion;
+        protected final Collection<CategoryReader> categoryReaders;
+
+        protected LoadedConfigData(int configVersion, Collection<CategoryReader> categoryReaders)
+        {
+            this.configVersion = configVersion;
+            this.categoryReaders = categoryReaders;
+        }
+
+        public int getConfigVersion()
+        {
+            return this.configVersion;
+        }
+
+        /**
+         * Applies the read values to the configs. This should be called on the main thread.
+         */
+        public void apply()
+        {
+            for (CategoryReader categoryReader : this.categoryReaders)
+            {
+                categoryReader.apply();
+            }
+        }
+    }
+
+    protected static class CategoryReader
+    {
+        protected final ConfigOptionCategory category;
+        protected final List<? extends ConfigOption<?>> options;
+        protected final Map<String, Integer> optionIndices = new HashMap<>();
+        protected final Map<String, Integer> namePriorities = new HashMap<>();
+        protected final JsonConfigStreamDeSerializer<ConfigOption<?>, Object>[] streamDeSerializers;
+        // Either the values read by the streaming de-serializers, or JsonElements for the normal de-serializers
+        protected final Object[] values;
+        protected final int[] valuePriorities;
+        protected boolean found;
+
+        @SuppressWarnings("unchecked")
+        protected CategoryReader(ConfigOptionCategory category)
+        {
+            this.category = category;
+            this.options = category.getConfigOptions();
+
+            final int size = this.options.size();
+            this.streamDeSerializers = new JsonConfigStreamDeSerializer[size];
+            this.values = new Object[size];
+            this.valuePriorities = new int[size];
+
+            for (int i = 0; i < size; ++i)
+            {
+                this.streamDeSerializers[i] = Registry.JSON_CONFIG_SERIALIZER.getStreamDeSerializer(this.options.get(i));
+            }
+
+            // Add the old names first, so that the current names take precedence
+            // if some option's old name is the same as another option's current name
+            for (int i = 0; i < size; ++i)
+            {
+                List<String> oldNames = this.options.get(i).getOldNames();
+
+                for (int j = oldNames.size() - 1; j >= 0; --j)
+                {
+                    this.optionIndices.put(oldNames.get(j), i);
+                    this.namePriorities.put(oldNames.get(j), j + 1);
+                }
+            }
+
+            for (int i = 0; i < size; ++i)
+            {
+                String name = this.options.get(i).getName();
+                this.optionIndices.put(name, i);
+                this.namePriorities.put(name, 0);
+            }
+        }
+
+        protected void read(JsonReader reader, JsonParser parser) throws IOException
+        {
+            this.found = true;
+
+            reader.beginObject();
+
+            while (reader.hasNext())
+            {
+                String name = reader.nextName();
+                Integer index = this.optionIndices.get(name);
+
+                if (index != null)
+                {
+                    int priority = this.namePriorities.get(name);
+
+                    // The current name is preferred over the old names, and earlier old names over later ones
+                    if (this.values[index] == null || priority < this.valuePriorities[index])
+                    {
+                        this.values[index] = this.readValue(index, reader, parser);
+                        this.valuePriorities[index] = priority;
+                        continue;
+                    }
+                }
+
+                reader.skipValue();
+            }
+
+            reader.endObject();
+        }
+
+        protected Object readValue(int index, JsonReader reader, JsonParser parser) throws IOException
+        {
+            JsonConfigStreamDeSerializer<ConfigOption<?>, Object> deSerializer = this.streamDeSerializers[index];
+
+            if (deSerializer != null)
+            {
+                Object value = deSerializer.readConfigValue(this.options.get(index), reader);
+
+                if (value != null)
+                {
+                    return value;
+                }
+            }
+
+            return parser.parse(reader);
+        }
+
+        protected void apply()
+        {
+            if (this.found == false)
+            {
+                for (ConfigOption<?> config : this.options)
+                {
+                    config.resetToDefault();
+                }
+
+                return;
+            }
+
+            String categoryName = this.category.getName();
+            final int size = this.options.size();
+
+            for (int i = 0; i < size; ++i)
+            {
+                Object value = this.values[i];
+                ConfigOption<?> config = this.options.get(i);
+
+                if (value == null || value instanceof JsonElement)
+                {
+                    JsonConfigUtils.loadConfigValue((JsonElement) value, config, categoryName);
+                }
+                else
+                {
+                    this.streamDeSerializers[i].applyConfigValue(config, value, config.getName());
+                }
+            }
+        }
+    }
+}
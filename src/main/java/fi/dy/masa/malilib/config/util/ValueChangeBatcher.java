@@ -0,0 +1,104 @@
+package fi.dy.masa.malilib.config.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import fi.dy.masa.malilib.config.option.BaseConfigOption;
+
+/**
+ * Collects the value changes of the config options that use batched value change notifications
+ * (see {@link BaseConfigOption#setBatchedValueChangeNotifications(boolean)}), and delivers them
+ * once per client tick. For each option, the delivered change has the old value from before
+ * the first change since the last delivery, and the latest new value.
+ * The changes are delivered at the end of every client tick, also when no world is loaded,
+ * and before the world changes and the game shutting down.
+ * If the value was changed back to the original value, then nothing is delivered.
+ * This should only be used from the main thread.
+ */
+public class ValueChangeBatcher
+{
+    public static final ValueChangeBatcher INSTANCE = new ValueChangeBatcher();
+
+    protected final Map<BaseConfigOption<?>, PendingChange<?>> pendingChanges = new LinkedHashMap<>();
+
+    /**
+     * Records a value change to be delivered on the next flush
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void addChange(BaseConfigOption<T> config, T newValue, T oldValue)
+    {
+        PendingChange<T> change = (PendingChange<T>) this.pendingChanges.get(config);
+
+        if (change != null)
+        {
+            change.newValue = newValue;
+        }
+        else
+        {
+            this.pendingChanges.put(config, new PendingChange<>(config, newValue, oldValue));
+        }
+    }
+
+    public boolean hasPendingChanges()
+    {
+        return this.pendingChanges.isEmpty() == false;
+    }
+
+    /**
+     * Immediately delivers the pending value change of the given config, if there is one
+     */
+    public void flush(BaseConfigOption<?> config)
+    {
+        PendingChange<?> change = this.pendingChanges.remove(config);
+
+        if (change != null)
+        {
+            change.deliver();
+        }
+    }
+
+    /**
+     * Immediately delivers all the pending value changes.
+     * This is called automatically at the end of each client tick.
+     */
+    public void flushAll()
+    {
+        if (this.pendingChanges.isEmpty())
+        {
+            return;
+        }
+
+        // The callbacks may change other values, those changes then get delivered on the next flush
+        List<PendingChange<?>> changes = new ArrayList<>(this.pendingChanges.values());
+        this.pendingChanges.clear();
+
+        for (PendingChange<?> change : changes)
+        {
+            change.deliver();
+        }
+    }
+
+    protected static class PendingChange<T>
+    {
+        protected final BaseConfigOption<T> config;
+        protected final T oldValue;
+        protected T newValue;
+
+        protected PendingChange(BaseConfigOption<T> config, T newValue, T oldValue)
+        {
+            this.config = config;
+            this.newValue = newValue;
+            this.oldValue = oldValue;
+        }
+
+        protected void deliver()
+        {
+            if (Objects.equals(this.newValue, this.oldValue) == false)
+            {
+                this.config.dispatchValueChange(this.newValue, this.oldValue);
+            }
+        }
+    }
+}
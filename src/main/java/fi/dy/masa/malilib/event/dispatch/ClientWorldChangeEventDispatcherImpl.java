@@ -7,7 +7,9 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.WorldClient;
 import fi.dy.masa.malilib.config.util.ConfigOverrideUtils;
 import fi.dy.masa.malilib.config.util.ConfigUtils;
+import fi.dy.masa.malilib.config.util.ValueChangeBatcher;
 import fi.dy.masa.malilib.event.ClientWorldChangeHandler;
+import fi.dy.masa.malilib.network.PacketSplitter;
 
 public class ClientWorldChangeEventDispatcherImpl implements ClientWorldChangeEventDispatcher
 {
@@ -37,6 +39,9 @@ public class ClientWorldChangeEventDispatcherImpl implements ClientWorldChangeEv
      */
     public void onWorldLoadPre(@Nullable WorldClient worldBefore, @Nullable WorldClient worldAfter, Minecraft mc)
     {
+        // Deliver the batched config value changes while the old world is still loaded
+        ValueChangeBatcher.INSTANCE.flushAll();
+
         if (this.worldChangeHandlers.isEmpty() == false)
         {
             for (ClientWorldChangeHandler listener : this.worldChangeHandlers)
@@ -75,6 +80,7 @@ public class ClientWorldChangeEventDispatcherImpl implements ClientWorldChangeEv
     {
         ConfigOverrideUtils.resetConfigOverrides();
         ConfigUtils.saveAllConfigsToFileIfDirty();
+        PacketSplitter.clearSessions();
     }
 
     protected void onEnterWorld()
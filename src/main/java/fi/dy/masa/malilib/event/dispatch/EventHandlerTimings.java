@@ -0,0 +1,193 @@
+package fi.dy.masa.malilib.event.dispatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Keeps track of the execution times of the event handlers called by the tick and render event dispatchers.
+ * For each handler the last {@link #SAMPLE_COUNT} durations are kept in a ring buffer,
+ * from which the rolling mean, the 99th percentile and the maximum are calculated on demand.
+ * The recording only costs two {@link System#nanoTime()} calls per handler call.
+ * The samples are recorded on the main thread, the queries should also be done on the main thread.
+ */
+public class EventHandlerTimings
+{
+    public static final int SAMPLE_COUNT = 256;
+
+    protected final List<HandlerTiming> timings = new ArrayList<>();
+    protected ImmutableList<HandlerTiming> timingsImmutable = ImmutableList.of();
+
+    /**
+     * Creates a new timing record for the given handler.
+     * NOT PUBLIC API - this is called by the event dispatchers when the handlers are registered.
+     * @param eventType the name of the event type, for example "client_tick"
+     * @param nameSupplier the supplier for the display name of the handler
+     */
+    public HandlerTiming createTiming(String eventType, Supplier<String> nameSupplier)
+    {
+        HandlerTiming timing = new HandlerTiming(eventType, nameSupplier);
+        this.timings.add(timing);
+        this.timingsImmutable = ImmutableList.copyOf(this.timings);
+        return timing;
+    }
+
+    /**
+     * @return the timing records of all the registered event handlers, in the registration order
+     */
+    public ImmutableList<HandlerTiming> getTimings()
+    {
+        return this.timingsImmutable;
+    }
+
+    /**
+     * Clears the recorded samples of all the handlers
+     */
+    public void reset()
+    {
+        for (HandlerTiming timing : this.timings)
+        {
+            timing.reset();
+        }
+    }
+
+    public static class HandlerTiming
+    {
+        protected final String eventType;
+        protected final Supplier<String> nameSupplier;
+        protected final long[] samples = new long[SAMPLE_COUNT];
+        protected int nextIndex;
+        protected int sampleCount;
+        protected long sampleSum;
+        protected long totalCallCount;
+        protected long allTimeMax;
+
+        protected HandlerTiming(String eventType, Supplier<String> nameSupplier)
+        {
+            this.eventType = eventType;
+            this.nameSupplier = nameSupplier;
+        }
+
+        public String getEventType()
+        {
+            return this.eventType;
+        }
+
+        public String getName()
+        {
+            return this.nameSupplier.get();
+        }
+
+        /**
+         * Records one execution time sample
+         */
+        public void addSample(long durationNanos)
+        {
+            // Keep a running sum of the samples in the buffer, so that the mean is cheap to get
+            this.sampleSum += durationNanos - this.samples[this.nextIndex];
+            this.samples[this.nextIndex] = durationNanos;
+            this.nextIndex = (this.nextIndex + 1) % SAMPLE_COUNT;
+            this.sampleCount = Math.min(this.sampleCount + 1, SAMPLE_COUNT);
+            this.allTimeMax = Math.max(this.allTimeMax, durationNanos);
+            ++this.totalCallCount;
+        }
+
+        public void reset()
+        {
+            Arrays.fill(this.samples, 0L);
+            this.nextIndex = 0;
+            this.sampleCount = 0;
+            this.sampleSum = 0L;
+            this.totalCallCount = 0L;
+            this.allTimeMax = 0L;
+        }
+
+        /**
+         * @return the number of samples currently in the ring buffer
+         */
+        public int getSampleCount()
+        {
+            return this.sampleCount;
+        }
+
+        public long getTotalCallCount()
+        {
+            return this.totalCallCount;
+        }
+
+        /**
+         * @return the mean of the recent samples, in nanoseconds
+         */
+        public double getMeanNanos()
+        {
+            return this.sampleCount > 0 ? (double) this.sampleSum / (double) this.sampleCount : 0.0;
+        }
+
+        /**
+         * @return the maximum of the recent samples, in nanoseconds
+         */
+        public long getMaxNanos()
+        {
+            long max = 0L;
+
+            for (int i = 0; i < this.sampleCount; ++i)
+            {
+                max = Math.max(max, this.samples[i]);
+            }
+
+            return max;
+        }
+
+        /**
+         * @return the maximum of all the samples since the last reset, in nanoseconds
+         */
+        public long getAllTimeMaxNanos()
+        {
+            return this.allTimeMax;
+        }
+
+        /**
+         * @return the 99th percentile of the recent samples, in nanoseconds
+         */
+        public long getP99Nanos()
+        {
+            return this.getPercentileNanos(0.99);
+        }
+
+        /**
+         * @param percentile the percentile to get, from 0.0 to 1.0
+         * @return the given percentile of the recent samples, in nanoseconds
+         */
+        public long getPercentileNanos(double percentile)
+        {
+            if (this.sampleCount == 0)
+            {
+                return 0L;
+            }
+
+            long[] sorted = Arrays.copyOf(this.samples, this.sampleCount);
+            Arrays.sort(sorted);
+
+            int index = (int) Math.ceil(percentile * this.sampleCount) - 1;
+            return sorted[Math.max(0, Math.min(index, this.sampleCount - 1))];
+        }
+
+        /**
+         * @return a copy of the recent samples, in nanoseconds, ordered from the oldest to the newest
+         */
+        public long[] getRecentSamples()
+        {
+            long[] arr = new long[this.sampleCount];
+            int start = this.sampleCount < SAMPLE_COUNT ? 0 : this.nextIndex;
+
+            for (int i = 0; i < this.sampleCount; ++i)
+            {
+                arr[i] = this.samples[(start + i) % SAMPLE_COUNT];
+            }
+
+            return arr;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import fi.dy.masa.malilib.config.util.ConfigUtils;
 import fi.dy.masa.malilib.event.InitializationHandler;
+import fi.dy.masa.malilib.gui.config.ConfigSearchIndex;
 
 public class InitializationDispatcherImpl implements InitializationDispatcher
 {
@@ -36,5 +37,7 @@ public class InitializationDispatcherImpl implements InitializationDispatcher
         }
 
         ConfigUtils.loadAllConfigsFromFile();
+        ConfigSearchIndex.INSTANCE.scheduleRebuild();
+        ConfigSearchIndex.INSTANCE.registerReloadListener();
     }
 }
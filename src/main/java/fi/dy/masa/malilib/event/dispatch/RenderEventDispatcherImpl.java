@@ -8,6 +8,7 @@ import fi.dy.masa.malilib.event.PostGameOverlayRenderer;
 import fi.dy.masa.malilib.event.PostItemTooltipRenderer;
 import fi.dy.masa.malilib.event.PostScreenRenderer;
 import fi.dy.masa.malilib.event.PostWorldRenderer;
+import fi.dy.masa.malilib.registry.Registry;
 
 public class RenderEventDispatcherImpl implements RenderEventDispatcher
 {
@@ -15,6 +16,10 @@ public class RenderEventDispatcherImpl implements RenderEventDispatcher
     private final List<PostScreenRenderer> screenPostRenderers = new ArrayList<>();
     private final List<PostItemTooltipRenderer> tooltipLastRenderers = new ArrayList<>();
     private final List<PostWorldRenderer> worldLastRenderers = new ArrayList<>();
+    private final List<EventHandlerTimings.HandlerTiming> overlayTimings = new ArrayList<>();
+    private final List<EventHandlerTimings.HandlerTiming> screenPostTimings = new ArrayList<>();
+    private final List<EventHandlerTimings.HandlerTiming> tooltipLastTimings = new ArrayList<>();
+    private final List<EventHandlerTimings.HandlerTiming> worldLastTimings = new ArrayList<>();
 
     @Override
     public void registerGameOverlayRenderer(PostGameOverlayRenderer renderer)
@@ -22,6 +27,7 @@ public class RenderEventDispatcherImpl implements RenderEventDispatcher
         if (this.overlayRenderers.contains(renderer) == false)
         {
             this.overlayRenderers.add(renderer);
+            this.overlayTimings.add(Registry.EVENT_HANDLER_TIMINGS.createTiming("game_overlay_last", renderer.getProfilerSectionSupplier()));
         }
     }
 
@@ -31,6 +37,7 @@ public class RenderEventDispatcherImpl implements RenderEventDispatcher
         if (this.screenPostRenderers.contains(renderer) == false)
         {
             this.screenPostRenderers.add(renderer);
+            this.screenPostTimings.add(Registry.EVENT_HANDLER_TIMINGS.createTiming("screen_post", renderer.getProfilerSectionSupplier()));
         }
     }
 
@@ -40,6 +47,7 @@ public class RenderEventDispatcherImpl implements RenderEventDispatcher
         if (this.tooltipLastRenderers.contains(renderer) == false)
         {
             this.tooltipLastRenderers.add(renderer);
+            this.tooltipLastTimings.add(Registry.EVENT_HANDLER_TIMINGS.createTiming("tooltip_last", renderer.getProfilerSectionSupplier()));
         }
     }
 
@@ -49,6 +57,7 @@ public class RenderEventDispatcherImpl implements RenderEventDispatcher
         if (this.worldLastRenderers.contains(renderer) == false)
         {
             this.worldLastRenderers.add(renderer);
+            this.worldLastTimings.add(Registry.EVENT_HANDLER_TIMINGS.createTiming("world_last", renderer.getProfilerSectionSupplier()));
         }
     }
 
@@ -61,10 +70,15 @@ public class RenderEventDispatcherImpl implements RenderEventDispatcher
         {
             mc.profiler.startSection("malilib_game_overlay_last");
 
-            for (PostGameOverlayRenderer renderer : this.overlayRenderers)
+            final int size = this.overlayRenderers.size();
+
+            for (int i = 0; i < size; ++i)
             {
+                PostGameOverlayRenderer renderer = this.overlayRenderers.get(i);
                 mc.profiler.func_194340_a(renderer.getProfilerSectionSupplier());
+                long startTime = System.nanoTime();
                 renderer.onPostGameOverlayRender(mc, partialTicks);
+                this.overlayTimings.get(i).addSample(System.nanoTime() - startTime);
                 mc.profiler.endSection();
             }
 
@@ -81,10 +95,15 @@ public class RenderEventDispatcherImpl implements RenderEventDispatcher
         {
             mc.profiler.startSection("malilib_screen_post");
 
-            for (PostScreenRenderer renderer : this.screenPostRenderers)
+            final int size = this.screenPostRenderers.size();
+
+            for (int i = 0; i < size; ++i)
             {
+                PostScreenRenderer renderer = this.screenPostRenderers.get(i);
                 mc.profiler.func_194340_a(renderer.getProfilerSectionSupplier());
+                long startTime = System.nanoTime();
                 renderer.onPostScreenRender(mc, partialTicks);
+                this.screenPostTimings.get(i).addSample(System.nanoTime() - startTime);
                 mc.profiler.endSection();
             }
 
@@ -101,10 +120,15 @@ public class RenderEventDispatcherImpl implements RenderEventDispatcher
         {
             mc.profiler.startSection("malilib_tooltip_last");
 
-            for (PostItemTooltipRenderer renderer : this.tooltipLastRenderers)
+            final int size = this.tooltipLastRenderers.size();
+
+            for (int i = 0; i < size; ++i)
             {
+                PostItemTooltipRenderer renderer = this.tooltipLastRenderers.get(i);
                 mc.profiler.func_194340_a(renderer.getProfilerSectionSupplier());
+                long startTime = System.nanoTime();
                 renderer.onPostRenderItemTooltip(stack, x, y, mc);
+                this.tooltipLastTimings.get(i).addSample(System.nanoTime() - startTime);
                 mc.profiler.endSection();
             }
 
@@ -121,10 +145,15 @@ public class RenderEventDispatcherImpl implements RenderEventDispatcher
         {
             mc.profiler.startSection("malilib_world_last");
 
-            for (PostWorldRenderer renderer : this.worldLastRenderers)
+            final int size = this.worldLastRenderers.size();
+
+            for (int i = 0; i < size; ++i)
             {
+                PostWorldRenderer renderer = this.worldLastRenderers.get(i);
                 mc.profiler.func_194340_a(renderer.getProfilerSectionSupplier());
+                long startTime = System.nanoTime();
                 renderer.onPostWorldRender(mc, partialTicks);
+                this.worldLastTimings.get(i).addSample(System.nanoTime() - startTime);
                 mc.profiler.endSection();
             }
 
@@ -3,11 +3,14 @@ package fi.dy.masa.malilib.event.dispatch;
 import java.util.ArrayList;
 import java.util.List;
 import net.minecraft.client.Minecraft;
+import fi.dy.masa.malilib.config.util.ValueChangeBatcher;
 import fi.dy.masa.malilib.event.ClientTickHandler;
+import fi.dy.masa.malilib.registry.Registry;
 
 public class TickEventDispatcherImpl implements TickEventDispatcher
 {
     protected final List<ClientTickHandler> clientTickHandlers = new ArrayList<>();
+    protected final List<EventHandlerTimings.HandlerTiming> clientTickTimings = new ArrayList<>();
 
     public TickEventDispatcherImpl()
     {
@@ -19,6 +22,7 @@ public class TickEventDispatcherImpl implements TickEventDispatcher
         if (this.clientTickHandlers.contains(handler) == false)
         {
             this.clientTickHandlers.add(handler);
+            this.clientTickTimings.add(Registry.EVENT_HANDLER_TIMINGS.createTiming("client_tick", handler.getProfilerSectionSupplier()));
         }
     }
 
@@ -31,14 +35,36 @@ public class TickEventDispatcherImpl implements TickEventDispatcher
         {
             mc.profiler.startSection("malilib_client_tick");
 
-            for (ClientTickHandler handler : this.clientTickHandlers)
+            final int size = this.clientTickHandlers.size();
+
+            for (int i = 0; i < size; ++i)
             {
+                ClientTickHandler handler = this.clientTickHandlers.get(i);
                 mc.profiler.func_194340_a(handler.getProfilerSectionSupplier());
+                long startTime = System.nanoTime();
                 handler.onClientTick(mc);
+                this.clientTickTimings.get(i).addSample(System.nanoTime() - startTime);
                 mc.profiler.endSection();
             }
 
             mc.profiler.endSection();
         }
+
+        if (Registry.CLIENT_TASK_SCHEDULER.hasTasks())
+        {
+            mc.profiler.startSection("malilib_scheduled_tasks");
+            Registry.CLIENT_TASK_SCHEDULER.runTasks();
+            mc.profiler.endSection();
+        }
+    }
+
+    /**
+     * NOT PUBLIC API - DO NOT CALL
+     * Called at the end of every client tick, also when there is no world loaded
+     */
+    public void onPostClientTick()
+    {
+        // Deliver the batched config value changes, for example from the config screens in the main menu
+        ValueChangeBatcher.INSTANCE.flushAll();
     }
 }
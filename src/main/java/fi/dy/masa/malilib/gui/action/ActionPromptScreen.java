@@ -128,6 +128,7 @@ public class ActionPromptScreen extends BaseListScreen<DataListWidget<NamedActio
 
             if (action != null)
             {
+                ActionSearchIndex.INSTANCE.markAsUsed(action);
                 action.execute();
             }
         }
@@ -160,6 +161,15 @@ public class ActionPromptScreen extends BaseListScreen<DataListWidget<NamedActio
         return MaLiLibConfigs.Generic.ACTION_PROMPT_FUZZY_SEARCH.getBooleanValue();
     }
 
+    protected boolean shouldSearchDisplayName()
+    {
+        return MaLiLibConfigs.Generic.ACTION_PROMPT_SEARCH_DISPLAY_NAME.getBooleanValue();
+    }
+
+    /**
+     * @deprecated The list filtering uses the ranked {@link ActionSearchIndex} and no longer calls this method
+     */
+    @Deprecated
     protected boolean stringMatchesSearch(String searchTerm, String text)
     {
         if (this.shouldUseFuzzySearch())
@@ -170,6 +180,13 @@ public class ActionPromptScreen extends BaseListScreen<DataListWidget<NamedActio
         return text.contains(searchTerm);
     }
 
+    /**
+     * Checks a single action against the search text.
+     * @deprecated The list filtering in {@link #updateFilteredList(String)} uses the ranked
+     *             {@link ActionSearchIndex} built from {@link #getActions()}, and no longer calls this method.
+     *             Overriding this has no effect on the filtering.
+     */
+    @Deprecated
     protected boolean actionMatchesSearch(String searchText, NamedAction action)
     {
         if (this.stringMatchesSearch(searchText, action.getName().toLowerCase(Locale.ROOT)))
@@ -177,7 +194,7 @@ public class ActionPromptScreen extends BaseListScreen<DataListWidget<NamedActio
             return true;
         }
 
-        return MaLiLibConfigs.Generic.ACTION_PROMPT_SEARCH_DISPLAY_NAME.getBooleanValue() &&
+        return this.shouldSearchDisplayName() &&
                this.stringMatchesSearch(searchText, action.getDisplayName().toLowerCase(Locale.ROOT));
     }
 
@@ -196,15 +213,10 @@ public class ActionPromptScreen extends BaseListScreen<DataListWidget<NamedActio
         }
         else
         {
+            String key = this.dropDownWidget.getSelectedEntry().getName();
+            ActionSearchIndex.Index index = ActionSearchIndex.INSTANCE.getIndex(key, this.getActions());
             searchText = searchText.toLowerCase(Locale.ROOT);
-
-            for (NamedAction action : this.getActions())
-            {
-                if (this.actionMatchesSearch(searchText, action))
-                {
-                    this.filteredActions.add(action);
-                }
-            }
+            index.search(searchText, this.shouldUseFuzzySearch(), this.shouldSearchDisplayName(), this.filteredActions);
         }
 
         this.getListWidget().refreshEntries();
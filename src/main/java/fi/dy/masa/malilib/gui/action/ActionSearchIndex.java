@@ -0,0 +1,429 @@
+package fi.dy.masa.malilib.gui.action;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import fi.dy.masa.malilib.action.ActionList;
+import fi.dy.masa.malilib.action.NamedAction;
+import fi.dy.masa.malilib.util.TrigramUtils;
+
+/**
+ * A search index for the action prompt. For each action list the lower case names and display names
+ * of the actions are cached, along with the trigram postings used for the contiguous search mode,
+ * and the character masks and word start positions used for the fuzzy search mode.
+ * In the contiguous search mode only the candidates found via the trigram postings get scored.
+ * The indices are re-built when the actions in the registry change.
+ * <br>
+ * The search results are scored and ranked, so that contiguous matches, matches at word starts
+ * (including camelCase humps) and recently used actions come first.
+ * This should only be used from the main thread.
+ */
+public class ActionSearchIndex
+{
+    public static final ActionSearchIndex INSTANCE = new ActionSearchIndex();
+
+    protected static final int MAX_RECENT_ACTIONS = 32;
+    protected static final int NO_MATCH = Integer.MIN_VALUE;
+    protected static final int SCORE_OFFSET = 1 << 20;
+
+    protected final Map<String, Index> indices = new HashMap<>();
+    protected final LinkedHashSet<String> recentActions = new LinkedHashSet<>();
+
+    /**
+     * Returns the search index for the given action list. The index is re-built if the
+     * actions in the list have changed since the last time.
+     */
+    public Index getIndex(ActionList actionList)
+    {
+        return this.getIndex(actionList.getName(), actionList.getActions());
+    }
+
+    /**
+     * Returns the search index for the given actions, cached by the given key.
+     * The index is re-built if the given list is not the same list instance as last time.
+     */
+    public Index getIndex(String key, List<? extends NamedAction> actions)
+    {
+        Index index = this.indices.get(key);
+
+        // The registry re-creates the (immutable) lists when the actions change
+        if (index == null || index.actions != actions)
+        {
+            index = new Index(actions);
+            this.indices.put(key, index);
+        }
+
+        return index;
+    }
+
+    /**
+     * Clears all the cached indices. This is called when the actions in the registry change.
+     */
+    public void invalidate()
+    {
+        this.indices.clear();
+    }
+
+    /**
+     * Marks the given action as the most recently used action,
+     * which gives it a boost in the search result ranking.
+     */
+    public void markAsUsed(NamedAction action)
+    {
+        String name = action.getRegistryName();
+
+        this.recentActions.remove(name);
+        this.recentActions.add(name);
+
+        if (this.recentActions.size() > MAX_RECENT_ACTIONS)
+        {
+            Iterator<String> iter = this.recentActions.iterator();
+            iter.next();
+            iter.remove();
+        }
+    }
+
+    /**
+     * @return the recency bonus for the given action, which is larger for more recently used actions,
+     *         or 0 if the action has not been used recently
+     */
+    protected int getRecencyBonus(NamedAction action)
+    {
+        String name = action.getRegistryName();
+
+        if (this.recentActions.contains(name) == false)
+        {
+            return 0;
+        }
+
+        int position = 0;
+
+        for (String str : this.recentActions)
+        {
+            ++position;
+
+            if (str.equals(name))
+            {
+                break;
+            }
+        }
+
+        // The oldest entry is first in the set
+        return 8 + position * 16 / this.recentActions.size();
+    }
+
+    public class Index
+    {
+        protected final List<? extends NamedAction> actions;
+        protected final String[] names;
+        protected final String[] displayNames;
+        protected final long[] nameCharMasks;
+        protected final long[] displayNameCharMasks;
+        protected final boolean[][] nameWordStarts;
+        protected final boolean[][] displayNameWordStarts;
+        protected final Long2ObjectMap<int[]> namePostings;
+        protected final Long2ObjectMap<int[]> displayNamePostings;
+
+        protected Index(List<? extends NamedAction> actions)
+        {
+            final int size = actions.size();
+            Long2ObjectOpenHashMap<IntArrayList> tmpNamePostings = new Long2ObjectOpenHashMap<>();
+            Long2ObjectOpenHashMap<IntArrayList> tmpDisplayNamePostings = new Long2ObjectOpenHashMap<>();
+
+            this.actions = actions;
+            this.names = new String[size];
+            this.displayNames = new String[size];
+            this.nameCharMasks = new long[size];
+            this.displayNameCharMasks = new long[size];
+            this.nameWordStarts = new boolean[size][];
+            this.displayNameWordStarts = new boolean[size][];
+
+            for (int i = 0; i < size; ++i)
+            {
+                NamedAction action = actions.get(i);
+                String name = action.getName();
+                String displayName = action.getDisplayName();
+
+                this.names[i] = name.toLowerCase(Locale.ROOT);
+                this.displayNames[i] = displayName.toLowerCase(Locale.ROOT);
+                this.nameCharMasks[i] = getCharMask(this.names[i]);
+                this.displayNameCharMasks[i] = getCharMask(this.displayNames[i]);
+                this.nameWordStarts[i] = getWordStarts(name, this.names[i]);
+                this.displayNameWordStarts[i] = getWordStarts(displayName, this.displayNames[i]);
+
+                TrigramUtils.addTrigrams(this.names[i], i, tmpNamePostings);
+                TrigramUtils.addTrigrams(this.displayNames[i], i, tmpDisplayNamePostings);
+            }
+
+            this.namePostings = TrigramUtils.toPostings(tmpNamePostings);
+            this.displayNamePostings = TrigramUtils.toPostings(tmpDisplayNamePostings);
+        }
+
+        public List<? extends NamedAction> getActions()
+        {
+            return this.actions;
+        }
+
+        /**
+         * Adds the actions matching the given search text to the results list, ordered by their score,
+         * and by the list order for equal scores.
+         * @param searchText the lower case search text
+         * @param fuzzy if true, then the characters of the search text only need to appear in the same order,
+         *              otherwise the search text needs to appear as-is
+         * @param searchDisplayName if true, then the display names are also searched
+         */
+        public void search(String searchText, boolean fuzzy, boolean searchDisplayName, List<NamedAction> results)
+        {
+            final long searchMask = getCharMask(searchText);
+            int[] candidates = fuzzy ? null : this.getCandidates(searchText, searchDisplayName);
+            final int size = candidates != null ? candidates.length : this.actions.size();
+            long[] sortKeys = new long[size];
+            int count = 0;
+
+            for (int c = 0; c < size; ++c)
+            {
+                int i = candidates != null ? candidates[c] : c;
+                int score = this.getScore(i, searchText, searchMask, fuzzy, searchDisplayName);
+
+                if (score != NO_MATCH)
+                {
+                    score += ActionSearchIndex.this.getRecencyBonus(this.actions.get(i));
+
+                    // Higher scores sort first, and within the same score the list order is kept
+                    sortKeys[count++] = ((long) (SCORE_OFFSET - score) << 32) | i;
+                }
+            }
+
+            Arrays.sort(sortKeys, 0, count);
+
+            for (int i = 0; i < count; ++i)
+            {
+                results.add(this.actions.get((int) (sortKeys[i] & 0xFFFFFFFFL)));
+            }
+        }
+
+        /**
+         * @return the sorted indices of the actions whose name (or display name) contains all the trigrams
+         *         of the search text, or null if the search text is too short for the trigram lookup
+         */
+        @Nullable
+        protected int[] getCandidates(String searchText, boolean searchDisplayName)
+        {
+            int[] candidates = TrigramUtils.getCandidates(this.namePostings, searchText);
+
+            if (candidates != null && searchDisplayName)
+            {
+                candidates = TrigramUtils.union(candidates, TrigramUtils.getCandidates(this.displayNamePostings, searchText));
+            }
+
+            return candidates;
+        }
+
+        protected int getScore(int index, String searchText, long searchMask, boolean fuzzy, boolean searchDisplayName)
+        {
+            int score = NO_MATCH;
+
+            if ((this.nameCharMasks[index] & searchMask) == searchMask)
+            {
+                score = getMatchScore(searchText, this.names[index], this.nameWordStarts[index], fuzzy);
+            }
+
+            if (searchDisplayName && (this.displayNameCharMasks[index] & searchMask) == searchMask)
+            {
+                int displayNameScore = getMatchScore(searchText, this.displayNames[index],
+                                                     this.displayNameWordStarts[index], fuzzy);
+
+                // Prefer name matches over equally good display name matches
+                if (displayNameScore != NO_MATCH)
+                {
+                    score = Math.max(score, displayNameScore - 1);
+                }
+            }
+
+            return score;
+        }
+    }
+
+    /**
+     * Scores a match of the needle in the haystack. Each matched character gives a point,
+     * with bonus points for contiguous runs, for matches at word starts and for an early first match.
+     * @return the score, or NO_MATCH if the haystack doesn't match
+     */
+    protected static int getMatchScore(String needle, String haystack, boolean[] wordStarts, boolean fuzzy)
+    {
+        final int needleLength = needle.length();
+
+        if (fuzzy == false)
+        {
+            int pos = haystack.indexOf(needle);
+
+            if (pos == -1)
+            {
+                return NO_MATCH;
+            }
+
+            int firstPos = pos;
+
+            // Prefer an occurrence at a word start
+            while (pos != -1 && wordStarts[pos] == false)
+            {
+                pos = haystack.indexOf(needle, pos + 1);
+            }
+
+            int score = needleLength * 4;
+
+            if (pos != -1)
+            {
+                score += pos == 0 ? 16 : 8;
+
+                if (pos == 0 && haystack.length() == needleLength)
+                {
+                    score += 32;
+                }
+            }
+
+            return score - Math.min(firstPos, 8);
+        }
+
+        int score = 0;
+        int lastPos = -2;
+        int firstPos = -1;
+
+        for (int i = 0; i < needleLength; ++i)
+        {
+            char c = needle.charAt(i);
+            int pos = haystack.indexOf(c, lastPos + 1);
+
+            if (pos == -1)
+            {
+                return NO_MATCH;
+            }
+
+            // If the match doesn't continue the current run, then try to find a word start match instead
+            if (pos != lastPos + 1 && wordStarts[pos] == false)
+            {
+                int wordStartPos = pos;
+
+                while (wordStartPos != -1 && wordStarts[wordStartPos] == false)
+                {
+                    wordStartPos = haystack.indexOf(c, wordStartPos + 1);
+                }
+
+                // Only jump ahead if the rest of the needle can still be matched after it
+                if (wordStartPos != -1 && containsOrderedCharacters(needle, i + 1, haystack, wordStartPos + 1))
+                {
+                    pos = wordStartPos;
+                }
+            }
+
+            score += 1;
+
+            if (pos == lastPos + 1)
+            {
+                score += 3;
+            }
+
+            if (wordStarts[pos])
+            {
+                score += pos == 0 ? 6 : 4;
+            }
+
+            if (firstPos == -1)
+            {
+                firstPos = pos;
+            }
+
+            lastPos = pos;
+        }
+
+        return score - Math.min(firstPos, 8);
+    }
+
+    protected static boolean containsOrderedCharacters(String needle, int needleStart, String haystack, int haystackStart)
+    {
+        final int needleLength = needle.length();
+
+        for (int i = needleStart; i < needleLength; ++i)
+        {
+            haystackStart = haystack.indexOf(needle.charAt(i), haystackStart);
+
+            if (haystackStart == -1)
+            {
+                return false;
+            }
+
+            ++haystackStart;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return an array which has a true value at the indices where a new word starts in the given
+     *         original case string. A word starts at the beginning of the string, after a non-alphanumeric
+     *         character, and at an upper case letter after a lower case letter or a digit.
+     */
+    protected static boolean[] getWordStarts(String str, String lowerCaseStr)
+    {
+        // Some characters change length when lower cased, so then the camelCase humps can't be used
+        if (str.length() != lowerCaseStr.length())
+        {
+            str = lowerCaseStr;
+        }
+
+        final int length = str.length();
+        boolean[] wordStarts = new boolean[length];
+
+        for (int i = 0; i < length; ++i)
+        {
+            char c = str.charAt(i);
+
+            if (i == 0)
+            {
+                wordStarts[i] = true;
+            }
+            else if (Character.isLetterOrDigit(c))
+            {
+                char prev = str.charAt(i - 1);
+
+                wordStarts[i] = Character.isLetterOrDigit(prev) == false ||
+                                (Character.isUpperCase(c) && Character.isUpperCase(prev) == false);
+            }
+        }
+
+        return wordStarts;
+    }
+
+    /**
+     * @return a bit mask of the letters and digits present in the given lower case string
+     */
+    protected static long getCharMask(String str)
+    {
+        long mask = 0L;
+        final int length = str.length();
+
+        for (int i = 0; i < length; ++i)
+        {
+            char c = str.charAt(i);
+
+            if (c >= 'a' && c <= 'z')
+            {
+                mask |= 1L << (c - 'a');
+            }
+            else if (c >= '0' && c <= '9')
+            {
+                mask |= 1L << (c - '0' + 26);
+            }
+        }
+
+        return mask;
+    }
+}
@@ -0,0 +1,359 @@
+package fi.dy.masa.malilib.gui.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.IReloadableResourceManager;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.IResourceManagerReloadListener;
+import fi.dy.masa.malilib.MaLiLib;
+import fi.dy.masa.malilib.config.option.ConfigInfo;
+import fi.dy.masa.malilib.registry.Registry;
+import fi.dy.masa.malilib.util.TrigramUtils;
+import fi.dy.masa.malilib.util.data.ConfigOnTab;
+
+/**
+ * A global search index of the configs on all the registered config tabs, used for the
+ * "all mods" scope of the config search. The list of configs and their (translated) search strings
+ * are collected on the main thread, but the lower cased strings and the trigram postings
+ * are built on a background thread. Until the index is ready, the config screens just use the normal list filtering.
+ * The index is re-built on resource reloads (which includes language changes),
+ * and when config tabs are registered after the initial build.
+ * <br>
+ * The search results are ranked, so that exact and prefix matches of the config names
+ * come first, followed by other name matches, and finally by matches in the
+ * internal names and the comments of the configs.
+ */
+public class ConfigSearchIndex implements IResourceManagerReloadListener
+{
+    public static final ConfigSearchIndex INSTANCE = new ConfigSearchIndex();
+
+    protected static final int RANK_EXACT = 0;
+    protected static final int RANK_PREFIX = 1;
+    protected static final int RANK_WORD_PREFIX = 2;
+    protected static final int RANK_CONTAINS = 3;
+    protected static final int RANK_SECONDARY = 4;
+    protected static final int NO_MATCH = Integer.MAX_VALUE;
+
+    protected final ExecutorService executor = Executors.newSingleThreadExecutor((r) -> {
+        Thread thread = new Thread(r, "MaLiLib Config Search Indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    protected final AtomicInteger generation = new AtomicInteger();
+    @Nullable protected volatile Index index;
+    protected boolean initialized;
+
+    /**
+     * Registers the index to be re-built whenever the resources get reloaded,
+     * as the search strings depend on the current language.
+     * NOT PUBLIC API - DO NOT CALL
+     */
+    public void registerReloadListener()
+    {
+        ((IReloadableResourceManager) Minecraft.getMinecraft().getResourceManager()).registerReloadListener(this);
+    }
+
+    @Override
+    public void onResourceManagerReload(@Nonnull IResourceManager resourceManager)
+    {
+        if (this.initialized)
+        {
+            this.scheduleRebuild();
+        }
+    }
+
+    /**
+     * Collects the configs and their search strings from all the registered config tabs,
+     * and then builds the index on a background thread. This must be called on the main thread.
+     * This is called after the mod handlers have been registered, and then again
+     * if the config tabs or the translations change.
+     */
+    public void scheduleRebuild()
+    {
+        final int gen = this.generation.incrementAndGet();
+        final List<ConfigOnTab> entries = new ArrayList<>();
+
+        for (ConfigTab tab : Registry.CONFIG_TAB.getAllRegisteredConfigTabs())
+        {
+            tab.getTabbedExpandedConfigs(entries::add);
+        }
+
+        // The translations are not thread safe, so resolve the strings here on the main thread
+        final int size = entries.size();
+        final List<List<String>> primaryStrings = new ArrayList<>(size);
+        final List<List<String>> secondaryStrings = new ArrayList<>(size);
+
+        for (ConfigOnTab entry : entries)
+        {
+            ConfigInfo config = entry.config;
+            primaryStrings.add(config.getSearchStrings());
+            secondaryStrings.add(Arrays.asList(config.getName(), config.getComment()));
+        }
+
+        this.index = null;
+        this.initialized = true;
+
+        this.executor.submit(() -> {
+            try
+            {
+                Index newIndex = new Index(Collections.unmodifiableList(entries), primaryStrings, secondaryStrings);
+
+                // Don't publish the results of an outdated build
+                if (this.generation.get() == gen)
+                {
+                    this.index = newIndex;
+                }
+            }
+            catch (Exception e)
+            {
+                MaLiLib.LOGGER.warn("Exception while building the config search index", e);
+            }
+        });
+    }
+
+    /**
+     * @return the index, if it has been built, or null if it's not (yet) available
+     */
+    @Nullable
+    public Index getIndex()
+    {
+        return this.index;
+    }
+
+    /**
+     * Invalidates the index, for example when the registered config tabs change.
+     * If the index has already been built once, then it gets re-built.
+     * This must be called on the main thread.
+     */
+    public void invalidate()
+    {
+        if (this.initialized)
+        {
+            this.scheduleRebuild();
+        }
+        else
+        {
+            this.generation.incrementAndGet();
+            this.index = null;
+        }
+    }
+
+    public static class Index
+    {
+        protected final List<ConfigOnTab> entries;
+        protected final String[][] primaryStrings;
+        protected final String[][] secondaryStrings;
+        protected final Long2ObjectMap<int[]> postings;
+        protected int maxLabelWidth = -1;
+        protected boolean maxLabelWidthUnicode;
+
+        protected Index(List<ConfigOnTab> entries, List<List<String>> primaryStrings, List<List<String>> secondaryStrings)
+        {
+            final int size = entries.size();
+            Long2ObjectOpenHashMap<IntArrayList> tmpPostings = new Long2ObjectOpenHashMap<>();
+
+            this.entries = entries;
+            this.primaryStrings = new String[size][];
+            this.secondaryStrings = new String[size][];
+
+            for (int i = 0; i < size; ++i)
+            {
+                this.primaryStrings[i] = toLowerCase(primaryStrings.get(i));
+                this.secondaryStrings[i] = toLowerCase(secondaryStrings.get(i));
+
+                TrigramUtils.addTrigrams(this.primaryStrings[i], i, tmpPostings);
+                TrigramUtils.addTrigrams(this.secondaryStrings[i], i, tmpPostings);
+            }
+
+            this.postings = TrigramUtils.toPostings(tmpPostings);
+        }
+
+        /**
+         * @return the indexed configs, in the same order as the config tabs and their configs
+         */
+        public List<ConfigOnTab> getEntries()
+        {
+            return this.entries;
+        }
+
+        /**
+         * Returns the indices of the matching entries, ordered by their rank and then by their list order.
+         * @param filterText the lower case filter text, where alternatives are separated by a '|' character
+         */
+        public int[] search(String filterText)
+        {
+            final String[] filters = filterText.split("\\|");
+            final int size = this.entries.size();
+            final int[] ranks = new int[size];
+            IntArrayList matches = new IntArrayList();
+
+            Arrays.fill(ranks, NO_MATCH);
+
+            for (String filter : filters)
+            {
+                if (filter.isEmpty())
+                {
+                    continue;
+                }
+
+                int[] candidates = TrigramUtils.getCandidates(this.postings, filter);
+
+                if (candidates == null)
+                {
+                    for (int i = 0; i < size; ++i)
+                    {
+                        this.updateRank(i, filter, ranks, matches);
+                    }
+                }
+                else
+                {
+                    for (int i : candidates)
+                    {
+                        this.updateRank(i, filter, ranks, matches);
+                    }
+                }
+            }
+
+            // Sort by the list order first, and then group by the rank, keeping the list order within each rank
+            int[] sorted = matches.toIntArray();
+            int[] result = new int[sorted.length];
+            int count = 0;
+
+            Arrays.sort(sorted);
+
+            for (int rank = RANK_EXACT; rank <= RANK_SECONDARY; ++rank)
+            {
+                for (int i : sorted)
+                {
+                    if (ranks[i] == rank)
+                    {
+                        result[count++] = i;
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Returns the maximum width of the config name and owner labels of all the entries.
+         * This is cached, and re-calculated if the unicode font setting changes.
+         * The index itself gets re-built on resource reloads, which covers the font texture changes.
+         * This should be called on the main thread.
+         */
+        public int getMaxLabelWidth(ToIntFunction<String> widthFunction)
+        {
+            boolean unicode = Minecraft.getMinecraft().isUnicode();
+
+            if (this.maxLabelWidth < 0 || this.maxLabelWidthUnicode != unicode)
+            {
+                int maxWidth = 0;
+
+                for (ConfigOnTab entry : this.entries)
+                {
+                    String owner = entry.tab.getModInfo().getModName() + " > " + entry.tab.getDisplayName();
+
+                    // The +10 here compensates for the left padding of the label widgets
+                    maxWidth = Math.max(maxWidth, widthFunction.applyAsInt(owner) + 10);
+                    maxWidth = Math.max(maxWidth, widthFunction.applyAsInt(entry.config.getDisplayName()) + 10);
+                }
+
+                this.maxLabelWidth = maxWidth;
+                this.maxLabelWidthUnicode = unicode;
+            }
+
+            return this.maxLabelWidth;
+        }
+
+        protected void updateRank(int index, String filter, int[] ranks, IntArrayList matches)
+        {
+            int rank = this.getRank(index, filter);
+
+            if (rank < ranks[index])
+            {
+                if (ranks[index] == NO_MATCH)
+                {
+                    matches.add(index);
+                }
+
+                ranks[index] = rank;
+            }
+        }
+
+        protected int getRank(int index, String filter)
+        {
+            int rank = NO_MATCH;
+
+            for (String str : this.primaryStrings[index])
+            {
+                int pos = str.indexOf(filter);
+
+                if (pos == 0)
+                {
+                    rank = Math.min(rank, str.length() == filter.length() ? RANK_EXACT : RANK_PREFIX);
+                }
+                else if (pos > 0)
+                {
+                    rank = Math.min(rank, isWordStart(str, filter, pos) ? RANK_WORD_PREFIX : RANK_CONTAINS);
+                }
+            }
+
+            if (rank == NO_MATCH)
+            {
+                for (String str : this.secondaryStrings[index])
+                {
+                    if (str.contains(filter))
+                    {
+                        return RANK_SECONDARY;
+                    }
+                }
+            }
+
+            return rank;
+        }
+    }
+
+    protected static boolean isWordStart(String str, String filter, int pos)
+    {
+        // Check all the occurrences, as some later one may be at a word start
+        while (pos > 0)
+        {
+            if (Character.isLetterOrDigit(str.charAt(pos - 1)) == false)
+            {
+                return true;
+            }
+
+            pos = str.indexOf(filter, pos + 1);
+        }
+
+        return pos == 0;
+    }
+
+    protected static String[] toLowerCase(List<String> strings)
+    {
+        List<String> list = new ArrayList<>(strings.size());
+
+        for (String str : strings)
+        {
+            if (str != null && str.isEmpty() == false)
+            {
+                list.add(str.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        return list.toArray(new String[0]);
+    }
+}
@@ -21,6 +21,9 @@ public class ConfigTabRegistryImpl implements ConfigTabRegistry
     public void registerConfigTabProvider(ModInfo modInfo, Supplier<List<ConfigTab>> tabProvider)
     {
         this.configTabProviders.put(modInfo, tabProvider);
+
+        // The index gets re-built after all the mod handlers have been registered
+        ConfigSearchIndex.INSTANCE.invalidate();
     }
 
     @Override
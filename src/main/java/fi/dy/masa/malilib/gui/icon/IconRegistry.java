@@ -168,10 +168,18 @@ public class IconRegistry
     }
 
     public void loadFromFile()
+    {
+        this.prepareLoadFromFile().run();
+    }
+
+    /**
+     * Reads the file on the calling thread, and returns a task that applies the data
+     */
+    public Runnable prepareLoadFromFile()
     {
         File configDir = ConfigUtils.getActiveConfigDirectory();
         String fileName = MaLiLibReference.MOD_ID + "_custom_icons.json";
-        JsonUtils.loadFromFile(configDir, fileName, this::loadDataFromJson);
+        return JsonUtils.prepareLoadFromFile(configDir, fileName, this::loadDataFromJson);
     }
 
     public static String getKeyForIcon(Icon icon)
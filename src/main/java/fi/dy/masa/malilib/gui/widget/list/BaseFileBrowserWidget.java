@@ -4,7 +4,6 @@ import java.io.File;
 import java.io.FileFilter;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -14,7 +13,6 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
-import org.apache.commons.lang3.tuple.Pair;
 import org.lwjgl.input.Keyboard;
 import com.google.common.collect.ImmutableList;
 import fi.dy.masa.malilib.gui.BaseScreen;
@@ -34,6 +32,7 @@ import fi.dy.masa.malilib.gui.widget.list.header.ColumnizedDataListHeaderWidget;
 import fi.dy.masa.malilib.gui.widget.list.header.DataColumn;
 import fi.dy.masa.malilib.gui.widget.list.header.DataListHeaderWidget;
 import fi.dy.masa.malilib.gui.widget.util.DirectoryCache;
+import fi.dy.masa.malilib.gui.widget.util.DirectoryContentsCache;
 import fi.dy.masa.malilib.gui.widget.util.DirectoryNavigator;
 import fi.dy.masa.malilib.overlay.message.MessageDispatcher;
 import fi.dy.masa.malilib.render.text.StyledText;
@@ -50,7 +49,7 @@ public class BaseFileBrowserWidget extends DataListWidget<DirectoryEntry> implem
     public static final FileFilter ALWAYS_FALSE_FILE_FILTER = (file) -> false;
     public static final FileFilter ALWAYS_TRUE_FILE_FILTER = File::isFile;
 
-    protected final Map<Pair<File, FileFilter>, List<File>> directoryContentsCache = new HashMap<>();
+    protected final DirectoryContentsCache directoryContentsCache = new DirectoryContentsCache();
     protected final Map<File, Integer> keyboardNavigationPositions = new HashMap<>();
     protected final Set<File> operatedOnFiles = new HashSet<>();
     protected final DirectoryNavigationWidget navigationWidget;
@@ -63,6 +62,7 @@ public class BaseFileBrowserWidget extends DataListWidget<DirectoryEntry> implem
     protected File currentDirectory;
     protected boolean allowFileOperations;
     protected boolean pendingOperationIsCut;
+    protected boolean pendingKeyboardNavigationRestore;
     protected boolean shouldStoreKeyboardNavigationPosition = true;
     protected boolean showFileSize;
     protected boolean showFileModificationTime;
@@ -302,16 +302,52 @@ public class BaseFileBrowserWidget extends DataListWidget<DirectoryEntry> implem
 
             if (filterText == null || this.searchTermsMatchFilter(searchTerm, filterText))
             {
-                DirectoryEntryType type = DirectoryEntryType.fromFile(file);
+                Boolean isDirectory = this.directoryContentsCache.isDirectory(file);
+                DirectoryEntryType type = isDirectory != null ? (isDirectory ? DirectoryEntryType.DIRECTORY : DirectoryEntryType.FILE) :
+                                                                DirectoryEntryType.fromFile(file);
                 outputList.add(new DirectoryEntry(type, dir, fileName, displayNamePrefix));
             }
         }
     }
 
+    /**
+     * Returns the currently known contents of the given directory.
+     * The directories are scanned in the background, so this list may be empty or partial,
+     * and the list entries get refreshed when more results arrive.
+     */
     protected List<File> getContents(final File dir, final FileFilter filter)
     {
-        Pair<File, FileFilter> cacheKey = Pair.of(dir, filter);
-        return this.directoryContentsCache.computeIfAbsent(cacheKey, (k) -> Arrays.asList(dir.listFiles(filter)));
+        return this.directoryContentsCache.getContents(dir, filter);
+    }
+
+    /**
+     * Applies the directory scan results that have arrived from the background threads,
+     * and refreshes the list contents if anything changed.
+     */
+    protected void processDirectoryScanResults()
+    {
+        if (this.directoryContentsCache.processPendingResults())
+        {
+            if (this.taskQueue != null)
+            {
+                this.scheduleTask(this::onDirectoryContentsChanged);
+            }
+            else
+            {
+                this.onDirectoryContentsChanged();
+            }
+        }
+    }
+
+    protected void onDirectoryContentsChanged()
+    {
+        this.refreshFilteredEntries();
+
+        if (this.pendingKeyboardNavigationRestore)
+        {
+            this.restoreKeyboardNavigationPosition(this.currentDirectory);
+            this.pendingKeyboardNavigationRestore = this.directoryContentsCache.isScanning();
+        }
     }
 
     protected File getRootDirectory()
@@ -565,8 +601,19 @@ public class BaseFileBrowserWidget extends DataListWidget<DirectoryEntry> implem
 
     protected void endFileOperation()
     {
+        this.directoryContentsCache.invalidate(this.currentDirectory);
+
+        for (File file : this.operatedOnFiles)
+        {
+            File parent = file.getParentFile();
+
+            if (parent != null)
+            {
+                this.directoryContentsCache.invalidate(parent);
+            }
+        }
+
         this.operatedOnFiles.clear();
-        this.directoryContentsCache.clear();
         this.getEntrySelectionHandler().clearSelection();
         this.pendingOperationIsCut = false;
         this.refreshEntries();
@@ -597,7 +644,8 @@ public class BaseFileBrowserWidget extends DataListWidget<DirectoryEntry> implem
         this.storeKeyboardNavigationPosition(this.currentDirectory);
 
         this.currentDirectory = FileUtils.getCanonicalFileIfPossible(dir);
-        this.directoryContentsCache.clear();
+        // The watched directories get invalidated by the WatchService when they change
+        this.directoryContentsCache.invalidateUnwatched();
 
         if (this.cache != null)
         {
@@ -607,8 +655,10 @@ public class BaseFileBrowserWidget extends DataListWidget<DirectoryEntry> implem
         this.refreshEntries();
         this.updateDirectoryNavigationWidget();
         this.resetScrollBarPosition();
-        // The index needs to be restored after the entries have been refreshed
+        // The index needs to be restored after the entries have been refreshed,
+        // and again as the background directory scan delivers more entries
         this.restoreKeyboardNavigationPosition(this.currentDirectory);
+        this.pendingKeyboardNavigationRestore = this.directoryContentsCache.isScanning();
     }
 
     @Override
@@ -691,9 +741,19 @@ public class BaseFileBrowserWidget extends DataListWidget<DirectoryEntry> implem
     {
     }
 
+    @Override
+    public void onGuiClosed()
+    {
+        super.onGuiClosed();
+
+        this.directoryContentsCache.close();
+    }
+
     @Override
     public void renderAt(int x, int y, float z, ScreenContext ctx)
     {
+        this.processDirectoryScanResults();
+
         super.renderAt(x, y, z, ctx);
 
         this.drawAdditionalContents(x, y, z, ctx);
@@ -9,6 +9,7 @@ import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import fi.dy.masa.malilib.config.option.ConfigInfo;
 import fi.dy.masa.malilib.gui.config.ConfigOptionWidgetFactory;
+import fi.dy.masa.malilib.gui.config.ConfigSearchIndex;
 import fi.dy.masa.malilib.gui.config.ConfigTab;
 import fi.dy.masa.malilib.gui.config.ConfigWidgetContext;
 import fi.dy.masa.malilib.gui.config.KeybindEditingScreen;
@@ -42,6 +43,7 @@ public class ConfigOptionListWidget<C extends ConfigInfo> extends DataListWidget
 
         this.setEntryWidgetFactory(new ConfigOptionListEntryWidgetFactory<>(ctx));
         this.setEntryFilterStringFactory(ConfigInfo::getSearchStrings);
+        this.setUseSearchIndex(true);
 
         this.listPosition.setTop(0);
     }
@@ -110,10 +112,55 @@ public class ConfigOptionListWidget<C extends ConfigInfo> extends DataListWidget
     }
 
     @Override
-    protected boolean entryMatchesFilter(C entry, String filterText)
+    protected boolean entryPassesExtraFilters(C entry)
     {
-        return super.entryMatchesFilter(entry, filterText) &&
-               (this.configsSearchBarWidget == null || this.configsSearchBarWidget.passesFilter(entry));
+        return this.configsSearchBarWidget == null || this.configsSearchBarWidget.passesFilter(entry);
+    }
+
+    /**
+     * @return the global config search index, if it's available and it's being used for the current contents
+     */
+    @Nullable
+    protected ConfigSearchIndex.Index getGlobalSearchIndex()
+    {
+        if (this.configsSearchBarWidget != null &&
+            this.configsSearchBarWidget.getCurrentScope() == ConfigsSearchBarWidget.Scope.ALL_MODS)
+        {
+            ConfigSearchIndex.Index index = ConfigSearchIndex.INSTANCE.getIndex();
+
+            if (index != null && this.cachedConfigs.get(ConfigsSearchBarWidget.Scope.ALL_MODS) == index.getEntries())
+            {
+                return index;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void addFilteredContents(List<C> entries)
+    {
+        ConfigSearchIndex.Index index = this.getGlobalSearchIndex();
+        String filterText = this.getFilterText();
+
+        // The global index returns the matches ranked by relevance
+        if (index != null && filterText.isEmpty() == false && entries.size() == index.getEntries().size())
+        {
+            for (int i : index.search(filterText))
+            {
+                C entry = entries.get(i);
+
+                if (this.entryPassesExtraFilters(entry))
+                {
+                    this.filteredContents.add(entry);
+                    this.filteredIndices.add(i);
+                }
+            }
+
+            return;
+        }
+
+        super.addFilteredContents(entries);
     }
 
     @Override
@@ -121,6 +168,15 @@ public class ConfigOptionListWidget<C extends ConfigInfo> extends DataListWidget
     {
         super.onEntriesRefreshed();
 
+        ConfigSearchIndex.Index index = this.getGlobalSearchIndex();
+
+        // The label widths of all the configs are cached in the global index
+        if (index != null)
+        {
+            this.maxLabelWidth = index.getMaxLabelWidth(this::getStringWidth);
+            return;
+        }
+
         List<C> list = this.getCurrentContents();
         final int size = list.size();
         boolean showOwner = this.isShowingOptionsFromOtherCategories();
@@ -157,7 +213,13 @@ public class ConfigOptionListWidget<C extends ConfigInfo> extends DataListWidget
             {
                 configsInScope = new ArrayList<>();
 
-                if (scope == ConfigsSearchBarWidget.Scope.ALL_MODS)
+                ConfigSearchIndex.Index index = ConfigSearchIndex.INSTANCE.getIndex();
+
+                if (scope == ConfigsSearchBarWidget.Scope.ALL_MODS && index != null)
+                {
+                    configsInScope = index.getEntries();
+                }
+                else if (scope == ConfigsSearchBarWidget.Scope.ALL_MODS)
                 {
                     List<ConfigTab> allModTabs = Registry.CONFIG_TAB.getAllRegisteredConfigTabs();
                     final List<ConfigOnTab> tmpList = configsInScope;
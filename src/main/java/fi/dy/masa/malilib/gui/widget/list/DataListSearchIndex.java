@@ -0,0 +1,253 @@
+package fi.dy.masa.malilib.gui.widget.list;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * A search index for the {@link DataListWidget} filtering.
+ * This caches the lower cased search strings of each entry in an array parallel to the list contents,
+ * so that they don't need to be re-created or looked up on every key press in the search bar.
+ * The cached strings of an entry can be cleared with {@link #invalidateEntry(Object)}.
+ * If the new filter text only narrows down the previous filter text, then only the previously
+ * matched entries are checked again. Large lists are checked in parallel using the common ForkJoinPool.
+ */
+public class DataListSearchIndex<DATATYPE>
+{
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+    protected static final String[] NO_STRINGS = new String[0];
+    protected static final Object[] NO_ENTRIES = new Object[0];
+
+    protected final Function<DATATYPE, List<String>> searchStringFactory;
+    protected Object[] entries = NO_ENTRIES;
+    protected String[][] searchStrings = new String[0][];
+    protected int[] lastCandidates = new int[0];
+    protected String[] lastFilters;
+    protected boolean hasInvalidatedEntries;
+    protected int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    public DataListSearchIndex(Function<DATATYPE, List<String>> searchStringFactory)
+    {
+        this.searchStringFactory = searchStringFactory;
+    }
+
+    /**
+     * Sets the list size at or above which the filtering is done in parallel
+     */
+    public DataListSearchIndex<DATATYPE> setParallelThreshold(int parallelThreshold)
+    {
+        this.parallelThreshold = parallelThreshold;
+        return this;
+    }
+
+    /**
+     * Clears all the cached search strings and the previous search results.
+     * This should be called if the search strings of the existing entries may have changed.
+     */
+    public void invalidate()
+    {
+        this.entries = NO_ENTRIES;
+        this.searchStrings = new String[0][];
+        this.lastCandidates = new int[0];
+        this.lastFilters = null;
+        this.hasInvalidatedEntries = false;
+    }
+
+    /**
+     * Clears the cached search strings of the given entry, so that they get re-created
+     * on the next search. This should be called when the search strings of an entry change.
+     */
+    public void invalidateEntry(DATATYPE entry)
+    {
+        final Object[] entries = this.entries;
+
+        for (int i = 0; i < entries.length; ++i)
+        {
+            if (entries[i] == entry)
+            {
+                this.searchStrings[i] = null;
+                this.hasInvalidatedEntries = true;
+            }
+        }
+
+        // The entry may now match a filter that it didn't match before
+        this.lastFilters = null;
+    }
+
+    /**
+     * @return true if the entry at the given index has no search strings. Such entries are always
+     *         included in the results of {@link #getCandidateIndices(List, String)}.
+     *         The index is the list index from the last {@link #getCandidateIndices(List, String)} call.
+     */
+    public boolean hasNoSearchStrings(int entryIndex)
+    {
+        return this.searchStrings[entryIndex].length == 0;
+    }
+
+    /**
+     * Returns the indices (in the list order) of the entries whose search strings match
+     * the given filter text, and of the entries that don't have any search strings.
+     * @param filterText the lower case filter text, where alternatives are separated by a '|' character
+     */
+    public int[] getCandidateIndices(List<DATATYPE> entries, String filterText)
+    {
+        final String[] filters = filterText.split("\\|");
+        final boolean sameEntries = this.updateEntries(entries);
+        int[] candidates;
+
+        if (sameEntries && this.canNarrowPreviousResults(filters))
+        {
+            candidates = this.filter(Arrays.stream(this.lastCandidates), this.lastCandidates.length, filters);
+        }
+        else
+        {
+            final int size = this.entries.length;
+            candidates = this.filter(IntStream.range(0, size), size, filters);
+        }
+
+        this.lastCandidates = candidates;
+        this.lastFilters = filters;
+
+        return candidates;
+    }
+
+    protected int[] filter(IntStream indices, int count, String[] filters)
+    {
+        final String[][] searchStrings = this.searchStrings;
+
+        if (count >= this.parallelThreshold)
+        {
+            indices = indices.parallel();
+        }
+
+        return indices.filter((i) -> matches(searchStrings[i], filters)).toArray();
+    }
+
+    /**
+     * Updates the cached entries and their search strings, if the list contents have changed.
+     * The search strings of the entries that were already in the list are re-used.
+     * @return true if the list contents were the same as in the previous call
+     */
+    @SuppressWarnings("unchecked")
+    protected boolean updateEntries(List<DATATYPE> entries)
+    {
+        final int size = entries.size();
+        final Object[] oldEntries = this.entries;
+        boolean sameEntries = size == oldEntries.length;
+
+        for (int i = 0; sameEntries && i < size; ++i)
+        {
+            sameEntries = entries.get(i) == oldEntries[i];
+        }
+
+        if (sameEntries == false)
+        {
+            IdentityHashMap<Object, String[]> oldStrings = new IdentityHashMap<>(oldEntries.length);
+            Object[] newEntries = entries.toArray();
+            String[][] newStrings = new String[size][];
+
+            for (int i = 0; i < oldEntries.length; ++i)
+            {
+                oldStrings.put(oldEntries[i], this.searchStrings[i]);
+            }
+
+            for (int i = 0; i < size; ++i)
+            {
+                newStrings[i] = oldStrings.get(newEntries[i]);
+            }
+
+            this.entries = newEntries;
+            this.searchStrings = newStrings;
+            this.hasInvalidatedEntries = true;
+        }
+
+        // The search strings are created on the main thread, and only for the new or invalidated entries
+        if (this.hasInvalidatedEntries)
+        {
+            final String[][] searchStrings = this.searchStrings;
+
+            for (int i = 0; i < size; ++i)
+            {
+                if (searchStrings[i] == null)
+                {
+                    searchStrings[i] = this.createSearchStrings((DATATYPE) this.entries[i]);
+                }
+            }
+
+            this.hasInvalidatedEntries = false;
+        }
+
+        return sameEntries;
+    }
+
+    protected String[] createSearchStrings(DATATYPE entry)
+    {
+        List<String> list = this.searchStringFactory.apply(entry);
+        final int size = list.size();
+        String[] strings = size > 0 ? new String[size] : NO_STRINGS;
+
+        for (int i = 0; i < size; ++i)
+        {
+            strings[i] = list.get(i).toLowerCase(Locale.ROOT);
+        }
+
+        return strings;
+    }
+
+    /**
+     * The previous results can be narrowed down, if every new filter alternative
+     * contains some of the previous filter alternatives.
+     */
+    protected boolean canNarrowPreviousResults(String[] filters)
+    {
+        if (this.lastFilters == null)
+        {
+            return false;
+        }
+
+        for (String filter : filters)
+        {
+            boolean found = false;
+
+            for (String lastFilter : this.lastFilters)
+            {
+                if (filter.contains(lastFilter))
+                {
+                    found = true;
+                    break;
+                }
+            }
+
+            if (found == false)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected static boolean matches(String[] searchStrings, String[] filters)
+    {
+        if (searchStrings.length == 0)
+        {
+            return true;
+        }
+
+        for (String str : searchStrings)
+        {
+            for (String filter : filters)
+            {
+                if (str.contains(filter))
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
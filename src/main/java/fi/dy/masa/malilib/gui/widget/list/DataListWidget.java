@@ -39,6 +39,7 @@ public class DataListWidget<DATATYPE> extends BaseListWidget
     @Nullable protected DataColumn<DATATYPE> activeSortColumn;
     @Nullable protected DataColumn<DATATYPE> defaultSortColumn;
     @Nullable protected Supplier<List<DataColumn<DATATYPE>>> columnSupplier;
+    @Nullable protected DataListSearchIndex<DATATYPE> searchIndex;
 
     protected boolean fetchFromSupplierOnRefresh;
     protected boolean filterMatchesEmptyEntry;
@@ -124,9 +125,41 @@ public class DataListWidget<DATATYPE> extends BaseListWidget
     public DataListWidget<DATATYPE> setEntryFilterStringFactory(Function<DATATYPE, List<String>> factory)
     {
         this.entryFilterStringFactory = factory;
+
+        if (this.searchIndex != null)
+        {
+            this.searchIndex.invalidate();
+        }
+
+        return this;
+    }
+
+    /**
+     * Sets whether or not a {@link DataListSearchIndex} should be used for the search bar filtering.
+     * The index caches the lower cased search strings of the entries. If the search strings
+     * of an entry change while the list is open, then {@link #onEntrySearchStringsChanged(Object)}
+     * should be called for it (re-fetching the list from the supplier on refresh clears the whole cache).<br><br>
+     * Note: When using the index, the {@link #entryMatchesFilter(Object, String)} method is not called,
+     * any additional filtering should be done in {@link #entryPassesExtraFilters(Object)} instead.
+     */
+    public DataListWidget<DATATYPE> setUseSearchIndex(boolean useSearchIndex)
+    {
+        this.searchIndex = useSearchIndex ? new DataListSearchIndex<>(this::getSearchStringsForEntry) : null;
         return this;
     }
 
+    /**
+     * Clears the cached search strings of the given entry from the search index, if the index is used.
+     * This should be called when the search strings of an entry change, for example if it gets renamed.
+     */
+    public void onEntrySearchStringsChanged(DATATYPE entry)
+    {
+        if (this.searchIndex != null)
+        {
+            this.searchIndex.invalidateEntry(entry);
+        }
+    }
+
     public void setColumnSupplier(@Nullable Supplier<List<DataColumn<DATATYPE>>> columnSupplier)
     {
         this.columnSupplier = columnSupplier;
@@ -368,6 +401,11 @@ public class DataListWidget<DATATYPE> extends BaseListWidget
         {
             this.currentContents.clear();
             this.currentContents.addAll(this.entrySupplier.get());
+
+            if (this.searchIndex != null)
+            {
+                this.searchIndex.invalidate();
+            }
         }
     }
 
@@ -473,13 +511,36 @@ public class DataListWidget<DATATYPE> extends BaseListWidget
     protected void addFilteredContents(List<DATATYPE> entries)
     {
         String filterText = this.getFilterText();
+
+        if (this.searchIndex != null && filterText.isEmpty() == false)
+        {
+            this.addFilteredContentsUsingIndex(entries, filterText, this.searchIndex);
+            return;
+        }
+
         final int size = entries.size();
 
         for (int i = 0; i < size; ++i)
         {
             DATATYPE entry = entries.get(i);
 
-            if (this.entryMatchesFilter(entry, filterText))
+            if (this.entryMatchesFilter(entry, filterText) && this.entryPassesExtraFilters(entry))
+            {
+                this.filteredContents.add(entry);
+                this.filteredIndices.add(i);
+            }
+        }
+    }
+
+    protected void addFilteredContentsUsingIndex(List<DATATYPE> entries, String filterText,
+                                                 DataListSearchIndex<DATATYPE> index)
+    {
+        for (int i : index.getCandidateIndices(entries, filterText))
+        {
+            DATATYPE entry = entries.get(i);
+
+            if ((index.hasNoSearchStrings(i) == false || this.filterMatchesEmptySearchTerms(entry)) &&
+                this.entryPassesExtraFilters(entry))
             {
                 this.filteredContents.add(entry);
                 this.filteredIndices.add(i);
@@ -487,6 +548,14 @@ public class DataListWidget<DATATYPE> extends BaseListWidget
         }
     }
 
+    /**
+     * Additional filtering of the entries that is applied after the search text filtering
+     */
+    protected boolean entryPassesExtraFilters(DATATYPE entry)
+    {
+        return true;
+    }
+
     protected boolean entryMatchesFilter(DATATYPE entry, String filterText)
     {
         if (filterText.isEmpty())
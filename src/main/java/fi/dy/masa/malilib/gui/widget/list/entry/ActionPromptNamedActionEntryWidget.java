@@ -3,6 +3,7 @@ package fi.dy.masa.malilib.gui.widget.list.entry;
 import javax.annotation.Nullable;
 import fi.dy.masa.malilib.action.NamedAction;
 import fi.dy.masa.malilib.gui.BaseScreen;
+import fi.dy.masa.malilib.gui.action.ActionSearchIndex;
 import fi.dy.masa.malilib.gui.widget.list.DataListWidget;
 
 public class ActionPromptNamedActionEntryWidget extends NamedActionEntryWidget
@@ -19,6 +20,7 @@ public class ActionPromptNamedActionEntryWidget extends NamedActionEntryWidget
     {
         // Close the current screen first, in case the action opens another screen
         BaseScreen.openScreen(null);
+        ActionSearchIndex.INSTANCE.markAsUsed(this.data);
         this.data.execute();
         return true;
     }
@@ -0,0 +1,393 @@
+package fi.dy.masa.malilib.gui.widget.util;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.tuple.Pair;
+import fi.dy.masa.malilib.MaLiLib;
+
+/**
+ * Caches the contents of directories for the file browser widgets.
+ * The directories are listed on a background thread, and the results are delivered
+ * in batches to the owner on the render/main thread in {@link #processPendingResults()},
+ * so that large or slow (for example network mounted) directories don't freeze the game.
+ * The cached directories are watched using a WatchService (when available),
+ * so that only the directories that actually change get invalidated and re-scanned.
+ * If a directory can't be watched, then only that directory falls back to the unwatched behavior.
+ * If the WatchService itself can't be created, then creating it is retried after a while.
+ */
+public class DirectoryContentsCache
+{
+    public static final int BATCH_SIZE = 256;
+    public static final int MAX_WATCHED_DIRECTORIES = 256;
+    public static final int SCANNER_THREAD_COUNT = 2;
+    public static final long WATCH_SERVICE_RETRY_INTERVAL_MS = 60000L;
+
+    protected static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    protected static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    protected final Map<Pair<File, FileFilter>, Listing> listings = new HashMap<>();
+    // Only accessed from the owner thread, the flags get added in processPendingResults()
+    protected final Map<File, Boolean> directoryFlags = new HashMap<>();
+    protected final Map<WatchKey, File> watchedDirectories = new ConcurrentHashMap<>();
+    protected final Set<File> registeredDirectories = new HashSet<>();
+    protected final Set<File> unwatchableDirectories = new HashSet<>();
+    protected final ConcurrentLinkedQueue<Runnable> pendingResults = new ConcurrentLinkedQueue<>();
+    @Nullable protected WatchService watchService;
+    protected long watchServiceRetryTime;
+    protected boolean changed;
+
+    /**
+     * Returns the currently known contents of the given directory, using the given filter.
+     * If the directory has not been scanned yet, then a scan is started in the background,
+     * and the returned list will be empty or partial until the scan finishes.
+     * The returned list must not be modified.
+     */
+    public List<File> getContents(File dir, FileFilter filter)
+    {
+        Pair<File, FileFilter> key = Pair.of(dir, filter);
+        Listing listing = this.listings.get(key);
+
+        if (listing == null)
+        {
+            listing = new Listing();
+            this.listings.put(key, listing);
+            this.startScan(dir, filter, listing);
+        }
+
+        return listing.files;
+    }
+
+    /**
+     * @return true if the given file was seen as a directory during the background scan,
+     *         false if it was seen as something else, or null if the file has not been scanned
+     */
+    @Nullable
+    public Boolean isDirectory(File file)
+    {
+        return this.directoryFlags.get(file);
+    }
+
+    /**
+     * @return true if any of the currently cached directories are still being scanned
+     */
+    public boolean isScanning()
+    {
+        for (Listing listing : this.listings.values())
+        {
+            if (listing.complete == false)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Applies any results that the background threads have delivered since the last call.
+     * This must be called from the same thread that uses the cache (ie. the main/render thread).
+     * @return true if any of the cached directory contents changed
+     */
+    public boolean processPendingResults()
+    {
+        Runnable task;
+
+        while ((task = this.pendingResults.poll()) != null)
+        {
+            task.run();
+        }
+
+        boolean changed = this.changed;
+        this.changed = false;
+
+        return changed;
+    }
+
+    /**
+     * Invalidates the cached contents of the given directory
+     */
+    public void invalidate(File dir)
+    {
+        Iterator<Map.Entry<Pair<File, FileFilter>, Listing>> iter = this.listings.entrySet().iterator();
+
+        while (iter.hasNext())
+        {
+            Map.Entry<Pair<File, FileFilter>, Listing> entry = iter.next();
+
+            if (entry.getKey().getLeft().equals(dir))
+            {
+                this.removeListing(entry.getValue());
+                iter.remove();
+                this.changed = true;
+            }
+        }
+    }
+
+    /**
+     * Invalidates the cached contents of all the directories that are not being watched
+     * for changes, and thus might be out of date.
+     */
+    public void invalidateUnwatched()
+    {
+        Iterator<Map.Entry<Pair<File, FileFilter>, Listing>> iter = this.listings.entrySet().iterator();
+
+        while (iter.hasNext())
+        {
+            Map.Entry<Pair<File, FileFilter>, Listing> entry = iter.next();
+
+            if (this.watchedDirectories.containsValue(entry.getKey().getLeft()) == false)
+            {
+                this.removeListing(entry.getValue());
+                iter.remove();
+            }
+        }
+    }
+
+    public void invalidateAll()
+    {
+        for (Listing listing : this.listings.values())
+        {
+            listing.cancelled = true;
+        }
+
+        this.listings.clear();
+        this.directoryFlags.clear();
+    }
+
+    /**
+     * Cancels all the pending scans and stops watching the directories.
+     * The cache can still be used after this, it will just start from scratch.
+     */
+    public void close()
+    {
+        this.invalidateAll();
+        this.pendingResults.clear();
+        this.watchedDirectories.clear();
+        this.registeredDirectories.clear();
+        this.unwatchableDirectories.clear();
+        this.watchServiceRetryTime = 0L;
+
+        if (this.watchService != null)
+        {
+            try
+            {
+                this.watchService.close();
+            }
+            catch (IOException ignore) {}
+
+            this.watchService = null;
+        }
+    }
+
+    /**
+     * Cancels the scan of the given listing, and removes the directory flags of its files
+     */
+    protected void removeListing(Listing listing)
+    {
+        listing.cancelled = true;
+
+        for (File file : listing.files)
+        {
+            this.directoryFlags.remove(file);
+        }
+    }
+
+    protected void startScan(final File dir, final FileFilter filter, final Listing listing)
+    {
+        this.watchDirectory(dir);
+        EXECUTOR.execute(() -> this.scanDirectory(dir, filter, listing));
+    }
+
+    /**
+     * Runs on the background thread
+     */
+    protected void scanDirectory(File dir, FileFilter filter, Listing listing)
+    {
+        // The files in the scan order, and whether or not they are directories
+        LinkedHashMap<File, Boolean> batch = new LinkedHashMap<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir.toPath()))
+        {
+            for (Path path : stream)
+            {
+                if (listing.cancelled)
+                {
+                    return;
+                }
+
+                File file = path.toFile();
+
+                if (filter.accept(file))
+                {
+                    batch.put(file, Files.isDirectory(path));
+
+                    if (batch.size() >= BATCH_SIZE)
+                    {
+                        this.postResults(listing, batch, false);
+                        batch = new LinkedHashMap<>();
+                    }
+                }
+            }
+        }
+        catch (IOException | DirectoryIteratorException | SecurityException e)
+        {
+            MaLiLib.LOGGER.warn("Failed to list the contents of the directory '{}'", dir.getAbsolutePath(), e);
+        }
+
+        this.postResults(listing, batch, true);
+    }
+
+    protected void postResults(final Listing listing, final Map<File, Boolean> batch, final boolean complete)
+    {
+        this.pendingResults.add(() -> {
+            if (listing.cancelled == false)
+            {
+                listing.files.addAll(batch.keySet());
+                this.directoryFlags.putAll(batch);
+                listing.complete = complete;
+                this.changed = true;
+            }
+        });
+    }
+
+    protected void watchDirectory(File dir)
+    {
+        if (this.registeredDirectories.contains(dir) ||
+            this.unwatchableDirectories.contains(dir) ||
+            this.registeredDirectories.size() >= MAX_WATCHED_DIRECTORIES)
+        {
+            return;
+        }
+
+        WatchService watchService = this.getOrCreateWatchService();
+
+        if (watchService == null)
+        {
+            return;
+        }
+
+        try
+        {
+            WatchKey key = dir.toPath().register(watchService,
+                                                 StandardWatchEventKinds.ENTRY_CREATE,
+                                                 StandardWatchEventKinds.ENTRY_DELETE);
+            this.watchedDirectories.put(key, dir);
+            this.registeredDirectories.add(dir);
+        }
+        catch (IOException | UnsupportedOperationException | SecurityException e)
+        {
+            // Fall back to the unwatched behavior for this directory, where the owner clears the cache
+            this.unwatchableDirectories.add(dir);
+            MaLiLib.LOGGER.warn("Failed to watch the directory '{}' for changes", dir.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return the WatchService, or null if it could not be created. After a failure,
+     *         creating the WatchService is retried after {@link #WATCH_SERVICE_RETRY_INTERVAL_MS}.
+     */
+    @Nullable
+    protected WatchService getOrCreateWatchService()
+    {
+        if (this.watchService == null && System.currentTimeMillis() >= this.watchServiceRetryTime)
+        {
+            try
+            {
+                this.watchService = FileSystems.getDefault().newWatchService();
+                this.startWatcherThread(this.watchService);
+            }
+            catch (IOException | UnsupportedOperationException e)
+            {
+                this.watchServiceRetryTime = System.currentTimeMillis() + WATCH_SERVICE_RETRY_INTERVAL_MS;
+                MaLiLib.LOGGER.warn("Failed to create a WatchService for the file browser", e);
+            }
+        }
+
+        return this.watchService;
+    }
+
+    protected void startWatcherThread(final WatchService watchService)
+    {
+        Thread thread = new Thread(() -> this.runWatcher(watchService), "MaLiLib Directory Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Runs on the watcher thread until the WatchService is closed
+     */
+    protected void runWatcher(WatchService watchService)
+    {
+        try
+        {
+            while (true)
+            {
+                WatchKey key = watchService.take();
+                final File dir = this.watchedDirectories.get(key);
+
+                // The events themselves are not needed, any change just invalidates the directory
+                key.pollEvents();
+
+                if (key.reset() == false)
+                {
+                    this.watchedDirectories.remove(key);
+                    this.pendingResults.add(() -> this.registeredDirectories.remove(dir));
+                }
+
+                if (dir != null)
+                {
+                    this.pendingResults.add(() -> this.invalidate(dir));
+                }
+            }
+        }
+        catch (InterruptedException | ClosedWatchServiceException ignore)
+        {
+        }
+    }
+
+    protected static ThreadPoolExecutor createExecutor()
+    {
+        // A small fixed pool, where the idle threads time out, as the file browser is usually not open
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(SCANNER_THREAD_COUNT, SCANNER_THREAD_COUNT,
+                                                             30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), (r) -> {
+            Thread thread = new Thread(r, "MaLiLib Directory Scanner " + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    protected static class Listing
+    {
+        // Only accessed from the owner thread, the results get added in processPendingResults()
+        protected final List<File> files = new ArrayList<>();
+        protected volatile boolean cancelled;
+        protected boolean complete;
+    }
+}
@@ -3,11 +3,19 @@ package fi.dy.masa.malilib.input;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import com.google.common.collect.ArrayListMultimap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 
 public class HotkeyManagerImpl implements HotkeyManager
 {
-    protected final ArrayListMultimap<Integer, KeyBind> hotkeyMap = ArrayListMultimap.create();
+    protected static final KeyBind[] NO_KEYBINDS = new KeyBind[0];
+
+    /**
+     * This map is never modified after it's built, instead it is replaced
+     * as a whole in updateUsedKeys(). Thus the key event handling can iterate
+     * the arrays directly, even if the keybinds get updated during the iteration.
+     */
+    protected volatile Int2ObjectMap<KeyBind[]> hotkeyMap = new Int2ObjectOpenHashMap<>();
     protected final List<HotkeyCategory> keyBindCategories = new ArrayList<>();
     protected final List<HotkeyProvider> keyBindProviders = new ArrayList<>();
 
@@ -44,29 +52,44 @@ public class HotkeyManagerImpl implements HotkeyManager
     @Override
     public void updateUsedKeys()
     {
-        this.hotkeyMap.clear();
+        Int2ObjectOpenHashMap<List<KeyBind>> listMap = new Int2ObjectOpenHashMap<>();
 
         for (HotkeyProvider handler : this.keyBindProviders)
         {
             for (Hotkey hotkey : handler.getAllHotkeys())
             {
-                this.addKeyBindToMap(hotkey.getKeyBind());
+                this.addKeyBindToMap(hotkey.getKeyBind(), listMap);
             }
         }
 
-        for (Integer key : this.hotkeyMap.keySet())
+        Int2ObjectOpenHashMap<KeyBind[]> map = new Int2ObjectOpenHashMap<>(listMap.size());
+        Comparator<KeyBind> comparator = Comparator.comparingInt((v) -> v.getSettings().getPriority());
+
+        for (Int2ObjectMap.Entry<List<KeyBind>> entry : listMap.int2ObjectEntrySet())
         {
-            this.hotkeyMap.get(key).sort(Comparator.comparingInt((v) -> v.getSettings().getPriority()));
+            List<KeyBind> list = entry.getValue();
+            list.sort(comparator);
+            map.put(entry.getIntKey(), list.toArray(NO_KEYBINDS));
         }
+
+        this.hotkeyMap = map;
     }
 
-    protected void addKeyBindToMap(KeyBind keybind)
+    protected void addKeyBindToMap(KeyBind keybind, Int2ObjectOpenHashMap<List<KeyBind>> map)
     {
         List<Integer> keys = keybind.getKeys();
 
         for (int key : keys)
         {
-            this.hotkeyMap.put(key, keybind);
+            List<KeyBind> list = map.get(key);
+
+            if (list == null)
+            {
+                list = new ArrayList<>();
+                map.put(key, list);
+            }
+
+            list.add(keybind);
         }
     }
 
@@ -84,13 +107,10 @@ public class HotkeyManagerImpl implements HotkeyManager
     {
         boolean cancel = false;
         boolean isFirst = true;
-        List<KeyBind> keyBinds = this.hotkeyMap.get(eventKey);
+        KeyBind[] keyBinds = this.hotkeyMap.get(eventKey);
 
-        if (keyBinds.isEmpty() == false)
+        if (keyBinds != null)
         {
-            // FIXME is there a better way to avoid CMEs when switching config screens?
-            keyBinds = new ArrayList<>(keyBinds);
-
             for (KeyBind keyBind : keyBinds)
             {
                 // Note: updateIsPressed() has to be called for key releases too, to reset the state
@@ -1,8 +1,8 @@
 package fi.dy.masa.malilib.input;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.lwjgl.input.Keyboard;
@@ -26,18 +26,24 @@ import fi.dy.masa.malilib.render.text.StyledText;
 import fi.dy.masa.malilib.util.JsonUtils;
 import fi.dy.masa.malilib.util.StringUtils;
 import fi.dy.masa.malilib.util.data.ModInfo;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntLinkedOpenHashSet;
 
 public class KeyBindImpl implements KeyBind
 {
-    private static final List<Integer> PRESSED_KEYS = new ArrayList<>();
+    private static final IntLinkedOpenHashSet PRESSED_KEYS = new IntLinkedOpenHashSet();
+    private static final long[] PRESSED_KEYS_MASK = new long[KeyCodeMatcher.MASK_LONGS];
 
     public static final KeyUpdateResult NO_ACTION = new KeyUpdateResult(false, false);
 
+    private static int[] pressedKeysArray = new int[0];
     private static int triggeredCount;
 
     private final KeyBindSettings defaultSettings;
     private final ImmutableList<Integer> defaultKeyCodes;
     private ImmutableList<Integer> keyCodes = ImmutableList.of();
+    private KeyCodeMatcher keyMatcher = KeyCodeMatcher.EMPTY;
     private ImmutableList<Integer> lastSavedKeyCodes;
     private KeyBindSettings settings;
     private KeyBindSettings lastSavedSettings;
@@ -130,43 +136,11 @@ public class KeyBindImpl implements KeyBind
             return NO_ACTION;
         }
 
-        final boolean allowExtraKeys = this.settings.getAllowExtraKeys();
-        final boolean allowOutOfOrder = this.settings.isOrderSensitive() == false;
         final boolean pressedLast = this.pressed;
-        final int sizePressed = PRESSED_KEYS.size();
-        final int sizeRequired = this.keyCodes.size();
 
-        if (sizePressed >= sizeRequired && (allowExtraKeys || sizePressed == sizeRequired))
-        {
-            int keyCodeIndex = 0;
-            this.pressed = PRESSED_KEYS.containsAll(this.keyCodes);
-
-            for (Integer keyCodeObj : PRESSED_KEYS)
-            {
-                if (this.keyCodes.get(keyCodeIndex).equals(keyCodeObj))
-                {
-                    // Fully matched keybind
-                    if (++keyCodeIndex >= sizeRequired)
-                    {
-                        break;
-                    }
-                }
-                else if ((allowOutOfOrder == false && (keyCodeIndex > 0 || sizePressed == sizeRequired)) ||
-                         (this.keyCodes.contains(keyCodeObj) == false && allowExtraKeys == false))
-                {
-                    /*
-                    System.out.printf("km fail: key: %s, ae: %s, aoo: %s, cont: %s, keys: %s, pressed: %s, triggeredCount: %d\n",
-                            keyCodeObj, allowExtraKeys, allowOutOfOrder, this.keyCodes.contains(keyCodeObj), this.keyCodes, pressedKeys, triggeredCount);
-                    */
-                    this.pressed = false;
-                    break;
-                }
-            }
-        }
-        else
-        {
-            this.pressed = false;
-        }
+        this.pressed = this.keyMatcher.matches(pressedKeysArray, PRESSED_KEYS_MASK,
+                                               this.settings.getAllowExtraKeys(),
+                                               this.settings.isOrderSensitive());
 
         KeyAction activateOn = this.settings.getActivateOn();
 
@@ -281,7 +255,7 @@ public class KeyBindImpl implements KeyBind
     @Override
     public void clearKeys()
     {
-        this.keyCodes = ImmutableList.of();
+        this.setKeyCodes(ImmutableList.of());
         this.pressed = false;
         this.heldTime = 0;
     }
@@ -289,7 +263,13 @@ public class KeyBindImpl implements KeyBind
     @Override
     public void setKeys(List<Integer> newKeys)
     {
-        this.keyCodes = ImmutableList.copyOf(newKeys);
+        this.setKeyCodes(ImmutableList.copyOf(newKeys));
+    }
+
+    private void setKeyCodes(ImmutableList<Integer> keyCodes)
+    {
+        this.keyCodes = keyCodes;
+        this.keyMatcher = KeyCodeMatcher.of(keyCodes);
     }
 
     @Override
@@ -347,7 +327,7 @@ public class KeyBindImpl implements KeyBind
     @Override
     public void resetToDefault()
     {
-        this.keyCodes = this.defaultKeyCodes;
+        this.setKeyCodes(this.defaultKeyCodes);
     }
 
     @Override
@@ -366,7 +346,7 @@ public class KeyBindImpl implements KeyBind
     public void setValueFromString(String str)
     {
         this.clearKeys();
-        this.keyCodes = Keys.readKeysFromStorageString(str);
+        this.setKeyCodes(Keys.readKeysFromStorageString(str));
     }
 
     @Override
@@ -509,23 +489,25 @@ public class KeyBindImpl implements KeyBind
      */
     public static void onKeyInputPre(int keyCode, int scanCode, int modifiers, char charIn, boolean keyState)
     {
-        Integer valObj = keyCode;
-
         if (keyState)
         {
-            if (PRESSED_KEYS.contains(valObj) == false)
+            if (PRESSED_KEYS.contains(keyCode) == false)
             {
                 List<Integer> ignored = MaLiLibConfigs.Hotkeys.IGNORED_KEYS.getKeyBind().getKeys();
 
-                if (ignored.size() == 0 || ignored.contains(valObj) == false)
+                if (ignored.size() == 0 || ignored.contains(keyCode) == false)
                 {
-                    PRESSED_KEYS.add(valObj);
+                    PRESSED_KEYS.add(keyCode);
+                    updatePressedKeysSnapshot();
                 }
             }
         }
         else
         {
-            PRESSED_KEYS.remove(valObj);
+            if (PRESSED_KEYS.remove(keyCode))
+            {
+                updatePressedKeysSnapshot();
+            }
         }
 
         if (MaLiLibConfigs.Generic.PRESSED_KEYS_TOAST.getBooleanValue())
@@ -538,7 +520,7 @@ public class KeyBindImpl implements KeyBind
             }
             else
             {
-                heldKeys = Keys.writeKeysToString(PRESSED_KEYS, " + ", Keys::charAsStorageString);
+                heldKeys = Keys.writeKeysToString(new IntArrayList(PRESSED_KEYS), " + ", Keys::charAsStorageString);
             }
 
             MessageDispatcher.generic().type(MessageOutput.TOAST).time(2000).messageMarker("pressed_keys")
@@ -556,18 +538,25 @@ public class KeyBindImpl implements KeyBind
      */
     public static void reCheckPressedKeys()
     {
-        Iterator<Integer> iter = PRESSED_KEYS.iterator();
+        IntIterator iter = PRESSED_KEYS.iterator();
+        boolean changed = false;
 
         while (iter.hasNext())
         {
-            int keyCode = iter.next().intValue();
+            int keyCode = iter.nextInt();
 
             if (Keys.isKeyDown(keyCode) == false)
             {
                 iter.remove();
+                changed = true;
             }
         }
 
+        if (changed)
+        {
+            updatePressedKeysSnapshot();
+        }
+
         // Clear the triggered count after all keys have been released
         if (PRESSED_KEYS.size() == 0)
         {
@@ -575,6 +564,21 @@ public class KeyBindImpl implements KeyBind
         }
     }
 
+    /**
+     * Updates the ordered array and the bit mask of the pressed keys,
+     * which are used by the compiled keybind matchers
+     */
+    private static void updatePressedKeysSnapshot()
+    {
+        pressedKeysArray = PRESSED_KEYS.toIntArray();
+        Arrays.fill(PRESSED_KEYS_MASK, 0L);
+
+        for (int keyCode : pressedKeysArray)
+        {
+            KeyCodeMatcher.setBit(PRESSED_KEYS_MASK, keyCode);
+        }
+    }
+
     public static int getCurrentlyPressedKeysCount()
     {
         return PRESSED_KEYS.size();
@@ -613,8 +617,12 @@ public class KeyBindImpl implements KeyBind
             StringBuilder sb = new StringBuilder(128);
             int i = 0;
 
-            for (int key : PRESSED_KEYS)
+            IntIterator iter = PRESSED_KEYS.iterator();
+
+            while (iter.hasNext())
             {
+                int key = iter.nextInt();
+
                 if (i > 0)
                 {
                     sb.append(" + ");
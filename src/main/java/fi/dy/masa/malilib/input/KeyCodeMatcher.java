@@ -0,0 +1,220 @@
+package fi.dy.masa.malilib.input;
+
+import java.util.List;
+
+/**
+ * A pre-compiled form of a keybind's key codes, used for matching the keybind
+ * against the currently pressed keys. The key codes within the range
+ * [MIN_MASK_KEY_CODE, MIN_MASK_KEY_CODE + MASK_BITS) are stored as a bit mask,
+ * which covers the mouse buttons and all the regular keyboard keys,
+ * so the "contains all" and "contains" checks become simple mask operations.
+ */
+public class KeyCodeMatcher
+{
+    public static final int MIN_MASK_KEY_CODE = -128;
+    public static final int MASK_BITS = 512;
+    public static final int MASK_LONGS = MASK_BITS / 64;
+    public static final KeyCodeMatcher EMPTY = new KeyCodeMatcher(new int[0]);
+
+    protected final int[] keyCodes;
+    protected final long[] mask = new long[MASK_LONGS];
+    protected final boolean allInMask;
+
+    protected KeyCodeMatcher(int[] keyCodes)
+    {
+        boolean allInMask = true;
+
+        this.keyCodes = keyCodes;
+
+        for (int keyCode : keyCodes)
+        {
+            allInMask &= setBit(this.mask, keyCode);
+        }
+
+        this.allInMask = allInMask;
+    }
+
+    public int getKeyCount()
+    {
+        return this.keyCodes.length;
+    }
+
+    /**
+     * @return true if this keybind's key codes contain the given key code
+     */
+    public boolean contains(int keyCode)
+    {
+        int bit = keyCode - MIN_MASK_KEY_CODE;
+
+        if (bit >= 0 && bit < MASK_BITS)
+        {
+            return (this.mask[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        if (this.allInMask == false)
+        {
+            for (int code : this.keyCodes)
+            {
+                if (code == keyCode)
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the given pressed keys match this keybind.
+     * @param pressedKeys the currently pressed keys, in the order they were pressed
+     * @param pressedMask the bit mask of the currently pressed keys, built with {@link #setBit(long[], int)}
+     */
+    public boolean matches(int[] pressedKeys, long[] pressedMask, boolean allowExtraKeys, boolean orderSensitive)
+    {
+        final int sizePressed = pressedKeys.length;
+        final int sizeRequired = this.keyCodes.length;
+
+        if (sizeRequired == 0 ||
+            sizePressed < sizeRequired ||
+            (allowExtraKeys == false && sizePressed != sizeRequired) ||
+            this.allPressed(pressedKeys, pressedMask) == false)
+        {
+            return false;
+        }
+
+        if (orderSensitive)
+        {
+            return this.matchesOrder(pressedKeys, allowExtraKeys);
+        }
+
+        if (allowExtraKeys == false)
+        {
+            for (int keyCode : pressedKeys)
+            {
+                if (this.contains(keyCode) == false)
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true if all of this keybind's keys are currently pressed
+     */
+    protected boolean allPressed(int[] pressedKeys, long[] pressedMask)
+    {
+        final long[] mask = this.mask;
+
+        for (int i = 0; i < MASK_LONGS; ++i)
+        {
+            if ((mask[i] & ~pressedMask[i]) != 0)
+            {
+                return false;
+            }
+        }
+
+        if (this.allInMask == false)
+        {
+            for (int keyCode : this.keyCodes)
+            {
+                if (isInMaskRange(keyCode) == false && containsKey(pressedKeys, keyCode) == false)
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks the order of the pressed keys. Once the first key of the keybind
+     * has been encountered, the rest of the keys must follow it immediately and in order.
+     * Other keys before the first key are only allowed if there are extra keys pressed,
+     * and they are either part of the keybind or extra keys are allowed.
+     */
+    protected boolean matchesOrder(int[] pressedKeys, boolean allowExtraKeys)
+    {
+        final int[] keyCodes = this.keyCodes;
+        final int sizePressed = pressedKeys.length;
+        final int sizeRequired = keyCodes.length;
+        int keyCodeIndex = 0;
+
+        for (int keyCode : pressedKeys)
+        {
+            if (keyCodes[keyCodeIndex] == keyCode)
+            {
+                // Fully matched keybind
+                if (++keyCodeIndex >= sizeRequired)
+                {
+                    break;
+                }
+            }
+            else if (keyCodeIndex > 0 || sizePressed == sizeRequired ||
+                     (allowExtraKeys == false && this.contains(keyCode) == false))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public static KeyCodeMatcher of(List<Integer> keyCodes)
+    {
+        if (keyCodes.isEmpty())
+        {
+            return EMPTY;
+        }
+
+        final int size = keyCodes.size();
+        int[] arr = new int[size];
+
+        for (int i = 0; i < size; ++i)
+        {
+            arr[i] = keyCodes.get(i);
+        }
+
+        return new KeyCodeMatcher(arr);
+    }
+
+    public static boolean isInMaskRange(int keyCode)
+    {
+        int bit = keyCode - MIN_MASK_KEY_CODE;
+        return bit >= 0 && bit < MASK_BITS;
+    }
+
+    /**
+     * Sets the bit for the given key code in the given mask, if the key code is within the mask range.
+     * @return true if the key code was within the mask range
+     */
+    public static boolean setBit(long[] mask, int keyCode)
+    {
+        int bit = keyCode - MIN_MASK_KEY_CODE;
+
+        if (bit >= 0 && bit < MASK_BITS)
+        {
+            mask[bit >>> 6] |= 1L << bit;
+            return true;
+        }
+
+        return false;
+    }
+
+    protected static boolean containsKey(int[] keyCodes, int keyCode)
+    {
+        for (int code : keyCodes)
+        {
+            if (code == keyCode)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -55,6 +55,7 @@ public abstract class MixinMinecraft implements MinecraftClientAccessor
     private void onPostKeyboardInput(CallbackInfo ci)
     {
         KeyBindImpl.reCheckPressedKeys();
+        ((TickEventDispatcherImpl) Registry.TICK_EVENT_DISPATCHER).onPostClientTick();
     }
 
     @Inject(method = "runTick()V", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/Minecraft;getSystemTime()J"))
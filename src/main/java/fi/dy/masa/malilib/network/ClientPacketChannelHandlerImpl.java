@@ -3,6 +3,7 @@ package fi.dy.masa.malilib.network;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import com.google.common.base.Charsets;
@@ -75,16 +76,23 @@ public class ClientPacketChannelHandlerImpl implements ClientPacketChannelHandle
 
         if (handlers.isEmpty() == false)
         {
-            PacketBuffer buf = PacketSplitter.receive(netHandler, packet);
+            PacketBuffer buf = PacketSplitter.receiveRetained(netHandler, packet, this.getFragmentListener(handlers));
 
             // Finished the complete packet
             if (buf != null)
             {
-                for (PluginChannelHandler handler : handlers)
+                try
                 {
-                    buf.readerIndex(0);
-                    handler.onPacketReceived(buf);
-                    buf.readerIndex(0);
+                    for (PluginChannelHandler handler : handlers)
+                    {
+                        buf.readerIndex(0);
+                        handler.onPacketReceived(buf);
+                        buf.readerIndex(0);
+                    }
+                }
+                finally
+                {
+                    buf.release();
                 }
             }
 
@@ -94,6 +102,28 @@ public class ClientPacketChannelHandlerImpl implements ClientPacketChannelHandle
         return false;
     }
 
+    @Nullable
+    protected PacketSplitter.FragmentListener getFragmentListener(List<PluginChannelHandler> handlers)
+    {
+        for (PluginChannelHandler handler : handlers)
+        {
+            if (handler.receivesPacketFragments())
+            {
+                return (fragment, receivedBytes, totalBytes) -> {
+                    for (PluginChannelHandler h : handlers)
+                    {
+                        if (h.receivesPacketFragments())
+                        {
+                            h.onPacketFragmentReceived(fragment.duplicate(), receivedBytes, totalBytes);
+                        }
+                    }
+                };
+            }
+        }
+
+        return null;
+    }
+
     protected void sendRegisterPacket(ResourceLocation type, List<ResourceLocation> channels)
     {
         String joinedChannels = channels.stream().map(ResourceLocation::toString).collect(Collectors.joining("\0"));
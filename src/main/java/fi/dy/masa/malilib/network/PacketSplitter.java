@@ -1,7 +1,9 @@
 package fi.dy.masa.malilib.network;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
@@ -13,7 +15,11 @@ import net.minecraft.network.PacketBuffer;
 import net.minecraft.network.play.client.CPacketCustomPayload;
 import net.minecraft.network.play.server.SPacketCustomPayload;
 import net.minecraft.util.ResourceLocation;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
+import fi.dy.masa.malilib.MaLiLib;
 
 /**
  * Network packet splitter code from QuickCarpet by skyrising
@@ -28,8 +34,14 @@ public class PacketSplitter
     public static final int MAX_PAYLOAD_PER_PACKET_C2S = MAX_TOTAL_PER_PACKET_C2S - 5;
     public static final int DEFAULT_MAX_RECEIVE_SIZE_C2S = 1048576;
     public static final int DEFAULT_MAX_RECEIVE_SIZE_S2C = 67108864;
+    public static final long DEFAULT_SESSION_TIMEOUT_MS = 30000L;
+    public static final long DEFAULT_MAX_TOTAL_BUFFERED_BYTES = 134217728L;
 
     private static final Map<Pair<INetHandler, ResourceLocation>, ReadingSession> READING_SESSIONS = new HashMap<>();
+    private static final AtomicLong TOTAL_BUFFERED_BYTES = new AtomicLong();
+
+    private static volatile long sessionTimeoutMs = DEFAULT_SESSION_TIMEOUT_MS;
+    private static volatile long maxTotalBufferedBytes = DEFAULT_MAX_TOTAL_BUFFERED_BYTES;
 
     public static void send(NetHandlerPlayServer networkHandler, ResourceLocation channel, PacketBuffer packet)
     {
@@ -82,39 +94,188 @@ public class PacketSplitter
     }
     */
 
+    /**
+     * Receives one fragment of a possibly split packet.
+     * @return the fully received packet, or null if more fragments are still expected.
+     *         The returned buffer is an unpooled copy, which doesn't need to be released.
+     */
     @Nullable
     public static PacketBuffer receive(NetHandlerPlayClient networkHandler, SPacketCustomPayload message)
     {
-        return receive(networkHandler, message, DEFAULT_MAX_RECEIVE_SIZE_S2C);
+        return copyAndRelease(receiveRetained(networkHandler, message, null));
     }
 
+    /**
+     * Receives one fragment of a possibly split packet. The fragments are collected
+     * into a composite buffer of retained slices of the received data, without copying.
+     * @param fragmentListener if not null, then this will be called with each received fragment,
+     *                         before the complete packet has been received
+     * @return the fully received packet, or null if more fragments are still expected.
+     *         <b>The returned buffer must be released by the caller after it has been read.</b>
+     */
     @Nullable
-    private static PacketBuffer receive(NetHandlerPlayClient networkHandler, SPacketCustomPayload message, int maxLength)
+    public static PacketBuffer receiveRetained(NetHandlerPlayClient networkHandler, SPacketCustomPayload message,
+                                               @Nullable FragmentListener fragmentListener)
     {
-        Pair<INetHandler, ResourceLocation> key = Pair.of(networkHandler, new ResourceLocation(message.getChannelName()));
+        ResourceLocation channel = new ResourceLocation(message.getChannelName());
+        Pair<INetHandler, ResourceLocation> key = Pair.of(networkHandler, channel);
 
-        return READING_SESSIONS.computeIfAbsent(key, ReadingSession::new).receive(message.getBufferData(), maxLength);
+        return receive(key, message.getBufferData(), DEFAULT_MAX_RECEIVE_SIZE_S2C,
+                       MAX_PAYLOAD_PER_PACKET_S2C, fragmentListener);
     }
 
+    /**
+     * @return the fully received packet, or null if more fragments are still expected.
+     *         The returned buffer is an unpooled copy, which doesn't need to be released.
+     */
     @Nullable
     public static PacketBuffer receive(String channelName, PacketBuffer rawData)
     {
-        return receive(channelName, rawData, DEFAULT_MAX_RECEIVE_SIZE_S2C);
+        return copyAndRelease(receiveRetained(channelName, rawData));
     }
 
+    /**
+     * @return the fully received packet, or null if more fragments are still expected.
+     *         <b>The returned buffer must be released by the caller after it has been read.</b>
+     */
     @Nullable
-    private static PacketBuffer receive(String channelName, PacketBuffer rawData, int maxLength)
+    public static PacketBuffer receiveRetained(String channelName, PacketBuffer rawData)
     {
         Pair<INetHandler, ResourceLocation> key = Pair.of(Minecraft.getMinecraft().getConnection(), new ResourceLocation(channelName));
 
-        return READING_SESSIONS.computeIfAbsent(key, ReadingSession::new).receive(rawData, maxLength);
+        return receive(key, rawData, DEFAULT_MAX_RECEIVE_SIZE_S2C, MAX_PAYLOAD_PER_PACKET_S2C, null);
+    }
+
+    @Nullable
+    private static synchronized PacketBuffer receive(Pair<INetHandler, ResourceLocation> key, PacketBuffer data,
+                                                     int maxLength, int maxFragmentSize,
+                                                     @Nullable FragmentListener fragmentListener)
+    {
+        long currentTime = System.currentTimeMillis();
+
+        removeTimedOutSessions(currentTime);
+
+        ReadingSession session = READING_SESSIONS.computeIfAbsent(key, ReadingSession::new);
+
+        try
+        {
+            return session.receive(data, maxLength, maxFragmentSize, currentTime, fragmentListener);
+        }
+        catch (RuntimeException e)
+        {
+            removeSession(session);
+            throw e;
+        }
+    }
+
+    @Nullable
+    private static PacketBuffer copyAndRelease(@Nullable PacketBuffer buf)
+    {
+        if (buf == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return new PacketBuffer(Unpooled.copiedBuffer(buf));
+        }
+        finally
+        {
+            buf.release();
+        }
+    }
+
+    /**
+     * Sets the time after which a partially received packet is discarded,
+     * if no new fragments have been received for it
+     */
+    public static void setSessionTimeout(long timeoutMs)
+    {
+        sessionTimeoutMs = timeoutMs;
+    }
+
+    /**
+     * Sets the maximum number of bytes that can be buffered across all
+     * the partially received packets at the same time
+     */
+    public static void setMaxTotalBufferedBytes(long maxBytes)
+    {
+        maxTotalBufferedBytes = maxBytes;
+    }
+
+    public static long getTotalBufferedBytes()
+    {
+        return TOTAL_BUFFERED_BYTES.get();
+    }
+
+    /**
+     * Discards all the partially received packets.
+     * This is called when disconnecting from a server.
+     */
+    public static synchronized void clearSessions()
+    {
+        for (ReadingSession session : READING_SESSIONS.values())
+        {
+            TOTAL_BUFFERED_BYTES.addAndGet(-session.receivedBytes);
+            session.release();
+        }
+
+        READING_SESSIONS.clear();
+    }
+
+    private static void removeTimedOutSessions(long currentTime)
+    {
+        if (READING_SESSIONS.isEmpty())
+        {
+            return;
+        }
+
+        Iterator<ReadingSession> iter = READING_SESSIONS.values().iterator();
+
+        while (iter.hasNext())
+        {
+            ReadingSession session = iter.next();
+
+            if (currentTime - session.lastReceiveTime > sessionTimeoutMs)
+            {
+                MaLiLib.LOGGER.warn("PacketSplitter: Discarding a timed out partial packet on channel '{}' ({} / {} bytes received)",
+                                    session.key.getRight(), session.receivedBytes, session.expectedSize);
+                TOTAL_BUFFERED_BYTES.addAndGet(-session.receivedBytes);
+                session.release();
+                iter.remove();
+            }
+        }
+    }
+
+    private static void removeSession(ReadingSession session)
+    {
+        if (READING_SESSIONS.remove(session.key, session))
+        {
+            TOTAL_BUFFERED_BYTES.addAndGet(-session.receivedBytes);
+            session.release();
+        }
+    }
+
+    public interface FragmentListener
+    {
+        /**
+         * Called for each received fragment of a split packet.
+         * The fragment buffer is only valid during this call.
+         * @param fragment the payload data of this fragment (without the size prefix of the first fragment)
+         * @param receivedBytes the number of payload bytes received so far, including this fragment
+         * @param totalBytes the total size of the payload
+         */
+        void onFragmentReceived(ByteBuf fragment, int receivedBytes, int totalBytes);
     }
 
     private static class ReadingSession
     {
         private final Pair<INetHandler, ResourceLocation> key;
         private int expectedSize = -1;
-        private PacketBuffer received;
+        private int receivedBytes;
+        private long lastReceiveTime;
+        @Nullable private CompositeByteBuf received;
 
         private ReadingSession(Pair<INetHandler, ResourceLocation> key)
         {
@@ -122,8 +283,11 @@ public class PacketSplitter
         }
 
         @Nullable
-        private PacketBuffer receive(PacketBuffer data, int maxLength)
+        private PacketBuffer receive(PacketBuffer data, int maxLength, int maxFragmentSize, long currentTime,
+                                     @Nullable FragmentListener fragmentListener)
         {
+            this.lastReceiveTime = currentTime;
+
             if (this.expectedSize < 0)
             {
                 this.expectedSize = data.readVarInt();
@@ -133,18 +297,64 @@ public class PacketSplitter
                     throw new IllegalArgumentException("Payload too large");
                 }
 
-                this.received = new PacketBuffer(Unpooled.buffer(this.expectedSize));
+                // Not actually split, no need to buffer anything
+                if (data.readableBytes() >= this.expectedSize)
+                {
+                    READING_SESSIONS.remove(this.key);
+                    ByteBuf payload = data.retainedSlice(data.readerIndex(), this.expectedSize);
+
+                    if (fragmentListener != null)
+                    {
+                        fragmentListener.onFragmentReceived(payload.duplicate(), this.expectedSize, this.expectedSize);
+                    }
+
+                    return new PacketBuffer(payload);
+                }
+
+                int maxComponents = (this.expectedSize / maxFragmentSize) + 2;
+                this.received = PooledByteBufAllocator.DEFAULT.compositeBuffer(maxComponents);
             }
 
-            this.received.writeBytes(data.readBytes(data.readableBytes()));
+            int length = Math.min(data.readableBytes(), this.expectedSize - this.receivedBytes);
 
-            if (this.received.writerIndex() >= this.expectedSize)
+            if (TOTAL_BUFFERED_BYTES.get() + length > maxTotalBufferedBytes)
+            {
+                throw new IllegalStateException("Too much partially received packet data buffered (limit: " +
+                                                maxTotalBufferedBytes + " bytes)");
+            }
+
+            // Zero-copy, the composite buffer just references the received data
+            ByteBuf fragment = data.retainedSlice(data.readerIndex(), length);
+            data.skipBytes(length);
+
+            this.received.addComponent(true, fragment);
+            this.receivedBytes += length;
+            TOTAL_BUFFERED_BYTES.addAndGet(length);
+
+            if (fragmentListener != null)
+            {
+                fragmentListener.onFragmentReceived(fragment.duplicate(), this.receivedBytes, this.expectedSize);
+            }
+
+            if (this.receivedBytes >= this.expectedSize)
             {
                 READING_SESSIONS.remove(this.key);
-                return this.received;
+                TOTAL_BUFFERED_BYTES.addAndGet(-this.receivedBytes);
+                PacketBuffer buf = new PacketBuffer(this.received);
+                this.received = null;
+                return buf;
             }
 
             return null;
         }
+
+        private void release()
+        {
+            if (this.received != null)
+            {
+                this.received.release();
+                this.received = null;
+            }
+        }
     }
 }
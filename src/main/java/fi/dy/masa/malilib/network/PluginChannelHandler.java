@@ -1,6 +1,7 @@
 package fi.dy.masa.malilib.network;
 
 import java.util.List;
+import io.netty.buffer.ByteBuf;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.ResourceLocation;
 
@@ -8,5 +9,32 @@ public interface PluginChannelHandler
 {
     List<ResourceLocation> getChannels();
 
+    /**
+     * Called when a complete (possibly re-assembled) packet has been received.
+     * The buffer gets released after all the handlers have been called,
+     * so if the data is needed later, then it must be copied.
+     */
     void onPacketReceived(PacketBuffer buf);
+
+    /**
+     * @return true if this handler wants to receive the individual fragments
+     *         of split packets via {@link #onPacketFragmentReceived(ByteBuf, int, int)}
+     */
+    default boolean receivesPacketFragments()
+    {
+        return false;
+    }
+
+    /**
+     * Called for each received fragment of a split packet, before the complete packet
+     * has been received, if {@link #receivesPacketFragments()} returns true.
+     * This allows for example streaming the data to a file or showing a progress indicator.
+     * The complete packet will still be passed to {@link #onPacketReceived(PacketBuffer)} at the end.
+     * The fragment buffer is only valid during this call.
+     * @param receivedBytes the number of payload bytes received so far, including this fragment
+     * @param totalBytes the total size of the payload
+     */
+    default void onPacketFragmentReceived(ByteBuf fragment, int receivedBytes, int totalBytes)
+    {
+    }
 }
@@ -215,7 +215,9 @@ public class InfoOverlay implements PostGameOverlayRenderer, PostScreenRenderer,
     public static StringListRendererWidget getTextHud(ScreenLocation location)
     {
         InfoArea area = Registry.INFO_OVERLAY.getOrCreateInfoArea(location);
-        StringListRendererWidget widget = area.findWidget(StringListRendererWidget.class, (w) -> true);
+        // Don't return any specialized sub classes, such as the event handler timings widget
+        StringListRendererWidget widget = area.findWidget(StringListRendererWidget.class,
+                                                          (w) -> w.getClass() == StringListRendererWidget.class);
 
         if (widget == null)
         {
@@ -130,9 +130,17 @@ public class InfoWidgetManager
     }
 
     public void loadFromFile()
+    {
+        this.prepareLoadFromFile().run();
+    }
+
+    /**
+     * Reads the file on the calling thread, and returns a task that applies the data
+     */
+    public Runnable prepareLoadFromFile()
     {
         File dir = ConfigUtils.getActiveConfigDirectory();
-        JsonUtils.loadFromFile(dir, MaLiLibReference.MOD_ID + "_info_widgets.json", this::fromJson);
+        return JsonUtils.prepareLoadFromFile(dir, MaLiLibReference.MOD_ID + "_info_widgets.json", this::fromJson);
     }
 
     public boolean saveToFile()
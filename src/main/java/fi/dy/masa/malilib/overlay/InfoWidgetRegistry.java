@@ -5,6 +5,7 @@ import java.util.Map;
 import javax.annotation.Nullable;
 import fi.dy.masa.malilib.MaLiLibReference;
 import fi.dy.masa.malilib.overlay.widget.ConfigStatusIndicatorContainerWidget;
+import fi.dy.masa.malilib.overlay.widget.EventHandlerTimingsWidget;
 import fi.dy.masa.malilib.overlay.widget.InfoRendererWidget;
 import fi.dy.masa.malilib.overlay.widget.MessageRendererWidget;
 import fi.dy.masa.malilib.overlay.widget.StringListRendererWidget;
@@ -33,6 +34,7 @@ public class InfoWidgetRegistry
     private void registerDefaultFactories()
     {
         this.registerWidgetFactory(ConfigStatusIndicatorContainerWidget::new,   MaLiLibReference.MOD_ID + ":csi_container");
+        this.registerWidgetFactory(EventHandlerTimingsWidget::new,              MaLiLibReference.MOD_ID + ":event_handler_timings");
         this.registerWidgetFactory(MessageRendererWidget::new,                  MaLiLibReference.MOD_ID + ":message_renderer");
         this.registerWidgetFactory(StringListRendererWidget::new,               MaLiLibReference.MOD_ID + ":string_list_renderer");
         this.registerWidgetFactory(ToastRendererWidget::new,                    MaLiLibReference.MOD_ID + ":toast_renderer");
@@ -130,8 +130,16 @@ public class MessageRedirectManager
     }
 
     public void loadFromFile()
+    {
+        this.prepareLoadFromFile().run();
+    }
+
+    /**
+     * Reads the file on the calling thread, and returns a task that applies the data
+     */
+    public Runnable prepareLoadFromFile()
     {
         File dir = ConfigUtils.getActiveConfigDirectory();
-        JsonUtils.loadFromFile(dir, MaLiLibReference.MOD_ID + "_message_redirects.json", this::fromJson);
+        return JsonUtils.prepareLoadFromFile(dir, MaLiLibReference.MOD_ID + "_message_redirects.json", this::fromJson);
     }
 }
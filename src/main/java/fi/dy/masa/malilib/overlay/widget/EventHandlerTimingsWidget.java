@@ -0,0 +1,111 @@
+package fi.dy.masa.malilib.overlay.widget;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import fi.dy.masa.malilib.MaLiLibReference;
+import fi.dy.masa.malilib.action.ActionContext;
+import fi.dy.masa.malilib.event.dispatch.EventHandlerTimings;
+import fi.dy.masa.malilib.gui.position.ScreenLocation;
+import fi.dy.masa.malilib.input.ActionResult;
+import fi.dy.masa.malilib.overlay.InfoOverlay;
+import fi.dy.masa.malilib.registry.Registry;
+import fi.dy.masa.malilib.util.StringUtils;
+
+/**
+ * An info widget that shows the execution times of the slowest tick and render event handlers,
+ * based on the data in {@link Registry#EVENT_HANDLER_TIMINGS}. The values are in microseconds.
+ */
+public class EventHandlerTimingsWidget extends StringListRendererWidget
+{
+    protected static final String LINES_KEY = MaLiLibReference.MOD_ID + ":event_handler_timings";
+
+    protected int maxHandlers = 10;
+    protected int updateInterval = 20;
+    protected int updateCounter;
+
+    public EventHandlerTimingsWidget()
+    {
+        super();
+
+        this.setName(StringUtils.translate("malilib.label.event_handler_timings.title"));
+        this.setVisibleInContext(InfoOverlay.OverlayRenderContext.BOTH);
+    }
+
+    @Override
+    public String getWidgetTypeId()
+    {
+        return MaLiLibReference.MOD_ID + ":event_handler_timings";
+    }
+
+    /**
+     * Sets the maximum number of handlers to show. The handlers are sorted by their mean time.
+     */
+    public void setMaxHandlers(int maxHandlers)
+    {
+        this.maxHandlers = maxHandlers;
+    }
+
+    /**
+     * Sets how often (in client ticks) the values get updated
+     */
+    public void setUpdateInterval(int updateInterval)
+    {
+        this.updateInterval = Math.max(updateInterval, 1);
+    }
+
+    @Override
+    public void updateState()
+    {
+        if (++this.updateCounter >= this.updateInterval)
+        {
+            this.updateCounter = 0;
+            this.setLines(LINES_KEY, this.createLines(), 0);
+        }
+
+        super.updateState();
+    }
+
+    protected List<String> createLines()
+    {
+        List<EventHandlerTimings.HandlerTiming> timings = new ArrayList<>(Registry.EVENT_HANDLER_TIMINGS.getTimings());
+        List<String> lines = new ArrayList<>();
+
+        timings.removeIf((t) -> t.getSampleCount() == 0);
+        timings.sort(Comparator.comparingDouble(EventHandlerTimings.HandlerTiming::getMeanNanos).reversed());
+
+        final int count = Math.min(this.maxHandlers, timings.size());
+
+        for (int i = 0; i < count; ++i)
+        {
+            EventHandlerTimings.HandlerTiming timing = timings.get(i);
+            lines.add(StringUtils.translate("malilib.label.event_handler_timings.entry",
+                                            timing.getEventType(), timing.getName(),
+                                            timing.getMeanNanos() / 1000.0,
+                                            timing.getP99Nanos() / 1000.0,
+                                            timing.getMaxNanos() / 1000.0));
+        }
+
+        return lines;
+    }
+
+    /**
+     * Toggles the event handler timings widget, and creates it if it doesn't exist yet
+     */
+    public static ActionResult toggleEventHandlerTimingsWidget(ActionContext ctx)
+    {
+        EventHandlerTimingsWidget widget = InfoOverlay.findOrCreateWidget(ScreenLocation.TOP_LEFT,
+                                                                          EventHandlerTimingsWidget.class,
+                                                                          (w) -> true,
+                                                                          EventHandlerTimingsWidget::createDisabledWidget);
+        widget.toggleEnabled();
+        return ActionResult.SUCCESS;
+    }
+
+    protected static EventHandlerTimingsWidget createDisabledWidget()
+    {
+        EventHandlerTimingsWidget widget = new EventHandlerTimingsWidget();
+        widget.setEnabled(false);
+        return widget;
+    }
+}
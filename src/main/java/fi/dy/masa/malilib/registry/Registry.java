@@ -8,6 +8,7 @@ import fi.dy.masa.malilib.config.ConfigManagerImpl;
 import fi.dy.masa.malilib.config.serialization.JsonConfigSerializerRegistry;
 import fi.dy.masa.malilib.event.dispatch.ClientWorldChangeEventDispatcher;
 import fi.dy.masa.malilib.event.dispatch.ClientWorldChangeEventDispatcherImpl;
+import fi.dy.masa.malilib.event.dispatch.EventHandlerTimings;
 import fi.dy.masa.malilib.event.dispatch.InitializationDispatcher;
 import fi.dy.masa.malilib.event.dispatch.InitializationDispatcherImpl;
 import fi.dy.masa.malilib.event.dispatch.RenderEventDispatcher;
@@ -31,6 +32,7 @@ import fi.dy.masa.malilib.overlay.InfoOverlay;
 import fi.dy.masa.malilib.overlay.InfoWidgetManager;
 import fi.dy.masa.malilib.overlay.InfoWidgetRegistry;
 import fi.dy.masa.malilib.overlay.message.MessageRedirectManager;
+import fi.dy.masa.malilib.util.task.ClientTaskScheduler;
 
 public class Registry
 {
@@ -51,11 +53,13 @@ public class Registry
     public static final InfoOverlay INFO_OVERLAY = new InfoOverlay();
     public static final InfoWidgetManager INFO_WIDGET_MANAGER = new InfoWidgetManager(INFO_OVERLAY);
     public static final MessageRedirectManager MESSAGE_REDIRECT_MANAGER = new MessageRedirectManager();
+    public static final ClientTaskScheduler CLIENT_TASK_SCHEDULER = new ClientTaskScheduler();
 
     // Event dispatchers and handlers
     public static final BlockPlacementPositionHandler BLOCK_PLACEMENT_POSITION_HANDLER = new BlockPlacementPositionHandler();
     public static final ClientPacketChannelHandler CLIENT_PACKET_CHANNEL_HANDLER = new ClientPacketChannelHandlerImpl();
     public static final ClientWorldChangeEventDispatcher CLIENT_WORLD_CHANGE_EVENT_DISPATCHER = new ClientWorldChangeEventDispatcherImpl();
+    public static final EventHandlerTimings EVENT_HANDLER_TIMINGS = new EventHandlerTimings();
     public static final InitializationDispatcher INITIALIZATION_DISPATCHER = new InitializationDispatcherImpl();
     public static final InputDispatcher INPUT_DISPATCHER = new InputDispatcherImpl();
     public static final RenderEventDispatcher RENDER_EVENT_DISPATCHER = new RenderEventDispatcherImpl();
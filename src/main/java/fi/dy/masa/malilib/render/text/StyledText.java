@@ -9,13 +9,22 @@ import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import fi.dy.masa.malilib.MaLiLib;
 import fi.dy.masa.malilib.util.StringUtils;
 
 public class StyledText
 {
-    protected static final Cache<CacheKey, StyledText> TEXT_CACHE = CacheBuilder.newBuilder().initialCapacity(1000).maximumSize(1000).expireAfterAccess(15 * 60, TimeUnit.SECONDS).build();
+    /**
+     * The per-entry weight added to the glyph count of the cached texts,
+     * so that empty and very short strings also have some cost
+     */
+    protected static final int CACHE_ENTRY_BASE_WEIGHT = 16;
+
+    protected static long cacheMaxWeight = 256 * 1024;
+    protected static long cacheExpireTime = 15 * 60;
+    protected static volatile Cache<CacheKey, StyledText> textCache = createCache();
 
     public final ImmutableList<StyledTextLine> lines;
 
@@ -47,9 +56,72 @@ public class StyledText
         return this.lines.hashCode();
     }
 
+    /**
+     * @return the total number of glyphs in all the lines of this text
+     */
+    public int getGlyphCount()
+    {
+        int count = 0;
+
+        for (StyledTextLine line : this.lines)
+        {
+            count += line.glyphCount;
+        }
+
+        return count;
+    }
+
     public static void clearCache()
     {
-        TEXT_CACHE.invalidateAll();
+        textCache.invalidateAll();
+    }
+
+    /**
+     * Sets the limits of the parsed text cache. The cache is weighed by the glyph count of the texts,
+     * plus a small base weight per entry. Changing the limits clears the cache and the statistics.
+     * @param maxWeight the maximum total weight of the cached texts, roughly the maximum number of cached glyphs
+     * @param expireTime the time in seconds after which unused texts are removed from the cache
+     */
+    public static void setCacheLimits(long maxWeight, long expireTime)
+    {
+        cacheMaxWeight = maxWeight;
+        cacheExpireTime = expireTime;
+
+        Cache<CacheKey, StyledText> oldCache = textCache;
+        textCache = createCache();
+        oldCache.invalidateAll();
+    }
+
+    /**
+     * @return the hit, miss and eviction statistics of the parsed text cache,
+     *         since the cache was created or the limits were last changed
+     */
+    public static CacheStats getCacheStats()
+    {
+        return textCache.stats();
+    }
+
+    /**
+     * @return the number of currently cached texts
+     */
+    public static long getCachedTextCount()
+    {
+        return textCache.size();
+    }
+
+    protected static Cache<CacheKey, StyledText> createCache()
+    {
+        return CacheBuilder.newBuilder()
+                       .maximumWeight(cacheMaxWeight)
+                       .weigher(StyledText::getCacheWeight)
+                       .expireAfterAccess(cacheExpireTime, TimeUnit.SECONDS)
+                       .recordStats()
+                       .build();
+    }
+
+    protected static int getCacheWeight(CacheKey key, StyledText text)
+    {
+        return CACHE_ENTRY_BASE_WEIGHT + text.getGlyphCount();
     }
 
     public static StyledText ofLines(ImmutableList<StyledTextLine> lines)
@@ -77,7 +149,7 @@ public class StyledText
         try
         {
             CacheKey key = new CacheKey(str, null);
-            return TEXT_CACHE.get(key, () -> StyledTextParser.parseString(str));
+            return textCache.get(key, () -> StyledTextParser.parseString(str));
         }
         catch (ExecutionException e)
         {
@@ -91,7 +163,7 @@ public class StyledText
         try
         {
             CacheKey key = new CacheKey(str, startingStyle);
-            return TEXT_CACHE.get(key, () -> StyledTextParser.parseStringWithStartingStyle(str, startingStyle));
+            return textCache.get(key, () -> StyledTextParser.parseStringWithStartingStyle(str, startingStyle));
         }
         catch (ExecutionException e)
         {
@@ -115,8 +187,8 @@ public class StyledText
         protected final List<StyledTextLine> lines = new ArrayList<>();
         protected final List<StyledTextSegment> segmentsForCurrentLine = new ArrayList<>();
         protected final TextStyle.Builder styleBuilder = TextStyle.builder();
-        protected StringBuilder displayStringForCurrentSegment = new StringBuilder();
-        protected StringBuilder originalTextStringForCurrentSegment = new StringBuilder();
+        protected final StringBuilder displayStringForCurrentSegment = new StringBuilder();
+        protected final StringBuilder originalTextStringForCurrentSegment = new StringBuilder();
 
         Builder()
         {
@@ -137,6 +209,25 @@ public class StyledText
             this.originalTextStringForCurrentSegment.append(str);
         }
 
+        /**
+         * Appends the characters from the start index (inclusive) to the end index (exclusive)
+         * of the given string to both the display string and the original text string.
+         */
+        public void appendString(String str, int start, int end)
+        {
+            this.displayStringForCurrentSegment.append(str, start, end);
+            this.originalTextStringForCurrentSegment.append(str, start, end);
+        }
+
+        /**
+         * Appends the characters from the start index (inclusive) to the end index (exclusive)
+         * of the given string to the original text string.
+         */
+        public void appendOriginalTextString(String str, int start, int end)
+        {
+            this.originalTextStringForCurrentSegment.append(str, start, end);
+        }
+
         public void applyStyleChange(Consumer<TextStyle.Builder> styleModifier)
         {
             TextStyle styleBefore = this.styleBuilder.build();
@@ -163,6 +254,8 @@ public class StyledText
         {
             if (this.displayStringForCurrentSegment.length() > 0)
             {
+                // Share the equal style instances between all the segments and texts
+                style = TextStyle.intern(style);
                 String displayString = this.displayStringForCurrentSegment.toString();
                 String originalString = this.originalTextStringForCurrentSegment.toString();
 
@@ -170,8 +263,8 @@ public class StyledText
                                                                     this.segmentsForCurrentLine::add,
                                                                     TextRenderer.INSTANCE::getGlyphFor);
 
-                this.displayStringForCurrentSegment = new StringBuilder();
-                this.originalTextStringForCurrentSegment = new StringBuilder();
+                this.displayStringForCurrentSegment.setLength(0);
+                this.originalTextStringForCurrentSegment.setLength(0);
             }
         }
 
@@ -29,14 +29,241 @@ public class StyledTextParser
         return parseString(str, builder);
     }
 
+    /**
+     * Parses the given string in a single pass, applying the style changes and
+     * the text directly to the given builder, without any intermediate tokens.
+     */
     public static StyledText parseString(String str, StyledText.Builder builder)
     {
-        StringReader reader = new StringReader(str);
-        List<Token> tokens = new ArrayList<>();
+        final int length = str.length();
+        int textStart = 0;
+        int pos = 0;
 
-        readTokens(reader, tokens);
+        while (pos < length)
+        {
+            char previous = pos > 0 ? str.charAt(pos - 1) : 0;
+            char current = str.charAt(pos);
+            char next = pos < length - 1 ? str.charAt(pos + 1) : 0;
+            int tokenLength = 0;
+
+            if (current == '<' && previous != '\\')
+            {
+                tokenLength = getStyleTagLength(str, pos);
+            }
+
+            if (tokenLength > 0)
+            {
+                appendText(str, textStart, pos, builder);
+                applyStyleTag(str, pos, tokenLength, builder);
+            }
+            else if (current == '§' && previous != '\\' && VANILLA_FORMAT_CODES.indexOf(next) != -1)
+            {
+                tokenLength = 2;
+                appendText(str, textStart, pos, builder);
+                applyVanillaStyle(Character.toLowerCase(next), builder);
+                builder.appendOriginalTextString(str, pos, pos + tokenLength);
+            }
+            else if ((current == '\\' && next == 'n' && previous != '\\') || current == '\n')
+            {
+                tokenLength = current == '\n' ? 1 : 2;
+                appendText(str, textStart, pos, builder);
+                builder.appendOriginalTextString(str, pos, pos + tokenLength);
+                builder.addLineBeak();
+            }
+
+            if (tokenLength > 0)
+            {
+                pos += tokenLength;
+                textStart = pos;
+            }
+            else
+            {
+                ++pos;
+            }
+        }
+
+        appendText(str, textStart, length, builder);
+
+        return builder.build();
+    }
+
+    protected static void appendText(String str, int start, int end, StyledText.Builder builder)
+    {
+        if (end > start)
+        {
+            builder.appendString(str, start, end);
+        }
+    }
+
+    /**
+     * Checks if there is a valid style tag at the given position, which must have the '&lt;' character.
+     * @return the length of the style tag, or 0 if there is no valid style tag
+     */
+    protected static int getStyleTagLength(String str, int start)
+    {
+        int pos = start + 1;
+        boolean state = true;
+        char c = pos < str.length() ? str.charAt(pos) : 0;
 
-        return parseTokensToStyledText(tokens, builder);
+        if (c == '/' || c == '!' || c == '^')
+        {
+            state = false;
+            ++pos;
+        }
+
+        if (str.startsWith("b>", pos) || str.startsWith("i>", pos) || str.startsWith("u>", pos))
+        {
+            return pos + 2 - start;
+        }
+        else if (str.startsWith("st>", pos) || str.startsWith("sh>", pos))
+        {
+            return pos + 3 - start;
+        }
+        else if (str.startsWith("rnd>", pos) || (state && str.startsWith("rst>", pos)))
+        {
+            return pos + 4 - start;
+        }
+        else if (state == false)
+        {
+            if (str.startsWith("c>", pos))
+            {
+                return pos + 2 - start;
+            }
+            else if (str.startsWith("csh>", pos))
+            {
+                return pos + 4 - start;
+            }
+        }
+        else if (str.startsWith("c=", pos) || str.startsWith("csh=", pos))
+        {
+            pos += str.charAt(pos + 1) == '=' ? 2 : 4;
+            int hexLength = getHexDigitCount(str, pos, 9);
+
+            if ((hexLength == 3 || hexLength == 4 || hexLength == 6 || hexLength == 8) &&
+                str.startsWith(">", pos + hexLength))
+            {
+                return pos + hexLength + 1 - start;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Applies a style tag that has been validated by {@link #getStyleTagLength(String, int)}
+     */
+    protected static void applyStyleTag(String str, int start, int length, StyledText.Builder builder)
+    {
+        int pos = start + 1;
+        char c = str.charAt(pos);
+        final boolean state = c != '/' && c != '!' && c != '^';
+
+        if (state == false)
+        {
+            c = str.charAt(++pos);
+        }
+
+        char c2 = str.charAt(pos + 1);
+
+        switch (c)
+        {
+            case 'b': builder.applyStyleChange((b) -> b.withBold(state)); break;
+            case 'i': builder.applyStyleChange((b) -> b.withItalic(state)); break;
+            case 'u': builder.applyStyleChange((b) -> b.withUnderline(state)); break;
+            case 's':
+                if (c2 == 't') { builder.applyStyleChange((b) -> b.withStrikeThrough(state)); }
+                else           { builder.applyStyleChange((b) -> b.withShadow(state)); }
+                break;
+            case 'r':
+                if (c2 == 'n') { builder.applyStyleChange((b) -> b.withRandom(state)); }
+                else           { builder.applyStyleChange(TextStyle.Builder::resetAll); }
+                break;
+            case 'c':
+                boolean shadow = c2 == 's';
+                Color4f color = state ? parseTagColor(str, pos + (shadow ? 4 : 2), start + length - 1) : null;
+
+                if (shadow) { builder.applyStyleChange((b) -> b.withShadowColor(color)); }
+                else        { builder.applyStyleChange((b) -> b.withColor(color)); }
+                break;
+        }
+
+        builder.appendOriginalTextString(str, start, start + length);
+    }
+
+    protected static void applyVanillaStyle(char code, StyledText.Builder builder)
+    {
+        switch (code)
+        {
+            case 'k': builder.applyStyleChange((b) -> b.withRandom(true)); break;
+            case 'l': builder.applyStyleChange((b) -> b.withBold(true)); break;
+            case 'm': builder.applyStyleChange((b) -> b.withStrikeThrough(true)); break;
+            case 'n': builder.applyStyleChange((b) -> b.withUnderline(true)); break;
+            case 'o': builder.applyStyleChange((b) -> b.withItalic(true)); break;
+            case 'r': builder.applyStyleChange(TextStyle.Builder::resetVanillaStyles); break;
+            default:
+                Color4f color = Color4f.fromColor(TextRenderer.INSTANCE.getColorCode(code), 1f);
+                builder.applyStyleChange(TextStyle.Builder::resetVanillaStyles);
+                builder.applyStyleChange((b) -> b.withColor(color));
+        }
+    }
+
+    /**
+     * Parses a color in the #ARGB, #RGB, #AARRGGBB or #RRGGBB formats (without the #)
+     * @param start the start index of the hex digits (inclusive)
+     * @param end the end index of the hex digits (exclusive)
+     */
+    protected static Color4f parseTagColor(String str, int start, int end)
+    {
+        int value = 0;
+
+        for (int i = start; i < end; ++i)
+        {
+            value = (value << 4) | getHexDigitValue(str.charAt(i));
+        }
+
+        switch (end - start)
+        {
+            case 8: return Color4f.fromColor(value);
+            case 6: return Color4f.fromColor(value, 1f);
+            case 4: return Color4f.fromColor(expandShortColor(value, 4));
+            default: return Color4f.fromColor(expandShortColor(value, 3), 1f);
+        }
+    }
+
+    /**
+     * Expands each 4-bit digit of the short form color to a full 8-bit channel value
+     */
+    protected static int expandShortColor(int value, int digits)
+    {
+        int color = 0;
+
+        for (int i = digits - 1; i >= 0; --i)
+        {
+            color = (color << 8) | (((value >>> (i * 4)) & 0xF) * 17);
+        }
+
+        return color;
+    }
+
+    protected static int getHexDigitCount(String str, int start, int maxCount)
+    {
+        final int end = Math.min(str.length(), start + maxCount);
+        int count = 0;
+
+        while (start + count < end && getHexDigitValue(str.charAt(start + count)) != -1)
+        {
+            ++count;
+        }
+
+        return count;
+    }
+
+    protected static int getHexDigitValue(char c)
+    {
+        if (c >= '0' && c <= '9') { return c - '0'; }
+        if (c >= 'a' && c <= 'f') { return c - 'a' + 10; }
+        if (c >= 'A' && c <= 'F') { return c - 'A' + 10; }
+        return -1;
     }
 
     public static StyledText parseTokensToStyledText(List<Token> tokens, StyledText.Builder builder)
@@ -49,6 +276,10 @@ public class StyledTextParser
         return builder.build();
     }
 
+    /**
+     * Reads the string into a list of tokens. This is not used by the normal text parsing,
+     * see {@link #parseString(String, StyledText.Builder)} for the single pass parser.
+     */
     public static void readTokens(StringReader reader, List<Token> tokens)
     {
         int stringStart = reader.getPos();
@@ -5,11 +5,14 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.lwjgl.opengl.GL11;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BufferBuilder;
 import net.minecraft.client.renderer.GlStateManager;
@@ -43,6 +46,12 @@ public class TextRenderer implements IResourceManagerReloadListener
     protected final WorldVertexBufferUploader vboUploader = new WorldVertexBufferUploader();
     protected final BufferBuilder textBuffer = new BufferBuilder(1048576);
     protected final BufferBuilder styleBuffer = new BufferBuilder(8192);
+    protected final BufferBuilder vertexCacheTextBuffer = new BufferBuilder(16384);
+    protected final BufferBuilder vertexCacheStyleBuffer = new BufferBuilder(1024);
+    protected final Cache<StyledTextLine, CachedLineVertexData> lineVertexCache =
+            CacheBuilder.newBuilder().weakKeys().maximumWeight(4 * 1024 * 1024)
+                    .weigher((StyledTextLine k, CachedLineVertexData v) -> v.getIntCount())
+                    .expireAfterAccess(60, TimeUnit.SECONDS).build();
     protected final TextureManager textureManager;
     protected final ResourceLocation asciiTexture;
 
@@ -57,6 +66,7 @@ public class TextRenderer implements IResourceManagerReloadListener
     protected boolean unicode;
     protected boolean buildingStyleBuffer;
     protected boolean buildingTextBuffer;
+    protected boolean useVertexCache = true;
     protected int fontHeight = 9;
     protected int lineHeight = 10;
     protected int asciiGlyphWidth = 8;
@@ -133,6 +143,7 @@ public class TextRenderer implements IResourceManagerReloadListener
         }
 
         StyledText.clearCache();
+        this.lineVertexCache.invalidateAll();
         this.glyphs.clear();
         this.glyphsBySize.clear();
         Arrays.fill(this.charWidth, 0);
@@ -143,6 +154,20 @@ public class TextRenderer implements IResourceManagerReloadListener
         this.readFontTexture();
     }
 
+    /**
+     * Sets whether or not the pre-built vertex data of StyledTextLines should be
+     * cached and re-used when the same line gets rendered again with the same color and shadow settings.
+     */
+    public void setUseVertexCache(boolean useVertexCache)
+    {
+        this.useVertexCache = useVertexCache;
+
+        if (useVertexCache == false)
+        {
+            this.lineVertexCache.invalidateAll();
+        }
+    }
+
     public int getFontHeight()
     {
         return this.fontHeight;
@@ -374,11 +399,23 @@ public class TextRenderer implements IResourceManagerReloadListener
     {
         if (this.textBuffer != null)
         {
-            int segmentX = x;
-            Color4f defaultColor4f = Color4f.fromColor(defaultColor);
             RenderUtils.color(1f, 1f, 1f, 1f);
             RenderUtils.setupBlend();
 
+            if (alphaModifier == null && this.useVertexCache)
+            {
+                CachedLineVertexData data = this.getCachedVertexData(line, defaultColor, shadow);
+
+                if (data != null)
+                {
+                    this.renderCachedLineToBuffer(x, y, z, data);
+                    return;
+                }
+            }
+
+            int segmentX = x;
+            Color4f defaultColor4f = Color4f.fromColor(defaultColor);
+
             for (StyledTextSegment segment : line.segments)
             {
                 segmentX += this.renderTextSegment(segmentX, y, z, defaultColor4f, shadow, segment, alphaModifier);
@@ -386,18 +423,101 @@ public class TextRenderer implements IResourceManagerReloadListener
         }
     }
 
-    protected int renderTextSegment(int x, int y, float z, Color4f defaultColor,
-                                    boolean shadow, StyledTextSegment segment,
-                                    @Nullable FloatUnaryOperator alphaModifier)
+    @Nullable
+    protected CachedLineVertexData getCachedVertexData(StyledTextLine line, int defaultColor, boolean shadow)
     {
-        TextStyle style = segment.style;
-        Color4f color = style.color != null ? style.color : defaultColor;
+        CachedLineVertexData data = this.lineVertexCache.getIfPresent(line);
 
-        if (alphaModifier != null)
+        if (data != null && data.matches(defaultColor, shadow, this.unicode))
         {
-            color = color.withAlpha(alphaModifier.apply(color.a));
+            return data;
+        }
+
+        if (line.segments.isEmpty())
+        {
+            return null;
+        }
+
+        for (StyledTextSegment segment : line.segments)
+        {
+            // The randomized glyphs change every frame, so they can't be cached
+            if (segment.style.random)
+            {
+                return null;
+            }
+        }
+
+        data = this.buildCachedVertexData(line, defaultColor, shadow);
+        this.lineVertexCache.put(line, data);
+
+        return data;
+    }
+
+    /**
+     * Builds the vertex data of the given line at the origin,
+     * split into runs by the font texture sheet used by the segments.
+     */
+    protected CachedLineVertexData buildCachedVertexData(StyledTextLine line, int defaultColor, boolean shadow)
+    {
+        BufferBuilder textBuffer = this.vertexCacheTextBuffer;
+        BufferBuilder styleBuffer = this.vertexCacheStyleBuffer;
+        List<CachedVertexData> textureRuns = new ArrayList<>();
+        List<ResourceLocation> textures = new ArrayList<>();
+        Color4f defaultColor4f = Color4f.fromColor(defaultColor);
+        ResourceLocation texture = null;
+        int segmentX = 0;
+
+        textBuffer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX_COLOR);
+        styleBuffer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+
+        for (StyledTextSegment segment : line.segments)
+        {
+            if (texture != null && texture != segment.texture)
+            {
+                textures.add(texture);
+                textureRuns.add(CachedVertexData.of(textBuffer));
+                textBuffer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX_COLOR);
+            }
+
+            texture = segment.texture;
+            segmentX += this.renderTextSegmentToBuffers(segmentX, 0, 0.0F, defaultColor4f, shadow, segment,
+                                                        null, textBuffer, styleBuffer);
         }
 
+        textures.add(texture);
+        textureRuns.add(CachedVertexData.of(textBuffer));
+
+        return new CachedLineVertexData(defaultColor, shadow, this.unicode,
+                                        textures.toArray(new ResourceLocation[0]),
+                                        textureRuns.toArray(new CachedVertexData[0]),
+                                        CachedVertexData.of(styleBuffer));
+    }
+
+    protected void renderCachedLineToBuffer(int x, int y, float z, CachedLineVertexData data)
+    {
+        final int runCount = data.textures.length;
+
+        for (int i = 0; i < runCount; ++i)
+        {
+            ResourceLocation texture = data.textures[i];
+
+            if (this.currentFontTexture != texture)
+            {
+                this.renderTextBuffer();
+                this.startBuffers();
+                this.currentFontTexture = texture;
+            }
+
+            data.textureRuns[i].addToBuffer(x, y, z, this.textBuffer);
+        }
+
+        data.styleData.addToBuffer(x, y, z, this.styleBuffer);
+    }
+
+    protected int renderTextSegment(int x, int y, float z, Color4f defaultColor,
+                                    boolean shadow, StyledTextSegment segment,
+                                    @Nullable FloatUnaryOperator alphaModifier)
+    {
         // Reference equality is fine here, as the sheets are fixed/pre-determined
         if (this.currentFontTexture != segment.texture)
         {
@@ -406,6 +526,23 @@ public class TextRenderer implements IResourceManagerReloadListener
             this.currentFontTexture = segment.texture;
         }
 
+        return this.renderTextSegmentToBuffers(x, y, z, defaultColor, shadow, segment, alphaModifier,
+                                               this.textBuffer, this.styleBuffer);
+    }
+
+    protected int renderTextSegmentToBuffers(int x, int y, float z, Color4f defaultColor,
+                                             boolean shadow, StyledTextSegment segment,
+                                             @Nullable FloatUnaryOperator alphaModifier,
+                                             BufferBuilder textBuffer, BufferBuilder styleBuffer)
+    {
+        TextStyle style = segment.style;
+        Color4f color = style.color != null ? style.color : defaultColor;
+
+        if (alphaModifier != null)
+        {
+            color = color.withAlpha(alphaModifier.apply(color.a));
+        }
+
         if (style.shadow != null)
         {
             shadow = style.shadow;
@@ -421,14 +558,22 @@ public class TextRenderer implements IResourceManagerReloadListener
             }
 
             float offset = this.unicode ? 0.5F : 1.0F;
-            this.renderTextSegmentAndStylesWithColor(x + offset, y + offset, z, shadowColor, segment);
+            this.renderTextSegmentAndStylesWithColor(x + offset, y + offset, z, shadowColor, segment,
+                                                     textBuffer, styleBuffer);
         }
 
-        return this.renderTextSegmentAndStylesWithColor(x, y, z, color, segment);
+        return this.renderTextSegmentAndStylesWithColor(x, y, z, color, segment, textBuffer, styleBuffer);
     }
 
     protected int renderTextSegmentAndStylesWithColor(float x, float y, float z,
                                                       Color4f color, StyledTextSegment segment)
+    {
+        return this.renderTextSegmentAndStylesWithColor(x, y, z, color, segment, this.textBuffer, this.styleBuffer);
+    }
+
+    protected int renderTextSegmentAndStylesWithColor(float x, float y, float z,
+                                                      Color4f color, StyledTextSegment segment,
+                                                      BufferBuilder textBuffer, BufferBuilder styleBuffer)
     {
         TextStyle style = segment.style;
 
@@ -436,17 +581,17 @@ public class TextRenderer implements IResourceManagerReloadListener
         {
             float lineHeight = this.unicode ? 0.5F : 1.0F;
             ShapeRenderUtils.renderRectangle(x - 1F, y + this.fontHeight - 1F, z,
-                                             segment.renderWidth, lineHeight, color, this.styleBuffer);
+                                             segment.renderWidth, lineHeight, color, styleBuffer);
         }
 
         if (style.strikeThrough)
         {
             float lineHeight = this.unicode ? 0.5F : 1.0F;
             ShapeRenderUtils.renderRectangle(x - 1F, y + this.fontHeight / 2.0F - 1F, z,
-                                             segment.renderWidth + 1, lineHeight, color, this.styleBuffer);
+                                             segment.renderWidth + 1, lineHeight, color, styleBuffer);
         }
 
-        return this.renderTextSegmentWithColor(x, y, z, segment, color, this.textBuffer);
+        return this.renderTextSegmentWithColor(x, y, z, segment, color, textBuffer);
     }
 
     protected int renderTextSegmentWithColor(float x, float y, float z, StyledTextSegment segment,
@@ -499,4 +644,121 @@ public class TextRenderer implements IResourceManagerReloadListener
 
         return renderWidth;
     }
+
+    protected static class CachedLineVertexData
+    {
+        protected final int defaultColor;
+        protected final boolean shadow;
+        protected final boolean unicode;
+        protected final ResourceLocation[] textures;
+        protected final CachedVertexData[] textureRuns;
+        protected final CachedVertexData styleData;
+
+        protected CachedLineVertexData(int defaultColor, boolean shadow, boolean unicode,
+                                       ResourceLocation[] textures, CachedVertexData[] textureRuns,
+                                       CachedVertexData styleData)
+        {
+            this.defaultColor = defaultColor;
+            this.shadow = shadow;
+            this.unicode = unicode;
+            this.textures = textures;
+            this.textureRuns = textureRuns;
+            this.styleData = styleData;
+        }
+
+        public boolean matches(int defaultColor, boolean shadow, boolean unicode)
+        {
+            return this.defaultColor == defaultColor && this.shadow == shadow && this.unicode == unicode;
+        }
+
+        public int getIntCount()
+        {
+            int count = this.styleData.getIntCount();
+
+            for (CachedVertexData data : this.textureRuns)
+            {
+                count += data.getIntCount();
+            }
+
+            return count;
+        }
+    }
+
+    /**
+     * Holds vertex data built at the origin, and a translated copy of it.
+     * The translated copy is only updated when the render position changes,
+     * which for most HUD text means that it gets re-used as-is every frame.
+     */
+    protected static class CachedVertexData
+    {
+        protected final int[] vertexData;
+        protected final int[] translatedData;
+        protected final int stride;
+        protected boolean hasTranslation;
+        protected int lastX;
+        protected int lastY;
+        protected float lastZ;
+
+        protected CachedVertexData(int[] vertexData, int stride)
+        {
+            this.vertexData = vertexData;
+            this.translatedData = vertexData.clone();
+            this.stride = stride;
+        }
+
+        public int getIntCount()
+        {
+            return this.vertexData.length * 2;
+        }
+
+        public void addToBuffer(int x, int y, float z, BufferBuilder buffer)
+        {
+            if (this.vertexData.length == 0)
+            {
+                return;
+            }
+
+            if (this.hasTranslation == false || x != this.lastX || y != this.lastY || z != this.lastZ)
+            {
+                this.translate(x, y, z);
+            }
+
+            buffer.addVertexData(this.translatedData);
+        }
+
+        protected void translate(int x, int y, float z)
+        {
+            final int[] src = this.vertexData;
+            final int[] dst = this.translatedData;
+            final int length = src.length;
+            final int stride = this.stride;
+
+            // The position is always the first element of the vertex formats used for the text
+            for (int i = 0; i < length; i += stride)
+            {
+                dst[i    ] = Float.floatToRawIntBits(Float.intBitsToFloat(src[i    ]) + x);
+                dst[i + 1] = Float.floatToRawIntBits(Float.intBitsToFloat(src[i + 1]) + y);
+                dst[i + 2] = Float.floatToRawIntBits(Float.intBitsToFloat(src[i + 2]) + z);
+            }
+
+            this.lastX = x;
+            this.lastY = y;
+            this.lastZ = z;
+            this.hasTranslation = true;
+        }
+
+        /**
+         * Finishes the given buffer and copies its vertex data
+         */
+        public static CachedVertexData of(BufferBuilder buffer)
+        {
+            buffer.finishDrawing();
+
+            int stride = buffer.getVertexFormat().getIntegerSize();
+            int[] data = new int[buffer.getVertexCount() * stride];
+            buffer.getByteBuffer().asIntBuffer().get(data);
+
+            return new CachedVertexData(data, stride);
+        }
+    }
 }
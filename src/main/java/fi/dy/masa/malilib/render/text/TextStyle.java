@@ -2,12 +2,15 @@ package fi.dy.masa.malilib.render.text;
 
 import java.util.Objects;
 import javax.annotation.Nullable;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import fi.dy.masa.malilib.render.Gradient;
 import fi.dy.masa.malilib.util.data.Color4f;
 
 public class TextStyle
 {
-    public static final TextStyle DEFAULT = new TextStyle(null, false, false, false);
+    protected static final Interner<TextStyle> INTERNER = Interners.newWeakInterner();
+    public static final TextStyle DEFAULT = intern(new TextStyle(null, false, false, false));
 
     public final boolean bold;
     public final boolean italic;
@@ -144,6 +147,16 @@ public class TextStyle
         return new Builder();
     }
 
+    /**
+     * Returns a shared instance of an equal style, so that the same style used by
+     * many text segments (and cached texts) only takes up memory once.
+     * The shared instances are weakly referenced, so unused styles get garbage collected.
+     */
+    public static TextStyle intern(TextStyle style)
+    {
+        return INTERNER.intern(style);
+    }
+
     @Override
     public boolean equals(Object o)
     {
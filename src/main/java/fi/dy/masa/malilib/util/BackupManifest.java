@@ -0,0 +1,389 @@
+package fi.dy.masa.malilib.util;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import fi.dy.masa.malilib.MaLiLib;
+
+/**
+ * A manifest of the backup files in one backup directory. For each backup file it stores
+ * the file size, the last modified time, the hash (if it has been needed) and a sequence
+ * number that tells the order in which the backups were created.
+ * The manifest is kept in memory and saved to a file in the backup directory after each change,
+ * so the existing backups don't need to be re-hashed when checking for duplicates.
+ * The known hashes are also indexed, so that finding an identical backup is a map lookup.
+ * The numbered backup files of each file name are checked on disk once, when they are first used,
+ * after that the manifest is trusted to know which backup slots are in use.
+ * An entry for a possible duplicate is only trusted if the file's size and last modified time
+ * still match, otherwise the entry gets re-created from the file.
+ */
+public class BackupManifest
+{
+    public static final String FILE_NAME = "backup_manifest.json";
+    protected static final Map<File, BackupManifest> MANIFESTS = new HashMap<>();
+
+    protected final File directory;
+    protected final File manifestFile;
+    protected final Map<String, Entry> entries = new HashMap<>();
+    protected final Map<String, Set<String>> filesByHash = new HashMap<>();
+    protected final Map<String, Integer> scannedBackupCounts = new HashMap<>();
+    protected long sequence;
+    protected boolean dirty;
+
+    protected BackupManifest(File directory)
+    {
+        this.directory = directory;
+        this.manifestFile = new File(directory, FILE_NAME);
+    }
+
+    /**
+     * Returns the manifest for the given directory. The manifest is loaded from file
+     * when it's first requested, and then kept in memory.
+     * Synchronize on the returned manifest while using it.
+     */
+    public static BackupManifest getManifest(File directory)
+    {
+        directory = directory.getAbsoluteFile();
+
+        synchronized (MANIFESTS)
+        {
+            BackupManifest manifest = MANIFESTS.get(directory);
+
+            if (manifest == null)
+            {
+                manifest = new BackupManifest(directory);
+                manifest.load();
+                MANIFESTS.put(directory, manifest);
+            }
+
+            return manifest;
+        }
+    }
+
+    /**
+     * Returns the entry for the given backup file, if the file exists.
+     * If there is no valid entry for the file, then a new one is created,
+     * using the given sequence number. That is used for backups created before the manifest existed.
+     * @return the entry for the file, or null if the file doesn't exist
+     */
+    @Nullable
+    public Entry getEntry(String fileName, long legacySequence)
+    {
+        File file = new File(this.directory, fileName);
+
+        if (file.isFile() == false)
+        {
+            this.removeFile(fileName);
+            return null;
+        }
+
+        long size = file.length();
+        long lastModified = file.lastModified();
+        Entry entry = this.entries.get(fileName);
+
+        if (entry == null || entry.size != size || entry.lastModified != lastModified)
+        {
+            long seq = entry != null ? entry.sequence : legacySequence;
+            entry = new Entry(size, lastModified, null, seq);
+            this.putEntry(fileName, entry);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Returns the entry for the given backup file, without checking the file on disk
+     * @return the entry for the file, or null if the file is not in the manifest
+     */
+    @Nullable
+    public Entry getTrackedEntry(String fileName)
+    {
+        return this.entries.get(fileName);
+    }
+
+    /**
+     * Makes sure that the manifest has entries for all the existing numbered backup files
+     * with the given base name, for example for backups from before the manifest existed.
+     * This checks all the numbered files on disk, so it's only done when the backups of
+     * the given base name are first used, or if the backup count has been increased since.
+     * Backups that don't yet have an entry are ordered by their number, 1 being the newest.
+     * @param nameAndSuffix the base name of the backup files, without the number
+     * @param nameFormatString the format string for the base name and the number
+     * @param maxBackups the number of backup slots
+     */
+    public void scanBackupFiles(String nameAndSuffix, String nameFormatString, int maxBackups)
+    {
+        Integer scannedCount = this.scannedBackupCounts.get(nameAndSuffix);
+
+        if (scannedCount != null && scannedCount >= maxBackups)
+        {
+            return;
+        }
+
+        for (int i = 1; i <= maxBackups; ++i)
+        {
+            this.getEntry(String.format(nameFormatString, nameAndSuffix, i), -i);
+        }
+
+        this.scannedBackupCounts.put(nameAndSuffix, maxBackups);
+    }
+
+    /**
+     * Finds the backup files with the given base name that are identical to a file with the given size and hash.
+     * The backups of the same size that don't have their hash calculated yet get hashed first.
+     * The found files are checked on disk, and any changed files are re-hashed.
+     * @param nameAndSuffix the base name of the backup files, without the number
+     * @return the names of the identical backup files
+     */
+    public List<String> findFilesWithHash(String nameAndSuffix, long size, String hash, MessageDigest digest)
+    {
+        List<String> names = new ArrayList<>();
+
+        for (Map.Entry<String, Entry> mapEntry : this.entries.entrySet())
+        {
+            String fileName = mapEntry.getKey();
+            Entry entry = mapEntry.getValue();
+
+            if (entry.hash == null && entry.size == size && fileName.startsWith(nameAndSuffix))
+            {
+                this.getHash(fileName, entry, digest);
+            }
+        }
+
+        Set<String> candidates = this.filesByHash.get(hash);
+
+        if (candidates == null)
+        {
+            return names;
+        }
+
+        for (String fileName : new ArrayList<>(candidates))
+        {
+            if (fileName.startsWith(nameAndSuffix) == false)
+            {
+                continue;
+            }
+
+            // This re-creates the entry without a hash, if the file has been modified
+            Entry entry = this.getEntry(fileName, 0L);
+
+            if (entry != null && entry.size == size && hash.equals(this.getHash(fileName, entry, digest)))
+            {
+                names.add(fileName);
+            }
+        }
+
+        return names;
+    }
+
+    /**
+     * Returns the hash of the given backup file, and calculates and stores it in the entry
+     * if it was not yet known.
+     */
+    public String getHash(String fileName, Entry entry, MessageDigest digest)
+    {
+        if (entry.hash == null)
+        {
+            String hash = HashUtils.getHashAsHexString(new File(this.directory, fileName), digest);
+
+            if (hash.isEmpty())
+            {
+                return hash;
+            }
+
+            entry.hash = hash;
+            this.addToHashIndex(fileName, hash);
+            this.dirty = true;
+        }
+
+        return entry.hash;
+    }
+
+    /**
+     * Marks the given existing backup file as the newest backup.
+     * The file itself is not touched, so its last modified time still tells when the backed up data was saved.
+     */
+    public void markAsNewest(String fileName, Entry entry)
+    {
+        entry.sequence = ++this.sequence;
+        this.dirty = true;
+    }
+
+    /**
+     * Adds a newly created backup file as the newest backup
+     * @param hash the hash of the file, if it's already known
+     */
+    public void addNewestFile(String fileName, @Nullable String hash)
+    {
+        File file = new File(this.directory, fileName);
+
+        if (hash != null && hash.isEmpty())
+        {
+            hash = null;
+        }
+
+        this.putEntry(fileName, new Entry(file.length(), file.lastModified(), hash, ++this.sequence));
+    }
+
+    public void removeFile(String fileName)
+    {
+        Entry entry = this.entries.remove(fileName);
+
+        if (entry != null)
+        {
+            this.removeFromHashIndex(fileName, entry.hash);
+            this.dirty = true;
+        }
+    }
+
+    protected void putEntry(String fileName, Entry entry)
+    {
+        Entry old = this.entries.put(fileName, entry);
+
+        if (old != null)
+        {
+            this.removeFromHashIndex(fileName, old.hash);
+        }
+
+        this.addToHashIndex(fileName, entry.hash);
+        this.dirty = true;
+    }
+
+    protected void addToHashIndex(String fileName, @Nullable String hash)
+    {
+        if (hash != null)
+        {
+            Set<String> names = this.filesByHash.get(hash);
+
+            if (names == null)
+            {
+                names = new HashSet<>();
+                this.filesByHash.put(hash, names);
+            }
+
+            names.add(fileName);
+        }
+    }
+
+    protected void removeFromHashIndex(String fileName, @Nullable String hash)
+    {
+        Set<String> names = hash != null ? this.filesByHash.get(hash) : null;
+
+        if (names != null && names.remove(fileName) && names.isEmpty())
+        {
+            this.filesByHash.remove(hash);
+        }
+    }
+
+    protected void load()
+    {
+        if (this.manifestFile.isFile() == false)
+        {
+            return;
+        }
+
+        JsonElement el = JsonUtils.parseJsonFile(this.manifestFile);
+
+        if (el == null || el.isJsonObject() == false)
+        {
+            return;
+        }
+
+        JsonObject obj = el.getAsJsonObject();
+        this.sequence = JsonUtils.getLongOrDefault(obj, "sequence", 0L);
+
+        JsonUtils.readObjectIfPresent(obj, "files", (filesObj) -> {
+            for (Map.Entry<String, JsonElement> mapEntry : filesObj.entrySet())
+            {
+                if (mapEntry.getValue().isJsonObject())
+                {
+                    JsonObject entryObj = mapEntry.getValue().getAsJsonObject();
+                    long size = JsonUtils.getLongOrDefault(entryObj, "size", -1L);
+                    long lastModified = JsonUtils.getLongOrDefault(entryObj, "mtime", -1L);
+                    String hash = JsonUtils.getStringOrDefault(entryObj, "hash", null);
+                    long seq = JsonUtils.getLongOrDefault(entryObj, "seq", 0L);
+
+                    this.entries.put(mapEntry.getKey(), new Entry(size, lastModified, hash, seq));
+                    this.addToHashIndex(mapEntry.getKey(), hash);
+                }
+            }
+        });
+    }
+
+    /**
+     * Saves the manifest to file, if it has been changed
+     */
+    public void saveIfDirty()
+    {
+        if (this.dirty == false)
+        {
+            return;
+        }
+
+        JsonObject obj = new JsonObject();
+        JsonObject filesObj = new JsonObject();
+
+        for (Map.Entry<String, Entry> mapEntry : this.entries.entrySet())
+        {
+            Entry entry = mapEntry.getValue();
+            JsonObject entryObj = new JsonObject();
+
+            entryObj.addProperty("size", entry.size);
+            entryObj.addProperty("mtime", entry.lastModified);
+            entryObj.addProperty("seq", entry.sequence);
+
+            if (entry.hash != null)
+            {
+                entryObj.addProperty("hash", entry.hash);
+            }
+
+            filesObj.add(mapEntry.getKey(), entryObj);
+        }
+
+        obj.addProperty("sequence", this.sequence);
+        obj.add("files", filesObj);
+
+        if (JsonUtils.writeJsonToFileAtomically(obj, this.manifestFile))
+        {
+            this.dirty = false;
+        }
+        else
+        {
+            MaLiLib.LOGGER.warn("Failed to save the backup manifest '{}'", this.manifestFile.getAbsolutePath());
+        }
+    }
+
+    public static class Entry
+    {
+        protected long size;
+        protected long lastModified;
+        @Nullable protected String hash;
+        protected long sequence;
+
+        protected Entry(long size, long lastModified, @Nullable String hash, long sequence)
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.sequence = sequence;
+        }
+
+        public long getSize()
+        {
+            return this.size;
+        }
+
+        public long getSequence()
+        {
+            return this.sequence;
+        }
+    }
+}
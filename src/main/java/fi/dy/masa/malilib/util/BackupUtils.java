@@ -4,7 +4,6 @@ import java.io.File;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import javax.annotation.Nullable;
 import org.apache.commons.codec.digest.DigestUtils;
 import fi.dy.masa.malilib.MaLiLib;
@@ -13,16 +12,22 @@ public class BackupUtils
 {
     /**
      * Creates a rolling backup copy of the given file <b>fileIn</b>.
-     * The backup copies are only rotated up to the first possible empty slot/backup name.
+     * The backups are stored in numbered slots '1 .. maxBackups'. A new backup goes into the first
+     * free slot, or if all the slots are in use, then it replaces the oldest backup.
+     * <b>Note:</b> The existing backups are not renamed when a new backup is added, so unlike with
+     * the older renaming rotation, the backup number 1 is not necessarily the newest backup.
+     * The order of the backups is tracked by the {@link BackupManifest} in the backup directory.
+     * The last modified times of the backup files tell when the backed up data was saved.
      * If <b>antiDuplicate</b> is true, then the current file is first compared to all the
      * existing backups (up to the <b>maxBackups</b> count/name), and if an identical backup file
-     * is found (by file size and SHA-1 hash), then that older identical copy is renamed as backup 1,
-     * and the current file is not copied again.
+     * is found (by file size and SHA-1 hash), then that older identical copy is marked as the newest backup,
+     * and the current file is not copied again. The hashes of the existing backups are stored
+     * in the manifest, so normally only the current file needs to be hashed.
      * @param fileIn the file that is being backed up
      * @param backupDirectory the directory in which the backup copies will be created
      * @param suffix the backup suffix to use. The backups will be named in the format '<filename><suffix><number>',
      *               for example if the suffix is '.bak_', then the name will be 'foo.json.bak_01'
-     * @param maxBackups the maximum number of backup copies to keep. The files are rotated up to that count/name.
+     * @param maxBackups the maximum number of backup copies to keep
      * @param antiDuplicate if true, the old backups are checked for an existing identical copy first
      * @return true if the file was successfully copied in a backup file
      */
@@ -35,60 +40,123 @@ public class BackupUtils
             return false;
         }
 
-        final int numberLength = (int) Math.ceil(Math.log10(maxBackups));
-        final String formatString = "%s%0" + numberLength + "d";
-        final String name = fileIn.getName();
-        final String nameAndSuffix = name + suffix;
-        final File backupFile = new File(backupDirectory, String.format(formatString, nameAndSuffix, 1));
-        @Nullable File existingIdenticalBackup = null;
-        boolean foundExistingBackup = false;
-
-        if (antiDuplicate)
+        final String formatString = getBackupNameFormatString(maxBackups);
+        final String nameAndSuffix = fileIn.getName() + suffix;
+        final BackupManifest manifest = BackupManifest.getManifest(backupDirectory);
+
+        synchronized (manifest)
         {
-            List<File> identicalBackups = findIdenticalBackupFiles(backupDirectory, fileIn, maxBackups, suffix);
+            manifest.scanBackupFiles(nameAndSuffix, formatString, maxBackups);
+
+            @Nullable String currentHash = null;
 
-            if (identicalBackups.isEmpty() == false)
+            if (antiDuplicate)
             {
-                File tmpFile = identicalBackups.get(0);
+                MessageDigest digest = DigestUtils.getSha1Digest();
+                currentHash = HashUtils.getHashAsHexString(fileIn, digest);
+                String identicalName = findIdenticalBackupName(manifest, fileIn, currentHash, nameAndSuffix, maxBackups, digest);
 
-                // If the existing identical backup was already the first/latest backup file,
-                // then there is nothing more to do
-                if (tmpFile.equals(backupFile))
+                if (identicalName != null)
                 {
+                    manifest.markAsNewest(identicalName, manifest.getTrackedEntry(identicalName));
+                    manifest.saveIfDirty();
                     return true;
                 }
+            }
+
+            @Nullable String firstFreeName = null;
+            @Nullable String oldestName = null;
+            long oldestSequence = Long.MAX_VALUE;
+
+            for (int i = 1; i <= maxBackups; ++i)
+            {
+                String backupName = String.format(formatString, nameAndSuffix, i);
+                BackupManifest.Entry entry = manifest.getTrackedEntry(backupName);
 
-                String tmpName = name + UUID.randomUUID();
-                existingIdenticalBackup = new File(backupDirectory, tmpName);
+                if (entry == null)
+                {
+                    firstFreeName = backupName;
+                    break;
+                }
 
-                // Move the existing identical backup to a temporary name.
-                // Then rotate the files from 1 up to that existing name,
-                // and finally move that existing backup as the latest backup file.
-                if (existingIdenticalBackup.exists() == false && tmpFile.renameTo(existingIdenticalBackup))
+                if (entry.getSequence() < oldestSequence)
                 {
-                    foundExistingBackup = true;
+                    oldestSequence = entry.getSequence();
+                    oldestName = backupName;
                 }
             }
+
+            String targetName = firstFreeName != null ? firstFreeName : oldestName;
+
+            if (targetName == null)
+            {
+                return false;
+            }
+
+            File backupFile = new File(backupDirectory, targetName);
+
+            if (backupFile.exists() && backupFile.delete() == false)
+            {
+                MaLiLib.LOGGER.error("Failed to delete the old backup file '{}'", backupFile.getAbsolutePath());
+                return false;
+            }
+
+            manifest.removeFile(targetName);
+
+            boolean success = FileUtils.copyFile(fileIn, backupFile, MaLiLib.LOGGER::error);
+
+            if (success)
+            {
+                manifest.addNewestFile(targetName, currentHash);
+            }
+
+            manifest.saveIfDirty();
+
+            return success;
         }
+    }
 
-        // Only rotate the backups if the first name is in use
-        if (backupFile.exists() && rotateNumberedFiles(backupDirectory, nameAndSuffix, formatString, maxBackups) == false)
+    /**
+     * @return the name of an existing backup file in the slots 1 .. maxBackups that is identical
+     *         to the given file, or null if there is none
+     */
+    @Nullable
+    protected static String findIdenticalBackupName(BackupManifest manifest, File fileIn, String fileHash,
+                                                    String nameAndSuffix, int maxBackups, MessageDigest digest)
+    {
+        if (fileHash.isEmpty())
         {
-            return false;
+            return null;
         }
 
-        if (foundExistingBackup)
+        for (String name : manifest.findFilesWithHash(nameAndSuffix, fileIn.length(), fileHash, digest))
         {
-            if (existingIdenticalBackup.renameTo(backupFile))
+            if (isBackupSlotName(name, nameAndSuffix, maxBackups))
             {
-                return true;
+                return name;
             }
+        }
 
-            MaLiLib.LOGGER.error("Failed to rename backup file '{}' to '{}'",
-                                 existingIdenticalBackup.getAbsolutePath(), backupFile.getAbsolutePath());
+        return null;
+    }
+
+    protected static boolean isBackupSlotName(String name, String nameAndSuffix, int maxBackups)
+    {
+        try
+        {
+            int slot = Integer.parseInt(name.substring(nameAndSuffix.length()));
+            return slot >= 1 && slot <= maxBackups;
+        }
+        catch (NumberFormatException e)
+        {
+            return false;
         }
+    }
 
-        return FileUtils.copyFile(fileIn, backupFile, MaLiLib.LOGGER::error);
+    protected static String getBackupNameFormatString(int maxBackups)
+    {
+        final int numberLength = (int) Math.ceil(Math.log10(maxBackups));
+        return "%s%0" + numberLength + "d";
     }
 
     /**
@@ -171,33 +239,38 @@ public class BackupUtils
         return FileUtils.copyFile(fileIn, new File(backupDirectory, backupFileName), MaLiLib.LOGGER::error);
     }
 
+    /**
+     * Finds the existing backups that are identical to the given file.
+     * The identical backups are looked up by the file hash from the {@link BackupManifest}
+     * of the backup directory.
+     */
     public static List<File> findIdenticalBackupFiles(File backupDirectory, File fileIn, int maxBackups, String suffix)
     {
         final List<File> files = new ArrayList<>();
-        final long fileSize = fileIn.length();
-        final int numberLength = (int) Math.ceil(Math.log10(maxBackups));
-        final String formatString = "%s%0" + numberLength + "d";
+        final String formatString = getBackupNameFormatString(maxBackups);
         final String nameAndSuffix = fileIn.getName() + suffix;
         final MessageDigest digest = DigestUtils.getSha1Digest();
-        @Nullable String currentHash = null;
+        final BackupManifest manifest = BackupManifest.getManifest(backupDirectory);
+        final String currentHash = HashUtils.getHashAsHexString(fileIn, digest);
 
-        for (int i = 1; i <= maxBackups; ++i)
+        if (currentHash.isEmpty())
         {
-            File tmp = new File(backupDirectory, String.format(formatString, nameAndSuffix, i));
+            return files;
+        }
 
-            if (tmp.exists() && tmp.isFile() && tmp.length() == fileSize)
-            {
-                // lazy initialization, only calculate the current file's hash if it's needed
-                if (currentHash == null)
-                {
-                    currentHash = HashUtils.getHashAsHexString(fileIn, digest);
-                }
+        synchronized (manifest)
+        {
+            manifest.scanBackupFiles(nameAndSuffix, formatString, maxBackups);
 
-                if (HashUtils.getHashAsHexString(tmp, digest).equals(currentHash))
+            for (String name : manifest.findFilesWithHash(nameAndSuffix, fileIn.length(), currentHash, digest))
+            {
+                if (isBackupSlotName(name, nameAndSuffix, maxBackups))
                 {
-                    files.add(tmp);
+                    files.add(new File(backupDirectory, name));
                 }
             }
+
+            manifest.saveIfDirty();
         }
 
         return files;
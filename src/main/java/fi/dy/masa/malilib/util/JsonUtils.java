@@ -1,11 +1,17 @@
 package fi.dy.masa.malilib.util;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +26,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Vec3i;
@@ -512,50 +519,94 @@ public class JsonUtils
         return gson.toJson(element);
     }
 
+    /**
+     * @deprecated This is now identical to {@link #writeJsonToFileAtomically(JsonElement, File)}, use that instead
+     */
+    @Deprecated
     public static boolean writeJsonToFile(JsonElement root, File file)
     {
-        return writeJsonToFile(GSON, root, file);
+        return writeJsonToFileAtomically(GSON, root, file);
+    }
+
+    /**
+     * Writes the JSON data first to a temporary file, and then moves it over the target file
+     * using an atomic move, if the file system supports it. This means that the old file
+     * stays intact if the game crashes or gets killed in the middle of the write.
+     * The data is written using the pretty printing {@link #GSON} instance.
+     * @return true if the file was successfully written
+     */
+    public static boolean writeJsonToFileAtomically(JsonElement root, File file)
+    {
+        return writeJsonToFileAtomically(GSON, root, file);
     }
 
+    /**
+     * Writes the JSON data first to a temporary file, and then moves it over the target file
+     * using an atomic move, if the file system supports it. This means that the old file
+     * stays intact if the game crashes or gets killed in the middle of the write.
+     * The data is serialized directly into the file, see {@link #writeJsonToFileStreaming(Gson, JsonElement, File, boolean)}.
+     * @return true if the file was successfully written
+     */
+    public static boolean writeJsonToFileAtomically(Gson gson, JsonElement root, File file)
+    {
+        return writeJsonToFileStreaming(gson, root, file, false);
+    }
+
+    /**
+     * @deprecated This is now identical to {@link #writeJsonToFileAtomically(Gson, JsonElement, File)}, use that instead
+     */
+    @Deprecated
     public static boolean writeJsonToFile(Gson gson, JsonElement root, File file)
     {
-        OutputStreamWriter writer = null;
-        File fileTmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        return writeJsonToFileAtomically(gson, root, file);
+    }
 
-        if (fileTmp.exists())
-        {
-            fileTmp = new File(file.getParentFile(), UUID.randomUUID() + ".tmp");
-        }
+    /**
+     * Serializes the JSON data directly into a temporary file via a JsonWriter, without
+     * first building the entire document as a String, and then moves the temporary file
+     * over the target file using an atomic move, if the file system supports it.
+     * @param sync if true, then the written data is forced to the storage device before the file
+     *             is moved into place. This makes the write safe also against power loss,
+     *             but it's slower, so it should preferably only be used on a background thread.
+     * @return true if the file was successfully written
+     */
+    public static boolean writeJsonToFileStreaming(Gson gson, JsonElement root, File file, boolean sync)
+    {
+        File fileTmp = new File(file.getParentFile(), file.getName() + "." + UUID.randomUUID() + ".tmp");
 
         try
         {
-            writer = new OutputStreamWriter(new FileOutputStream(fileTmp), StandardCharsets.UTF_8);
-            writer.write(gson.toJson(root));
-            writer.close();
+            try (FileChannel channel = FileChannel.open(fileTmp.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1), 16384);
+                 JsonWriter jsonWriter = gson.newJsonWriter(writer))
+            {
+                gson.toJson(root, jsonWriter);
+                jsonWriter.flush();
 
-            if (file.exists() && file.isFile() && file.delete() == false)
+                if (sync)
+                {
+                    channel.force(true);
+                }
+            }
+
+            try
             {
-                MaLiLib.LOGGER.warn("Failed to delete file '{}'", file.getAbsolutePath());
+                Files.move(fileTmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(fileTmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
             }
 
-            return fileTmp.renameTo(file);
+            return true;
         }
         catch (Exception e)
         {
-            MaLiLib.LOGGER.warn("Failed to write JSON data to file '{}'", fileTmp.getAbsolutePath(), e);
-        }
-        finally
-        {
-            try
-            {
-                if (writer != null)
-                {
-                    writer.close();
-                }
-            }
-            catch (Exception e)
+            MaLiLib.LOGGER.warn("Failed to write JSON data to file '{}'", file.getAbsolutePath(), e);
+
+            if (fileTmp.exists() && fileTmp.delete() == false)
             {
-                MaLiLib.LOGGER.warn("Failed to close JSON file", e);
+                MaLiLib.LOGGER.warn("Failed to delete the temporary file '{}'", fileTmp.getAbsolutePath());
             }
         }
 
@@ -602,12 +653,34 @@ public class JsonUtils
                 BackupUtils.createRollingBackup(saveFile, backupDir, ".bak_", backupCount, deDuplicate);
             }
 
-            return writeJsonToFile(dataSource.get(), saveFile);
+            return writeJsonToFileStreaming(GSON, dataSource.get(), saveFile, false);
         }
 
         return false;
     }
 
+    /**
+     * Reads and parses the given file on the calling thread (which can be a background thread),
+     * and returns a task that passes the parsed data to the given consumer, if the file existed.
+     * The returned task should be run on the main thread.
+     */
+    public static Runnable prepareLoadFromFile(File dir, String fileName, Consumer<JsonElement> dataConsumer)
+    {
+        File saveFile = new File(dir, fileName);
+
+        if (saveFile.exists() && saveFile.isFile() && saveFile.canRead())
+        {
+            JsonElement element = parseJsonFile(saveFile);
+
+            if (element != null)
+            {
+                return () -> dataConsumer.accept(element);
+            }
+        }
+
+        return () -> {};
+    }
+
     public static void loadFromFile(File dir, String fileName, Consumer<JsonElement> dataConsumer)
     {
         File saveFile = new File(dir, fileName);
@@ -0,0 +1,169 @@
+package fi.dy.masa.malilib.util;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Helpers for the trigram postings used by the search indices.
+ * The postings map each three character sequence to the sorted indices of the entries containing it,
+ * so the candidate entries for a contiguous search text can be found by intersecting the postings
+ * of all the trigrams of the search text.
+ */
+public class TrigramUtils
+{
+    /**
+     * Adds the trigrams of the given strings to the temporary postings of the entry with the given index.
+     * The entries must be added in increasing index order.
+     */
+    public static void addTrigrams(String[] strings, int index, Long2ObjectOpenHashMap<IntArrayList> postings)
+    {
+        for (String str : strings)
+        {
+            addTrigrams(str, index, postings);
+        }
+    }
+
+    /**
+     * Adds the trigrams of the given string to the temporary postings of the entry with the given index.
+     * The entries must be added in increasing index order.
+     */
+    public static void addTrigrams(String str, int index, Long2ObjectOpenHashMap<IntArrayList> postings)
+    {
+        for (int i = 0; i <= str.length() - 3; ++i)
+        {
+            long trigram = getTrigram(str, i);
+            IntArrayList list = postings.get(trigram);
+
+            if (list == null)
+            {
+                list = new IntArrayList();
+                postings.put(trigram, list);
+            }
+
+            // The entries are added in order, so a duplicate can only be the last value
+            if (list.isEmpty() || list.getInt(list.size() - 1) != index)
+            {
+                list.add(index);
+            }
+        }
+    }
+
+    /**
+     * Converts the temporary postings into the final compact arrays
+     */
+    public static Long2ObjectMap<int[]> toPostings(Long2ObjectOpenHashMap<IntArrayList> tmpPostings)
+    {
+        Long2ObjectOpenHashMap<int[]> postings = new Long2ObjectOpenHashMap<>(tmpPostings.size());
+
+        for (Long2ObjectMap.Entry<IntArrayList> entry : tmpPostings.long2ObjectEntrySet())
+        {
+            postings.put(entry.getLongKey(), entry.getValue().toIntArray());
+        }
+
+        return postings;
+    }
+
+    /**
+     * @return the sorted indices of the entries that contain all the trigrams of the given text,
+     *         or null if the text is too short for the trigram lookup
+     */
+    @Nullable
+    public static int[] getCandidates(Long2ObjectMap<int[]> postings, String text)
+    {
+        if (text.length() < 3)
+        {
+            return null;
+        }
+
+        int[] candidates = null;
+
+        for (int i = 0; i <= text.length() - 3; ++i)
+        {
+            int[] posting = postings.get(getTrigram(text, i));
+
+            if (posting == null)
+            {
+                return new int[0];
+            }
+
+            candidates = candidates == null ? posting : intersect(candidates, posting);
+
+            if (candidates.length == 0)
+            {
+                break;
+            }
+        }
+
+        return candidates;
+    }
+
+    public static long getTrigram(String str, int start)
+    {
+        return ((long) str.charAt(start) << 32) | ((long) str.charAt(start + 1) << 16) | (long) str.charAt(start + 2);
+    }
+
+    /**
+     * @return the values that are present in both of the given sorted arrays
+     */
+    public static int[] intersect(int[] arr1, int[] arr2)
+    {
+        int[] result = new int[Math.min(arr1.length, arr2.length)];
+        int i1 = 0;
+        int i2 = 0;
+        int count = 0;
+
+        while (i1 < arr1.length && i2 < arr2.length)
+        {
+            if (arr1[i1] < arr2[i2])
+            {
+                ++i1;
+            }
+            else if (arr1[i1] > arr2[i2])
+            {
+                ++i2;
+            }
+            else
+            {
+                result[count++] = arr1[i1];
+                ++i1;
+                ++i2;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * @return the values that are present in either of the given sorted arrays, without duplicates
+     */
+    public static int[] union(int[] arr1, int[] arr2)
+    {
+        int[] result = new int[arr1.length + arr2.length];
+        int i1 = 0;
+        int i2 = 0;
+        int count = 0;
+
+        while (i1 < arr1.length || i2 < arr2.length)
+        {
+            if (i2 >= arr2.length || (i1 < arr1.length && arr1[i1] < arr2[i2]))
+            {
+                result[count++] = arr1[i1++];
+            }
+            else if (i1 >= arr1.length || arr1[i1] > arr2[i2])
+            {
+                result[count++] = arr2[i2++];
+            }
+            else
+            {
+                result[count++] = arr1[i1];
+                ++i1;
+                ++i2;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+}
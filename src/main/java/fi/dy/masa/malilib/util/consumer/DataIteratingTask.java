@@ -12,6 +12,8 @@ public class DataIteratingTask<TYPE>
     protected final Iterator<TYPE> iterator;
     protected final BiConsumer<TYPE, DataIteratingTask<TYPE>> dataProcessingTask;
     @Nullable protected final EventListener endTask;
+    protected int processedCount;
+    protected boolean finished;
 
     public DataIteratingTask(List<TYPE> data,
                              BiConsumer<TYPE, DataIteratingTask<TYPE>> dataProcessingTask,
@@ -23,10 +25,19 @@ public class DataIteratingTask<TYPE>
         this.iterator = data.iterator();
     }
 
+    /**
+     * Processes the next element, or ends the task if there are no more elements
+     */
     public void advance()
     {
+        if (this.finished)
+        {
+            return;
+        }
+
         if (this.iterator.hasNext())
         {
+            ++this.processedCount;
             this.dataProcessingTask.accept(this.iterator.next(), this);
         }
         else
@@ -35,11 +46,57 @@ public class DataIteratingTask<TYPE>
         }
     }
 
+    /**
+     * Ends the task, and calls the end task callback, if one was given.
+     * The callback is only called once, even if this method is called multiple times.
+     */
     public void cancel()
     {
+        if (this.finished)
+        {
+            return;
+        }
+
+        this.finished = true;
+
         if (this.endTask != null)
         {
             this.endTask.onEvent();
         }
     }
+
+    /**
+     * @return true if there are still elements left to process
+     */
+    public boolean hasNext()
+    {
+        return this.finished == false && this.iterator.hasNext();
+    }
+
+    /**
+     * @return true if the task has ended, either by running out of elements or by being cancelled
+     */
+    public boolean isFinished()
+    {
+        return this.finished;
+    }
+
+    public int getProcessedCount()
+    {
+        return this.processedCount;
+    }
+
+    public int getTotalCount()
+    {
+        return this.data.size();
+    }
+
+    /**
+     * @return the fraction of the elements that have been processed, from 0.0 to 1.0
+     */
+    public double getProgress()
+    {
+        int total = this.getTotalCount();
+        return total > 0 ? Math.min((double) this.processedCount / (double) total, 1.0) : 1.0;
+    }
 }
@@ -63,6 +63,30 @@ public class Color4f
         return fromColor(this.intValue, alpha);
     }
 
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) { return true; }
+        if (o == null || this.getClass() != o.getClass()) { return false; }
+
+        Color4f color4f = (Color4f) o;
+
+        if (Float.compare(color4f.r, this.r) != 0) { return false; }
+        if (Float.compare(color4f.g, this.g) != 0) { return false; }
+        if (Float.compare(color4f.b, this.b) != 0) { return false; }
+        return Float.compare(color4f.a, this.a) == 0;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = (this.r != 0.0f ? Float.floatToIntBits(this.r) : 0);
+        result = 31 * result + (this.g != 0.0f ? Float.floatToIntBits(this.g) : 0);
+        result = 31 * result + (this.b != 0.0f ? Float.floatToIntBits(this.b) : 0);
+        result = 31 * result + (this.a != 0.0f ? Float.floatToIntBits(this.a) : 0);
+        return result;
+    }
+
     @Override
     public String toString()
     {
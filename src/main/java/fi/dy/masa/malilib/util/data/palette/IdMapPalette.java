@@ -0,0 +1,94 @@
+package fi.dy.masa.malilib.util.data.palette;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nullable;
+
+/**
+ * A "direct" palette, which uses some global ID mapping (for example
+ * the block state ID map) instead of storing its own mapping.
+ * Thus this palette never needs to be resized.
+ */
+public class IdMapPalette<T> implements Palette<T>
+{
+    protected final ToIntFunction<T> idGetter;
+    protected final IntFunction<T> valueGetter;
+    protected final int bits;
+    protected final int maxSize;
+
+    public IdMapPalette(int bits, ToIntFunction<T> idGetter, IntFunction<T> valueGetter)
+    {
+        this.bits = bits;
+        this.maxSize = 1 << bits;
+        this.idGetter = idGetter;
+        this.valueGetter = valueGetter;
+    }
+
+    public int getBits()
+    {
+        return this.bits;
+    }
+
+    @Override
+    public int getSize()
+    {
+        return this.maxSize;
+    }
+
+    @Override
+    public int getMaxSize()
+    {
+        return this.maxSize;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the global ID of the value doesn't fit in the bit width
+     *                                  of this palette, as silently storing some other ID would corrupt the data
+     */
+    @Override
+    public int idFor(T value)
+    {
+        int id = this.idGetter.applyAsInt(value);
+
+        if (id < 0 || id >= this.maxSize)
+        {
+            throw new IllegalArgumentException("The ID " + id + " of the value '" + value +
+                                               "' is out of range for a " + this.bits + "-bit palette");
+        }
+
+        return id;
+    }
+
+    @Override
+    @Nullable
+    public T getValue(int id)
+    {
+        return this.valueGetter.apply(id);
+    }
+
+    @Override
+    public List<T> getMapping()
+    {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean setMapping(List<T> list)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean overrideMapping(int id, T value)
+    {
+        return false;
+    }
+
+    @Override
+    public IdMapPalette<T> copy(PaletteResizeHandler<T> resizeHandler)
+    {
+        return this;
+    }
+}
@@ -0,0 +1,134 @@
+package fi.dy.masa.malilib.util.data.palette;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size array of unsigned integer values, packed into a long[] at the given bit width.
+ * Entries are allowed to span two longs, so no bits are wasted at the end of each long.
+ */
+public class PackedIntArray
+{
+    protected final long[] longArray;
+    protected final int bitsPerEntry;
+    protected final long maxEntryValue;
+    protected final long arraySize;
+
+    public PackedIntArray(int bitsPerEntry, long arraySize)
+    {
+        this(bitsPerEntry, arraySize, null);
+    }
+
+    public PackedIntArray(int bitsPerEntry, long arraySize, long[] longArray)
+    {
+        if (bitsPerEntry < 1 || bitsPerEntry > 32)
+        {
+            throw new IllegalArgumentException("Invalid bits per entry value: " + bitsPerEntry);
+        }
+
+        this.arraySize = arraySize;
+        this.bitsPerEntry = bitsPerEntry;
+        this.maxEntryValue = (1L << bitsPerEntry) - 1L;
+
+        long longArrayLength = getRequiredArrayLength(bitsPerEntry, arraySize);
+
+        if (longArray != null)
+        {
+            if (longArray.length != longArrayLength)
+            {
+                throw new IllegalArgumentException("Invalid length given for storage, got: " + longArray.length +
+                                                   " but expected: " + longArrayLength);
+            }
+
+            this.longArray = longArray;
+        }
+        else
+        {
+            this.longArray = new long[(int) longArrayLength];
+        }
+    }
+
+    public int getBitsPerEntry()
+    {
+        return this.bitsPerEntry;
+    }
+
+    public long size()
+    {
+        return this.arraySize;
+    }
+
+    public long[] getBackingLongArray()
+    {
+        return this.longArray;
+    }
+
+    public int getAt(long index)
+    {
+        final int bits = this.bitsPerEntry;
+        long startOffset = index * (long) bits;
+        int startArrIndex = (int) (startOffset >> 6);
+        int endArrIndex = (int) (((index + 1L) * (long) bits - 1L) >> 6);
+        int startBitOffset = (int) (startOffset & 0x3F);
+
+        if (startArrIndex == endArrIndex)
+        {
+            return (int) (this.longArray[startArrIndex] >>> startBitOffset & this.maxEntryValue);
+        }
+        else
+        {
+            int endOffset = 64 - startBitOffset;
+            return (int) ((this.longArray[startArrIndex] >>> startBitOffset |
+                           this.longArray[endArrIndex] << endOffset) & this.maxEntryValue);
+        }
+    }
+
+    public void setAt(long index, int value)
+    {
+        final int bits = this.bitsPerEntry;
+        final long maxValue = this.maxEntryValue;
+        long startOffset = index * (long) bits;
+        int startArrIndex = (int) (startOffset >> 6);
+        int endArrIndex = (int) (((index + 1L) * (long) bits - 1L) >> 6);
+        int startBitOffset = (int) (startOffset & 0x3F);
+        long[] arr = this.longArray;
+
+        arr[startArrIndex] = arr[startArrIndex] & ~(maxValue << startBitOffset) |
+                             ((long) value & maxValue) << startBitOffset;
+
+        if (startArrIndex != endArrIndex)
+        {
+            int endOffset = 64 - startBitOffset;
+            int endBitCount = bits - endOffset;
+            arr[endArrIndex] = arr[endArrIndex] >>> endBitCount << endBitCount | ((long) value & maxValue) >> endOffset;
+        }
+    }
+
+    /**
+     * Sets all the entries in this array to the given value
+     */
+    public void fill(int value)
+    {
+        if (value == 0)
+        {
+            Arrays.fill(this.longArray, 0L);
+            return;
+        }
+
+        final long size = this.arraySize;
+
+        for (long i = 0; i < size; ++i)
+        {
+            this.setAt(i, value);
+        }
+    }
+
+    public PackedIntArray copy()
+    {
+        return new PackedIntArray(this.bitsPerEntry, this.arraySize, this.longArray.clone());
+    }
+
+    public static long getRequiredArrayLength(int bitsPerEntry, long arraySize)
+    {
+        return (arraySize * (long) bitsPerEntry + 63L) / 64L;
+    }
+}
@@ -0,0 +1,293 @@
+package fi.dy.masa.malilib.util.data.palette;
+
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * A palette-backed 3D volume of values. The palette IDs are packed into a long[]
+ * at the current palette bit width. When the palette runs out of IDs, the container
+ * gets resized and migrates from a {@link LinearPalette} to a {@link HashMapPalette},
+ * and finally to the optional direct {@link IdMapPalette}, if one was provided.
+ */
+public class PalettedContainer3D<T> implements PaletteResizeHandler<T>
+{
+    public static final int MIN_BITS = 2;
+    public static final int MAX_LINEAR_PALETTE_BITS = 4;
+    public static final int MAX_HASH_MAP_PALETTE_BITS = 8;
+
+    protected final T defaultValue;
+    @Nullable protected final IdMapPalette<T> directPalette;
+    protected final int sizeX;
+    protected final int sizeY;
+    protected final int sizeZ;
+    protected final int sizeLayer;
+    protected final long volume;
+    protected PackedIntArray storage;
+    protected Palette<T> palette;
+    protected int bits;
+
+    public PalettedContainer3D(int sizeX, int sizeY, int sizeZ, T defaultValue)
+    {
+        this(sizeX, sizeY, sizeZ, defaultValue, null);
+    }
+
+    public PalettedContainer3D(int sizeX, int sizeY, int sizeZ, T defaultValue,
+                               @Nullable IdMapPalette<T> directPalette)
+    {
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0)
+        {
+            throw new IllegalArgumentException(String.format("Invalid container size: %d x %d x %d",
+                                                             sizeX, sizeY, sizeZ));
+        }
+
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.sizeLayer = sizeX * sizeZ;
+        this.volume = (long) this.sizeLayer * (long) sizeY;
+        this.defaultValue = defaultValue;
+        this.directPalette = directPalette;
+
+        this.reset(MIN_BITS);
+    }
+
+    protected PalettedContainer3D(PalettedContainer3D<T> other)
+    {
+        this.sizeX = other.sizeX;
+        this.sizeY = other.sizeY;
+        this.sizeZ = other.sizeZ;
+        this.sizeLayer = other.sizeLayer;
+        this.volume = other.volume;
+        this.defaultValue = other.defaultValue;
+        this.directPalette = other.directPalette;
+        this.bits = other.bits;
+        this.palette = other.palette.copy(this);
+        this.storage = other.storage.copy();
+    }
+
+    public int getSizeX()
+    {
+        return this.sizeX;
+    }
+
+    public int getSizeY()
+    {
+        return this.sizeY;
+    }
+
+    public int getSizeZ()
+    {
+        return this.sizeZ;
+    }
+
+    public long getVolume()
+    {
+        return this.volume;
+    }
+
+    public T getDefaultValue()
+    {
+        return this.defaultValue;
+    }
+
+    /**
+     * @return the current bit width of the packed palette IDs. This needs to be stored
+     *         along with the mapping and the packed data, see {@link #setFromMapping(List, int, long[])}
+     */
+    public int getBits()
+    {
+        return this.bits;
+    }
+
+    public Palette<T> getPalette()
+    {
+        return this.palette;
+    }
+
+    public PackedIntArray getStorage()
+    {
+        return this.storage;
+    }
+
+    public T get(int x, int y, int z)
+    {
+        T value = this.palette.getValue(this.storage.getAt(this.getIndex(x, y, z)));
+        return value != null ? value : this.defaultValue;
+    }
+
+    public void set(int x, int y, int z, T value)
+    {
+        long index = this.getIndex(x, y, z);
+        int id = this.palette.idFor(value);
+        // Note: The storage may have been replaced during the idFor() call, if the palette got resized
+        this.storage.setAt(index, id);
+    }
+
+    /**
+     * Sets all the positions within the given inclusive box to the given value
+     */
+    public void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, T value)
+    {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        minZ = Math.max(minZ, 0);
+        maxX = Math.min(maxX, this.sizeX - 1);
+        maxY = Math.min(maxY, this.sizeY - 1);
+        maxZ = Math.min(maxZ, this.sizeZ - 1);
+
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+        {
+            return;
+        }
+
+        if (minX == 0 && minY == 0 && minZ == 0 &&
+            maxX == this.sizeX - 1 && maxY == this.sizeY - 1 && maxZ == this.sizeZ - 1)
+        {
+            this.fill(value);
+            return;
+        }
+
+        // Any possible resize happens here, before the loop
+        final int id = this.palette.idFor(value);
+        final PackedIntArray storage = this.storage;
+
+        for (int y = minY; y <= maxY; ++y)
+        {
+            for (int z = minZ; z <= maxZ; ++z)
+            {
+                long index = this.getIndex(minX, y, z);
+
+                for (int x = minX; x <= maxX; ++x, ++index)
+                {
+                    storage.setAt(index, id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the entire volume to the given value.
+     * This also resets the palette to the minimum size.
+     */
+    public void fill(T value)
+    {
+        this.reset(MIN_BITS);
+
+        int id = this.palette.idFor(value);
+
+        if (id != 0)
+        {
+            this.storage.fill(id);
+        }
+    }
+
+    /**
+     * Replaces the contents of this container from the given palette mapping and packed data.
+     * This is meant for reading the container from file.
+     * @param mapping the palette mapping, from {@link Palette#getMapping()}. An empty mapping means
+     *                that the data uses the IDs of the direct palette, which must then exist in this container.
+     * @param bits the bit width of the packed data, from {@link #getBits()}
+     * @param longArray the packed data, from {@link PackedIntArray#getBackingLongArray()}
+     */
+    public void setFromMapping(List<T> mapping, int bits, long[] longArray)
+    {
+        PackedIntArray storage = new PackedIntArray(bits, this.volume, longArray);
+        Palette<T> palette;
+
+        if (mapping.isEmpty())
+        {
+            if (this.directPalette == null || this.directPalette.getBits() != bits)
+            {
+                throw new IllegalArgumentException("No matching direct palette for the " + bits + "-bit data without a mapping");
+            }
+
+            palette = this.directPalette;
+        }
+        else
+        {
+            // The stored values are IDs in the given mapping, so the mapping is kept even
+            // if it is larger than what the hash map palette would normally be used for
+            palette = bits <= MAX_LINEAR_PALETTE_BITS ? new LinearPalette<>(bits, this) : new HashMapPalette<>(bits, this);
+
+            if (mapping.size() > palette.getMaxSize() || palette.setMapping(mapping) == false)
+            {
+                throw new IllegalArgumentException("Failed to set the palette mapping (size: " + mapping.size() +
+                                                   ", bits: " + bits + ")");
+            }
+        }
+
+        this.bits = bits;
+        this.palette = palette;
+        this.storage = storage;
+    }
+
+    public PalettedContainer3D<T> copy()
+    {
+        return new PalettedContainer3D<>(this);
+    }
+
+    @Override
+    public int onResize(int newSizeBits, T valueBeingAdded, Palette<T> oldPalette)
+    {
+        PackedIntArray oldStorage = this.storage;
+        int oldPaletteSize = oldPalette.getSize();
+
+        this.setBits(newSizeBits);
+
+        // Build an old ID => new ID map once, instead of doing a palette lookup per entry
+        int[] idMap = new int[oldPaletteSize];
+
+        for (int oldId = 0; oldId < oldPaletteSize; ++oldId)
+        {
+            T value = oldPalette.getValue(oldId);
+            idMap[oldId] = this.palette.idFor(value != null ? value : this.defaultValue);
+        }
+
+        final PackedIntArray newStorage = this.storage;
+        final long volume = this.volume;
+
+        for (long i = 0; i < volume; ++i)
+        {
+            int oldId = oldStorage.getAt(i);
+
+            if (oldId < oldPaletteSize)
+            {
+                newStorage.setAt(i, idMap[oldId]);
+            }
+        }
+
+        return this.palette.idFor(valueBeingAdded);
+    }
+
+    protected long getIndex(int x, int y, int z)
+    {
+        return (long) y * (long) this.sizeLayer + (long) z * (long) this.sizeX + (long) x;
+    }
+
+    protected void reset(int bits)
+    {
+        this.setBits(bits);
+        this.palette.idFor(this.defaultValue);
+    }
+
+    protected void setBits(int bits)
+    {
+        if (bits <= MAX_LINEAR_PALETTE_BITS)
+        {
+            this.bits = Math.max(MIN_BITS, bits);
+            this.palette = new LinearPalette<>(this.bits, this);
+        }
+        else if (bits <= MAX_HASH_MAP_PALETTE_BITS || this.directPalette == null)
+        {
+            this.bits = bits;
+            this.palette = new HashMapPalette<>(this.bits, this);
+        }
+        else
+        {
+            this.bits = this.directPalette.getBits();
+            this.palette = this.directPalette;
+        }
+
+        this.storage = new PackedIntArray(this.bits, this.volume);
+    }
+}
@@ -0,0 +1,215 @@
+package fi.dy.masa.malilib.util.position;
+
+import javax.annotation.Nullable;
+import net.minecraft.util.math.BlockPos;
+import fi.dy.masa.malilib.util.data.IntBoundingBox;
+
+/**
+ * An immutable snapshot of a {@link LayerRange}, with the layer mode and the axis
+ * already resolved into inclusive min and max values per axis.
+ * Thus the position and box checks are just plain comparisons without any switches,
+ * and the snapshot can be safely used from other threads, for example from render workers.
+ * Get the current snapshot via {@link LayerRange#getCompiledRange()}, it gets re-created
+ * after the range changes.
+ */
+public class CompiledLayerRange
+{
+    public static final CompiledLayerRange ALL = new CompiledLayerRange(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE,
+                                                                        Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    public final int minX;
+    public final int minY;
+    public final int minZ;
+    public final int maxX;
+    public final int maxY;
+    public final int maxZ;
+
+    public CompiledLayerRange(int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+    {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    public boolean isPositionWithinRange(BlockPos pos)
+    {
+        return this.isPositionWithinRange(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    public boolean isPositionWithinRange(int x, int y, int z)
+    {
+        return x >= this.minX && x <= this.maxX &&
+               y >= this.minY && y <= this.maxY &&
+               z >= this.minZ && z <= this.maxZ;
+    }
+
+    /**
+     * @param packedPos a position packed in the format of {@link BlockPos#toLong()}
+     */
+    public boolean isPackedPositionWithinRange(long packedPos)
+    {
+        return this.isPositionWithinRange(unpackX(packedPos), unpackY(packedPos), unpackZ(packedPos));
+    }
+
+    public boolean intersects(SubChunkPos pos)
+    {
+        final int x = pos.getX() << 4;
+        final int y = pos.getY() << 4;
+        final int z = pos.getZ() << 4;
+
+        return this.intersectsBox(x, y, z, x + 15, y + 15, z + 15);
+    }
+
+    public boolean intersects(IntBoundingBox box)
+    {
+        return this.intersectsBox(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+    }
+
+    public boolean intersectsBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+    {
+        return maxX >= this.minX && minX <= this.maxX &&
+               maxY >= this.minY && minY <= this.maxY &&
+               maxZ >= this.minZ && minZ <= this.maxZ;
+    }
+
+    /**
+     * @return true if the entire given box is within the range
+     */
+    public boolean containsBox(IntBoundingBox box)
+    {
+        return box.minX >= this.minX && box.maxX <= this.maxX &&
+               box.minY >= this.minY && box.maxY <= this.maxY &&
+               box.minZ >= this.minZ && box.maxZ <= this.maxZ;
+    }
+
+    /**
+     * Returns the part of the given box that is within the range.
+     * Since the range is a single slab along one axis, the visible part is always a single box.
+     * @return the given box itself if it's fully within the range, the clamped box
+     *         if it's partially within the range, or null if it's fully outside the range
+     */
+    @Nullable
+    public IntBoundingBox getVisiblePart(IntBoundingBox box)
+    {
+        if (this.intersects(box) == false)
+        {
+            return null;
+        }
+
+        if (this.containsBox(box))
+        {
+            return box;
+        }
+
+        return new IntBoundingBox(Math.max(box.minX, this.minX),
+                                  Math.max(box.minY, this.minY),
+                                  Math.max(box.minZ, this.minZ),
+                                  Math.min(box.maxX, this.maxX),
+                                  Math.min(box.maxY, this.maxY),
+                                  Math.min(box.maxZ, this.maxZ));
+    }
+
+    /**
+     * Checks the given packed positions, and returns the index ranges of the runs of consecutive
+     * positions that are within the range. The returned array contains pairs of
+     * [startIndex, endIndex) values, so its length is two times the number of runs.
+     * @param packedPositions positions packed in the format of {@link BlockPos#toLong()}
+     */
+    public int[] getVisibleRuns(long[] packedPositions, int startIndex, int endIndex)
+    {
+        int[] runs = new int[8];
+        int count = 0;
+        int runStart = -1;
+
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            boolean visible = this.isPackedPositionWithinRange(packedPositions[i]);
+
+            if (visible && runStart < 0)
+            {
+                runStart = i;
+            }
+            else if (visible == false && runStart >= 0)
+            {
+                runs = addRun(runs, count, runStart, i);
+                count += 2;
+                runStart = -1;
+            }
+        }
+
+        if (runStart >= 0)
+        {
+            runs = addRun(runs, count, runStart, endIndex);
+            count += 2;
+        }
+
+        int[] result = new int[count];
+        System.arraycopy(runs, 0, result, 0, count);
+
+        return result;
+    }
+
+    /**
+     * Copies the packed positions that are within the range from the input array to the output array.
+     * The arrays can be the same array, to filter in place.
+     * @param packedPositions positions packed in the format of {@link BlockPos#toLong()}
+     * @return the number of positions written to the output array
+     */
+    public int filterVisible(long[] packedPositions, int length, long[] out)
+    {
+        int count = 0;
+
+        for (int i = 0; i < length; ++i)
+        {
+            long packedPos = packedPositions[i];
+
+            if (this.isPackedPositionWithinRange(packedPos))
+            {
+                out[count++] = packedPos;
+            }
+        }
+
+        return count;
+    }
+
+    private static int[] addRun(int[] runs, int count, int start, int end)
+    {
+        if (count + 2 > runs.length)
+        {
+            int[] newArr = new int[runs.length * 2];
+            System.arraycopy(runs, 0, newArr, 0, count);
+            runs = newArr;
+        }
+
+        runs[count] = start;
+        runs[count + 1] = end;
+
+        return runs;
+    }
+
+    // These match the packing used in BlockPos#toLong()
+    public static int unpackX(long packedPos)
+    {
+        return (int) (packedPos >> 38);
+    }
+
+    public static int unpackY(long packedPos)
+    {
+        return (int) (packedPos << 26 >> 52);
+    }
+
+    public static int unpackZ(long packedPos)
+    {
+        return (int) (packedPos << 38 >> 38);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("CompiledLayerRange{x: [%d, %d], y: [%d, %d], z: [%d, %d]}",
+                             this.minX, this.maxX, this.minY, this.maxY, this.minZ, this.maxZ);
+    }
+}
@@ -36,6 +36,7 @@ public class LayerRange
     protected boolean hotkeyRangeMin;
     protected boolean hotkeyRangeMax;
     protected boolean followPlayer;
+    protected volatile CompiledLayerRange compiledRange = CompiledLayerRange.ALL;
 
     public LayerRange(LayerRangeChangeListener listener)
     {
@@ -112,6 +113,42 @@ public class LayerRange
         return this.layerRangeMax;
     }
 
+    /**
+     * Returns an immutable snapshot of the current range, which is faster to check against
+     * than the methods in this class. The snapshot is re-created on the main thread
+     * whenever the range changes, so this can be called from any thread.
+     */
+    public CompiledLayerRange getCompiledRange()
+    {
+        return this.compiledRange;
+    }
+
+    protected CompiledLayerRange compileRange()
+    {
+        if (this.layerMode == LayerMode.ALL)
+        {
+            return CompiledLayerRange.ALL;
+        }
+
+        final int min = this.getMinLayerBoundary();
+        final int max = this.getMaxLayerBoundary();
+        final int minValue = Integer.MIN_VALUE;
+        final int maxValue = Integer.MAX_VALUE;
+
+        switch (this.axis)
+        {
+            case X:  return new CompiledLayerRange(min, minValue, minValue, max, maxValue, maxValue);
+            case Y:  return new CompiledLayerRange(minValue, min, minValue, maxValue, max, maxValue);
+            default: return new CompiledLayerRange(minValue, minValue, min, maxValue, maxValue, max);
+        }
+    }
+
+    protected void invalidateCompiledRange()
+    {
+        // Compiled right away from the fields on this thread, so that other threads only see complete snapshots
+        this.compiledRange = this.compileRange();
+    }
+
     public int getMinLayerBoundary()
     {
         switch (this.layerMode)
@@ -161,6 +198,7 @@ public class LayerRange
     {
         this.layerMode = mode;
 
+        this.invalidateCompiledRange();
         this.listener.updateAll();
 
         if (printMessage)
@@ -173,6 +211,7 @@ public class LayerRange
     {
         this.axis = axis;
 
+        this.invalidateCompiledRange();
         this.listener.updateAll();
         this.sendMessage("malilib.message.set_layer_axis_to", axis.getName());
     }
@@ -376,6 +415,8 @@ public class LayerRange
         int layerMin = Math.min(layer1, layer2);
         int layerMax = Math.max(layer1, layer2);
 
+        this.invalidateCompiledRange();
+
         switch (this.axis)
         {
             case X:
@@ -512,64 +553,7 @@ public class LayerRange
 
     public boolean isPositionWithinRange(int x, int y, int z)
     {
-        switch (this.layerMode)
-        {
-            case ALL:           return true;
-            case SINGLE_LAYER:  return this.isPositionWithinSingleLayerRange(x, y, z);
-            case ALL_ABOVE:     return this.isPositionWithinAboveRange(x, y, z);
-            case ALL_BELOW:     return this.isPositionWithinBelowRange(x, y, z);
-            case LAYER_RANGE:   return this.isPositionWithinLayerRangeRange(x, y, z);
-        }
-
-        return false;
-    }
-
-    protected boolean isPositionWithinSingleLayerRange(int x, int y, int z)
-    {
-        switch (this.axis)
-        {
-            case X: return x == this.layerSingle;
-            case Y: return y == this.layerSingle;
-            case Z: return z == this.layerSingle;
-        }
-
-        return false;
-    }
-
-    protected boolean isPositionWithinAboveRange(int x, int y, int z)
-    {
-        switch (this.axis)
-        {
-            case X: return x >= this.layerAbove;
-            case Y: return y >= this.layerAbove;
-            case Z: return z >= this.layerAbove;
-        }
-
-        return false;
-    }
-
-    protected boolean isPositionWithinBelowRange(int x, int y, int z)
-    {
-        switch (this.axis)
-        {
-            case X: return x <= this.layerBelow;
-            case Y: return y <= this.layerBelow;
-            case Z: return z <= this.layerBelow;
-        }
-
-        return false;
-    }
-
-    protected boolean isPositionWithinLayerRangeRange(int x, int y, int z)
-    {
-        switch (this.axis)
-        {
-            case X: return x >= this.layerRangeMin && x <= this.layerRangeMax;
-            case Y: return y >= this.layerRangeMin && y <= this.layerRangeMax;
-            case Z: return z >= this.layerRangeMin && z <= this.layerRangeMax;
-        }
-
-        return false;
+        return this.getCompiledRange().isPositionWithinRange(x, y, z);
     }
 
     public boolean isPositionAtRenderEdgeOnSide(BlockPos pos, EnumFacing side)
@@ -586,29 +570,7 @@ public class LayerRange
 
     public boolean intersects(SubChunkPos pos)
     {
-        switch (this.axis)
-        {
-            case X:
-            {
-                final int xMin = (pos.getX() << 4);
-                final int xMax = (pos.getX() << 4) + 15;
-                return (xMax < this.getMinLayerBoundary() || xMin > this.getMaxLayerBoundary()) == false;
-            }
-            case Y:
-            {
-                final int yMin = (pos.getY() << 4);
-                final int yMax = (pos.getY() << 4) + 15;
-                return (yMax < this.getMinLayerBoundary() || yMin > this.getMaxLayerBoundary()) == false;
-            }
-            case Z:
-            {
-                final int zMin = (pos.getZ() << 4);
-                final int zMax = (pos.getZ() << 4) + 15;
-                return (zMax < this.getMinLayerBoundary() || zMin > this.getMaxLayerBoundary()) == false;
-            }
-            default:
-                return false;
-        }
+        return this.getCompiledRange().intersects(pos);
     }
 
     public boolean intersects(IntBoundingBox box)
@@ -625,13 +587,7 @@ public class LayerRange
 
     public boolean intersectsBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
     {
-        switch (this.axis)
-        {
-            case X: return (maxX < this.getMinLayerBoundary() || minX > this.getMaxLayerBoundary()) == false;
-            case Y: return (maxY < this.getMinLayerBoundary() || minY > this.getMaxLayerBoundary()) == false;
-            case Z: return (maxZ < this.getMinLayerBoundary() || minZ > this.getMaxLayerBoundary()) == false;
-            default: return false;
-        }
+        return this.getCompiledRange().intersectsBox(minX, minY, minZ, maxX, maxY, maxZ);
     }
 
     public int getClampedValue(int value, EnumFacing.Axis axis)
@@ -760,6 +716,7 @@ public class LayerRange
         this.playerFollowOffset = JsonUtils.getInteger(obj, "player_follow_offset");
         this.hotkeyRangeMin = JsonUtils.getBoolean(obj, "hotkey_range_min");
         this.hotkeyRangeMax = JsonUtils.getBoolean(obj, "hotkey_range_max");
+        this.invalidateCompiledRange();
     }
 
     public static LayerRange createFromJson(JsonObject obj, LayerRangeChangeListener refresher)
@@ -0,0 +1,321 @@
+package fi.dy.masa.malilib.util.task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import javax.annotation.Nullable;
+import fi.dy.masa.malilib.MaLiLib;
+import fi.dy.masa.malilib.MaLiLibConfigs;
+import fi.dy.masa.malilib.util.consumer.DataIteratingTask;
+
+/**
+ * Runs the scheduled {@link DataIteratingTask}s at the end of each client tick, under a time budget,
+ * so that long-running jobs can be spread over multiple ticks instead of stalling one tick.
+ * <br>
+ * The tasks are run in rounds, where each unfinished task gets a slice of elements to process,
+ * in the order of their priority. Higher priority tasks get bigger slices, and the order of
+ * the tasks of the same priority rotates, so that all the tasks make progress.
+ * The rounds are repeated until the time budget for the tick runs out, or all the tasks have finished.
+ * When the budget runs out, the next tick continues from the same point in the same round,
+ * so that the lower priority tasks also get their turn even if the budget only covers
+ * a part of a round per tick.
+ * <br>
+ * The data processing callbacks of the scheduled tasks should not call {@link DataIteratingTask#advance()}
+ * themselves, as the scheduler does that. This should only be used from the main thread.
+ */
+public class ClientTaskScheduler
+{
+    protected final EnumMap<Priority, ArrayDeque<ScheduledTask>> tasks = new EnumMap<>(Priority.class);
+    @Nullable protected ScheduledTask currentTask;
+    protected long budgetOverrideNanos = -1L;
+    protected int priorityIndex;
+    protected int roundRemaining = -1;
+
+    public ClientTaskScheduler()
+    {
+        for (Priority priority : Priority.VALUES)
+        {
+            this.tasks.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Schedules the given task to be run with the normal priority
+     * @return the handle of the task, which can be used to cancel it or to check its progress
+     */
+    public ScheduledTask schedule(DataIteratingTask<?> task)
+    {
+        return this.schedule(task, Priority.NORMAL);
+    }
+
+    /**
+     * Schedules the given task to be run with the given priority
+     * @return the handle of the task, which can be used to cancel it or to check its progress
+     */
+    public ScheduledTask schedule(DataIteratingTask<?> task, Priority priority)
+    {
+        ScheduledTask scheduledTask = new ScheduledTask(task, priority);
+        this.tasks.get(priority).add(scheduledTask);
+        return scheduledTask;
+    }
+
+    /**
+     * Cancels all the scheduled tasks, including the currently running task
+     * if this is called from a task's callback
+     */
+    public void cancelAll()
+    {
+        ScheduledTask currentTask = this.currentTask;
+
+        // The current task has already been polled from its queue,
+        // and it won't be added back once it has been cancelled
+        if (currentTask != null)
+        {
+            currentTask.cancel();
+        }
+
+        for (ArrayDeque<ScheduledTask> queue : this.tasks.values())
+        {
+            // Copy the tasks first, in case an end callback schedules a new task
+            List<ScheduledTask> list = new ArrayList<>(queue);
+            queue.clear();
+            list.forEach(ScheduledTask::cancel);
+        }
+
+        this.roundRemaining = -1;
+    }
+
+    public boolean hasTasks()
+    {
+        return this.getTaskCount() > 0;
+    }
+
+    /**
+     * @return the number of currently scheduled tasks. This also includes the tasks
+     *         that have been cancelled via their handle but have not had their turn yet.
+     */
+    public int getTaskCount()
+    {
+        int count = this.currentTask != null ? 1 : 0;
+
+        for (ArrayDeque<ScheduledTask> queue : this.tasks.values())
+        {
+            count += queue.size();
+        }
+
+        return count;
+    }
+
+    /**
+     * Overrides the time budget per tick from the config.
+     * @param budgetNanos the time budget in nanoseconds, or -1 to use the config value again
+     */
+    public void setBudgetOverride(long budgetNanos)
+    {
+        this.budgetOverrideNanos = budgetNanos;
+    }
+
+    public long getBudgetNanos()
+    {
+        if (this.budgetOverrideNanos >= 0L)
+        {
+            return this.budgetOverrideNanos;
+        }
+
+        return MaLiLibConfigs.Generic.TASK_SCHEDULER_TICK_BUDGET.getIntegerValue() * 1000L;
+    }
+
+    /**
+     * NOT PUBLIC API - DO NOT CALL
+     */
+    public void runTasks()
+    {
+        if (this.hasTasks() == false)
+        {
+            return;
+        }
+
+        final long endTime = System.nanoTime() + this.getBudgetNanos();
+
+        while (this.hasTasks())
+        {
+            Priority priority = Priority.VALUES[this.priorityIndex];
+            ArrayDeque<ScheduledTask> queue = this.tasks.get(priority);
+
+            // Only run the tasks that were in the queue at the start of the round,
+            // the callbacks may schedule new tasks to the end of the queue
+            if (this.roundRemaining < 0)
+            {
+                this.roundRemaining = queue.size();
+            }
+
+            // The round is continued on the next tick
+            if (this.runRound(queue, priority.sliceSize, endTime) == false)
+            {
+                return;
+            }
+
+            this.roundRemaining = -1;
+            this.priorityIndex = (this.priorityIndex + 1) % Priority.VALUES.length;
+        }
+    }
+
+    /**
+     * Gives each remaining task of the current round in the queue one slice of processing.
+     * @return false if the time budget ran out
+     */
+    protected boolean runRound(ArrayDeque<ScheduledTask> queue, int sliceSize, long endTime)
+    {
+        while (this.roundRemaining > 0)
+        {
+            --this.roundRemaining;
+            ScheduledTask task = queue.poll();
+
+            if (task == null)
+            {
+                break;
+            }
+
+            this.currentTask = task;
+            boolean hasTime;
+
+            try
+            {
+                hasTime = task.run(sliceSize, endTime);
+            }
+            finally
+            {
+                this.currentTask = null;
+            }
+
+            if (task.isDone() == false)
+            {
+                // The task goes to the end of the queue, so that the other tasks get their turn first
+                queue.add(task);
+            }
+
+            if (hasTime == false)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public static class ScheduledTask
+    {
+        protected final DataIteratingTask<?> task;
+        protected final Priority priority;
+        protected boolean cancelled;
+
+        protected ScheduledTask(DataIteratingTask<?> task, Priority priority)
+        {
+            this.task = task;
+            this.priority = priority;
+        }
+
+        public DataIteratingTask<?> getTask()
+        {
+            return this.task;
+        }
+
+        public Priority getPriority()
+        {
+            return this.priority;
+        }
+
+        /**
+         * Cancels the task. The end callback of the task is called right away,
+         * and the task gets removed from the scheduler on its next turn.
+         */
+        public void cancel()
+        {
+            this.cancelled = true;
+            this.task.cancel();
+        }
+
+        public boolean isCancelled()
+        {
+            return this.cancelled;
+        }
+
+        /**
+         * @return true if the task has finished or has been cancelled
+         */
+        public boolean isDone()
+        {
+            return this.cancelled || this.task.isFinished();
+        }
+
+        /**
+         * @return the fraction of the elements that have been processed, from 0.0 to 1.0
+         */
+        public double getProgress()
+        {
+            return this.task.getProgress();
+        }
+
+        public int getProcessedCount()
+        {
+            return this.task.getProcessedCount();
+        }
+
+        public int getTotalCount()
+        {
+            return this.task.getTotalCount();
+        }
+
+        /**
+         * Processes up to sliceSize elements of the task, or until the time runs out.
+         * @return false if the time budget ran out
+         */
+        protected boolean run(int sliceSize, long endTime)
+        {
+            for (int i = 0; i < sliceSize && this.isDone() == false; ++i)
+            {
+                try
+                {
+                    this.task.advance();
+                }
+                catch (Exception e)
+                {
+                    MaLiLib.LOGGER.warn("Exception in a scheduled task, cancelling it", e);
+                    this.cancel();
+                }
+
+                if (System.nanoTime() >= endTime)
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    public enum Priority
+    {
+        HIGH    (4),
+        NORMAL  (2),
+        LOW     (1);
+
+        public static final Priority[] VALUES = values();
+
+        protected final int sliceSize;
+
+        Priority(int sliceSize)
+        {
+            this.sliceSize = sliceSize;
+        }
+
+        /**
+         * @return the number of elements the tasks of this priority get to process per round
+         */
+        public int getSliceSize()
+        {
+            return this.sliceSize;
+        }
+    }
+}